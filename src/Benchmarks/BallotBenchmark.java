@@ -0,0 +1,62 @@
+package Benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import VotingSystems.*;
+
+/**
+ *
+ * @author Warren Godone-Maresca
+ *
+ * Measures constructing the ballots of an <code>Election</code>: generating
+ * every voter's ranking, building a <code>BallotBox</code> of the distinct
+ * rankings, and building a <code>BallotTrie</code> of them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BallotBenchmark {
+
+	@Benchmark
+	public BallotBox generate(Election election){
+		return election.generator.generate(new Random(election.seed),
+				election.voters, election.length);
+	}
+
+	@Benchmark
+	public BallotBox box(Election election){
+		BallotBox box = new BallotBox();
+		CandidateDictionary candidates = box.getCandidates();
+		String[] names = new String[election.candidates];
+
+		for(WeightedBallot weighted : election.ballots){
+			Ballot ballot = weighted.getBallot();
+			int n = ballot.getBallotLength();
+
+			for(int i = 0; i < n; i++)
+				names[i] = ballot.getCandidate(i);
+
+			box.add(new Ballot(Arrays.copyOf(names, n), candidates),
+					weighted.getWeight());
+		}
+
+		return box;
+	}
+
+	@Benchmark
+	public BallotTrie trie(Election election){
+		return new BallotTrie(election.ballots);
+	}
+}
@@ -0,0 +1,72 @@
+package Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import VotingSystems.*;
+
+/**
+ *
+ * @author Warren Godone-Maresca
+ *
+ * Measures building each voting system from the ballots of an
+ * <code>Election</code> and computing its winner. The systems count with a
+ * parallelism of 1, so the scores compare the work of each system rather
+ * than the number of processors.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CountBenchmark {
+
+	@Benchmark
+	public String plurality(Election election){
+		return new Plurality(election.ballots, 1).computeWinner();
+	}
+
+	@Benchmark
+	public String borda(Election election){
+		return new Borda(election.ballots, 1).computeWinner();
+	}
+
+	@Benchmark
+	public String condorcet(Election election){
+		return new Condorcet(election.ballots, 1).computeWinner();
+	}
+
+	@Benchmark
+	public String instantRunoff(Election election){
+		return new InstantRunoff(election.ballots).computeWinner();
+	}
+
+	@Benchmark
+	public String schulze(Election election){
+		return new Schulze(election.ballots, 1).computeWinner();
+	}
+
+	@Benchmark
+	public String rankedPairs(Election election){
+		return new RankedPairs(election.ballots, 1).computeWinner();
+	}
+
+	@Benchmark
+	public String dowdall(Election election){
+		return new PositionalScoring(election.ballots, 1,
+				PositionalScoring.dowdallScores(election.candidates))
+				.computeWinner();
+	}
+
+	@Benchmark
+	public String evaluateAll(Election election){
+		return new ElectionEvaluator(election.ballots).results();
+	}
+}
@@ -0,0 +1,99 @@
+package Benchmarks;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import VotingSystems.*;
+
+/**
+ *
+ * @author Warren Godone-Maresca
+ *
+ * The election that a benchmark counts, generated once per trial by an
+ * <code>ElectionModel</code>. The parameters sweep the model, the number of
+ * voters by tens from 10<sup>3</sup> to 10<sup>7</sup>, the number of 
+ * candidates from 3 to 100, and the number of candidates ranked on each 
+ * ballot, where 0 ranks every candidate. Any of them can be narrowed with JMH's <code>-p</code>,
+ * such as <code>-p voters=1000 -p model=mallows</code>.
+ * <p>
+ * The ballots are held as distinct rankings, so their size depends on how
+ * many rankings the model makes, not on the number of voters. Under
+ * impartial culture almost every full ranking of 10 or more candidates is
+ * distinct, and a combination whose rankings would not fit in the heap is
+ * refused in the setup, so that JMH reports it and goes on to the next.
+ * Raise the heap with <code>-jvmArgsAppend -Xmx8g</code> to run it.
+ */
+@State(Scope.Benchmark)
+public class Election {
+
+	/**
+	 * The bytes of a distinct ranking besides its IDs: the ballot, its
+	 * weight, and the arrays and table entry of the ballot box.
+	 */
+	private static final long BYTES_PER_RANKING = 100;
+
+	/**
+	 * The copies of the rankings a benchmark may hold at once, such as the
+	 * election, the lines of text, and the box being read into.
+	 */
+	private static final int COPIES = 3;
+
+	@Param({"impartial", "mallows", "single-peaked"})
+	public String model;
+
+	@Param({"1000", "10000", "100000", "1000000", "10000000"})
+	public long voters;
+
+	@Param({"3", "10", "100"})
+	public int candidates;
+
+	@Param({"0", "3"})
+	public int length;
+
+	@Param({"1"})
+	public long seed;
+
+	ElectionModel generator;
+
+	/**
+	 * The distinct rankings of the election with their number of voters.
+	 */
+	BallotBox ballots;
+
+	@Setup(Level.Trial)
+	public void setup(){
+		generator = ElectionModel.forName(model, candidates);
+
+		checkHeap();
+
+		ballots = generator.generate(new Random(seed), voters, length);
+	}
+
+	/**
+	 * Refuses an election whose distinct rankings would not fit in the heap.
+	 */
+	private void checkHeap(){
+		int n = length <= 0 ? candidates : Math.min(length, candidates);
+		long rankings = voters;
+		long orders = 1;	//The orders of n of the candidates, up to voters.
+
+		for(int i = 0; i < n && orders < voters; i++)
+			orders *= candidates - i;
+
+		rankings = Math.min(rankings, orders);
+
+		long bytes = COPIES * rankings * (BYTES_PER_RANKING + 4 * (n +
+				candidates));
+		long heap = Runtime.getRuntime().maxMemory();
+
+		if(bytes > heap)
+			throw new IllegalStateException("About " + (bytes >> 20) +
+					" MB of rankings do not fit in a heap of " + (heap >> 20) +
+					" MB; raise it with -jvmArgsAppend -Xmx");
+	}
+}
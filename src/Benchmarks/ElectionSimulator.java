@@ -0,0 +1,68 @@
+package Benchmarks;
+
+import VotingSystems.*;
+
+/**
+ * 
+ * @author Warren Godone-Maresca
+ * 
+ * Runs an <code>ElectionSimulation</code> and prints its statistics and the 
+ * time it took.
+ * <p>
+ * Usage: <code>ElectionSimulator [model=impartial] [candidates=4] 
+ * [voters=101] [length=0] [elections=10000] [seed=1] [threads=N]</code>, 
+ * where the model is impartial, mallows or single-peaked, a length of 0 ranks
+ * every candidate, and the threads default to the number of processors. The 
+ * statistics are the same for a seed whatever the number of threads.
+ */
+public class ElectionSimulator {
+
+	public static void main(String[] args){
+		String model = "impartial";
+		int candidates = 4;
+		long voters = 101;
+		int length = 0;
+		long elections = 10000;
+		long seed = 1;
+		int threads = Runtime.getRuntime().availableProcessors();
+
+		for(String arg : args){
+			int index = arg.indexOf('=');
+
+			if(index == -1)
+				throw new IllegalArgumentException("Expected name=value: " + arg);
+
+			String name = arg.substring(0, index);
+			String value = arg.substring(index + 1);
+
+			switch(name){
+				case "model": model = value;
+				break;
+				case "candidates": candidates = Integer.parseInt(value);
+				break;
+				case "voters": voters = (long) Double.parseDouble(value);
+				break;
+				case "length": length = Integer.parseInt(value);
+				break;
+				case "elections": elections = (long) Double.parseDouble(value);
+				break;
+				case "seed": seed = Long.parseLong(value);
+				break;
+				case "threads": threads = Integer.parseInt(value);
+				break;
+				default: throw new IllegalArgumentException("Unknown: " + name);
+			}
+		}
+
+		ElectionSimulation simulation = new ElectionSimulation(
+				ElectionModel.forName(model, candidates), voters, length);
+
+		long start = System.nanoTime();
+		SimulationStats stats = simulation.run(elections, seed, threads);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.print(stats);
+		System.out.printf("%.3f s, %.0f elections/s on %d threads%n", seconds,
+				elections / seconds, threads);
+	}
+}
@@ -0,0 +1,157 @@
+package Benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import VotingSystems.*;
+
+/**
+ *
+ * @author Warren Godone-Maresca
+ *
+ * Measures reading the ballots of an <code>Election</code>: tokenizing lines
+ * of text in memory, reading a text file, reading a binary file, and reading
+ * a text file into an <code>ElectionEvaluator</code> and finding every
+ * winner. The recounts compare counting plurality and an instant runoff from
+ * a text file read into a <code>BallotBox</code> with counting them straight
+ * from the mapped binary file. The lines and files hold one ballot per distinct ranking, with its
+ * number of voters as the weight, in the format read by <code>Poll</code>.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * The ballots of the election as lines of text and as text and binary
+	 * files, written once per trial.
+	 */
+	@State(Scope.Benchmark)
+	public static class BallotFiles {
+
+		List<String> lines;
+
+		Path text, binary;
+
+		@Setup(Level.Trial)
+		public void setup(Election election) throws IOException {
+			lines = toLines(election.ballots);
+			text = Files.createTempFile("ballots", ".txt");
+			binary = Files.createTempFile("ballots", ".vsbb");
+
+			Files.write(text, lines, UTF_8);
+			new BinaryBallotWriter(binary).write(election.ballots);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			Files.deleteIfExists(text);
+			Files.deleteIfExists(binary);
+		}
+	}
+
+	@Benchmark
+	public BallotBox tokenize(BallotFiles files){
+		BallotBox box = new BallotBox();
+		BallotTokenizer tokenizer = new BallotTokenizer(box.getCandidates());
+
+		for(String line : files.lines)
+			tokenizer.parse(line, box);
+
+		return box;
+	}
+
+	@Benchmark
+	public BallotBox readText(BallotFiles files) throws IOException {
+		BallotBox box = new BallotBox();
+
+		new BallotFileReader(files.text).read(box);
+
+		return box;
+	}
+
+	@Benchmark
+	public BallotBox readBinary(BallotFiles files) throws IOException {
+		return new BinaryBallotReader(files.binary).read();
+	}
+
+	@Benchmark
+	public StreamedBallots mapBinary(BallotFiles files) throws IOException {
+		return new BinaryBallotReader(files.binary).map();
+	}
+
+	@Benchmark
+	public String recountText(BallotFiles files) throws IOException {
+		BallotBox box = new BallotBox();
+
+		new BallotFileReader(files.text).read(box);
+
+		return new Plurality(box, 1).computeWinner() + 
+				new InstantRunoff(box).computeWinner();
+	}
+
+	@Benchmark
+	public String recountBinary(BallotFiles files) throws IOException {
+		StreamedBallots ballots = new BinaryBallotReader(files.binary).map();
+
+		return new Plurality(ballots).computeWinner() + 
+				new InstantRunoff(ballots).computeWinner();
+	}
+
+	@Benchmark
+	public String readAndEvaluateAll(BallotFiles files) throws IOException {
+		ElectionEvaluator evaluator = new ElectionEvaluator();
+
+		new BallotFileReader(files.text).read(evaluator);
+
+		return evaluator.results();
+	}
+
+	/**
+	 * Writes the ballots as lines of text in the format read by
+	 * <code>Poll</code>.
+	 */
+	private static List<String> toLines(BallotBox ballots){
+		List<String> lines = new ArrayList<String>(ballots.size());
+
+		for(WeightedBallot weighted : ballots){
+			StringBuilder line = new StringBuilder();
+			Ballot ballot = weighted.getBallot();
+
+			line.append(weighted.getWeight()).append(' ');
+
+			for(int i = 0; i < ballot.getBallotLength(); i++){
+				if(i > 0)
+					line.append('>');
+
+				line.append(ballot.getCandidate(i));
+			}
+
+			lines.add(line.toString());
+		}
+
+		return lines;
+	}
+}
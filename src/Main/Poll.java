@@ -1,7 +1,9 @@
 package Main;
 
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 import VotingSystems.*;
@@ -11,44 +13,139 @@ import VotingSystems.*;
  * @author Warren Godone-Maresca
  * 
  * A demonstration of a program that gets multiple ballots from a single line.
+ * If a file name is passed as an argument the ballots are read from that file
+ * instead of the console. If a second file name is passed the count is saved
+ * to it as a checkpoint every <code>CHECKPOINT_INTERVAL</code> lines, and a
+ * later run with the same files resumes from the last checkpoint.
  *
  */
 public class Poll {
 
 	private final String COMMAND = "\\go";
+	private static final long CHECKPOINT_INTERVAL = 1000000;
 	private VotingSystem system;
 
+	/**
+	 * Holds the time of each phase of the poll and the counters.
+	 */
+	private final MetricsRecorder metrics = new MetricsRecorder();
+
 	public Poll(){
+		int choice = readChoice();
+		
+		System.out.println(
+				"Enter input now. Then enter " + COMMAND + " to compute results.");
+		
+		count(choice, parseInput());
+	}
+
+	/**
+	 * Counts the ballots in the file with the system chosen in the console.
+	 * 
+	 * @param file	The ballot file, in the same format as the console input.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public Poll(Path file) throws IOException {
+		int choice = readChoice();
+
+		BallotBox b = new BallotBox();
+		BallotFileReader reader = new BallotFileReader(file, metrics);
+
+		reader.read(b);
+		reportMalformed(reader);
+
+		count(choice, b);
+	}
+
+	/**
+	 * Counts the ballots in the file with the system chosen in the console, 
+	 * resuming from and saving to the checkpoint.
+	 * 
+	 * @param file			The ballot file.
+	 * @param checkpoint	The snapshot file, which need not exist.
+	 * @throws IOException if the file or the checkpoint cannot be read, or 
+	 * the checkpoint cannot be written.
+	 */
+	public Poll(Path file, Path checkpoint) throws IOException {
+		int choice = readChoice();
+
+		TallyCheckpoint tally = new TallyCheckpoint(checkpoint, file,
+				CHECKPOINT_INTERVAL);
+		BallotBox b = tally.restore();
+
+		if(tally.getOffset() > 0)
+			System.out.println("Resuming from byte " + tally.getOffset());
+
+		BallotFileReader reader = new BallotFileReader(file, metrics);
+
+		reader.read(b, tally);
+		reportMalformed(reader);
+
+		count(choice, b);
+	}
+
+	/**
+	 * Tells how many lines of the file were skipped and why the first was.
+	 */
+	private void reportMalformed(BallotFileReader reader){
+		if(reader.getMalformed() > 0)
+			System.err.println("Skipped " + reader.getMalformed() + 
+					" malformed lines. " + reader.getFirstError());
+	}
+
+	private int readChoice(){
 		System.out.println(
 				"Enter 1 for instant runoff voting, 2 for the Borda Count, 3 for" +
-				"\n the Condorcet Method, and any other int for plurality voting");
+				"\n the Condorcet Method, 4 for the Schulze method, 5 for ranked" +
+				"\n pairs, 6 for the winner by every method, 7 for the Dowdall" +
+				"\n system, 8 for anti-plurality voting, 9 for how close the" +
+				"\n instant runoff was, and any other int for plurality voting");
 		
 		Scanner scanner = new Scanner(System.in);
 		
-		int choice = scanner.nextInt();
-		
-		//scanner.close();
-		
-		System.out.println(
-				"Enter input now. Then enter " + COMMAND + " to compute results.");
-		
-		ArrayList<Ballot> b = parseInput();
+		return scanner.nextInt();
+	}
+
+	private void count(int choice, BallotBox b){
+		int threads = Runtime.getRuntime().availableProcessors();
+
+		if(choice == 6){	//Counts every method from one pass over b.
+			System.out.print(new ElectionEvaluator(b, metrics).results());
+			return;
+		}
+
+		if(choice == 9){	//Reports the margins of the instant runoff.
+			System.out.print(new RunoffAnalysis(b));
+			return;
+		}
+
 		switch(choice){
-			case 1 : system = new InstantRunoff(b.toArray(new Ballot[b.size()]));
+			case 1 : system = new InstantRunoff(b, metrics);
 			break;
-			case 2: system = new Borda(b.toArray(new Ballot[b.size()]));
+			case 2: system = new Borda(b, threads, metrics);
 			break;
-			case 3: system = new Condorcet(b.toArray(new Ballot[b.size()]));
+			case 3: system = new Condorcet(b, threads, metrics);
 			break;
-			default: system = new Plurality(b.toArray(new Ballot[b.size()]));
+			case 4: system = new Schulze(b, threads, metrics);
+			break;
+			case 5: system = new RankedPairs(b, threads, metrics);
+			break;
+			case 7: system = PositionalScoring.dowdall(b, metrics);
+			break;
+			case 8: system = PositionalScoring.antiPlurality(b, metrics);
+			break;
+			default: system = new Plurality(b, threads, metrics);
 		}
 		
 		System.out.println("WINNER: " + system.computeWinner());
 		System.out.println(system.results());
 	}
 
-	private ArrayList<Ballot> parseInput(){
-		ArrayList<Ballot> ballots = new ArrayList<Ballot>();
+	private BallotBox parseInput(){
+		BallotBox ballots = new BallotBox();
+		BallotTokenizer tokenizer = new BallotTokenizer(ballots.getCandidates());
+		long lines = 0;
+		long parsing = 0;	//The time spent parsing, not waiting for input.
 
 		Scanner input = new Scanner(System.in);
 
@@ -56,39 +153,48 @@ public class Poll {
 
 		while((ballot = input.nextLine().trim()) != null){
 			
-			if(ballot.equalsIgnoreCase(COMMAND)){
-				input.close();
-				return ballots;
-			}
-
-			int n = 1; //Number of ballots in the line
+			if(ballot.equalsIgnoreCase(COMMAND))
+				break;
 
-			int index = ballot.indexOf(' ');
+			long start = System.nanoTime();
 
-			if(index != - 1 && index < ballot.length() - 1){
-				try{
-					n = Integer.parseInt(ballot.substring(0, index));
-					ballot = ballot.substring(index);
-				} catch(NumberFormatException e){ 
-					n = 1;//try removing this
-				}	
+			if(tokenizer.parse(ballot, ballots))	//Adds the line once with
+				lines++;						//its number of votes.
+			else if(tokenizer.getError() != null)
+				System.err.println("Skipped \"" + ballot + "\": " + 
+						tokenizer.getError());
 
-			}
-
-			for(int i = 0; i < n; i++){
-				if(ballot.length() > 0)
-					ballots.add(new Ballot(ballot));
-			}
+			parsing += System.nanoTime() - start;
 		}
 
 		input.close();
 
+		metrics.time(ElectionMetrics.Phase.PARSE, parsing);
+		metrics.count(ElectionMetrics.Counter.BALLOTS, lines);
+
 		return ballots;
 
 	}
 
-	public static void main(String[] args){
-		Poll p = new Poll();
+	/**
+	 * Returns the time of each phase of the poll, from reading the ballots to
+	 * writing the results, and the counters of the count.
+	 * 
+	 * @return The metrics of the poll.
+	 */
+	public MetricsRecorder getMetrics(){
+		return metrics;
+	}
+
+	public static void main(String[] args) throws IOException {
+		Poll p;
+
+		if(args.length > 1)
+			p = new Poll(Paths.get(args[0]), Paths.get(args[1]));
+		else if(args.length > 0)
+			p = new Poll(Paths.get(args[0]));
+		else
+			p = new Poll();
 	}
 
 }
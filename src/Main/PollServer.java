@@ -0,0 +1,47 @@
+package Main;
+
+import java.io.IOException;
+import java.util.Scanner;
+
+import VotingSystems.*;
+
+/**
+ * 
+ * @author Warren Godone-Maresca
+ * 
+ * A demonstration of a poll that takes ballots from many clients at once. The
+ * ballots are sent as lines of text to the printed port on the loopback 
+ * address, for example with <code>nc localhost PORT</code>, in the same 
+ * format as the console input of <code>Poll</code>. An optional argument 
+ * sets the port. Enter \go on the console to stop the server and print the 
+ * winners.
+ *
+ */
+public class PollServer {
+
+	private static final String COMMAND = "\\go";
+
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+
+		BallotServer server = new BallotServer(port);
+
+		System.out.println("Listening on port " + server.getPort() + 
+				". Enter " + COMMAND + " to compute results.");
+
+		Scanner input = new Scanner(System.in);
+
+		while(input.hasNextLine() && 
+				!input.nextLine().trim().equalsIgnoreCase(COMMAND));
+
+		input.close();
+		server.close();
+
+		BallotServer.Snapshot results = server.getSnapshot();
+
+		System.out.println("VOTERS: " + results.getNumVoters());
+
+		for(VotingMethod method : VotingMethod.values())
+			System.out.println(method + ": " + results.getWinner(method));
+	}
+}
@@ -1,6 +1,8 @@
 package VotingSystems;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -10,7 +12,13 @@ import java.util.List;
  *
  * <p>
  * <b>Purpose:</b> To hold a ranking of candidates/alternatives as an array of 
- * 					strings where the indices also serve as the ranking.
+ * 					candidate IDs where the indices also serve as the ranking.
+ * 					The IDs are taken from a <code>CandidateDictionary</code>
+ * 					and the position of each ID is kept in a second array so
+ * 					that looking up the rank of a candidate does not search
+ * 					the ballot. A ballot cannot be changed once it is made,
+ * 					so one ballot may be shared by any number of ballot 
+ * 					boxes and voting systems without being copied.
  * <p>
  * <b>Input:</b>	The names of the candidates in order of ranking as an array.
  * <p>
@@ -19,16 +27,74 @@ import java.util.List;
 
 public class Ballot {
 	/**
-	 * Holds what will be the actual ballot. Each string will be the name of each
-	 * candidate and the index will be the ranking of that candidate.
+	 * Holds the names of the candidates. The IDs in <code>ranking</code> and
+	 * the indices of <code>positions</code> are taken from it.
 	 */
-	private List<String> theBallot;
+	private final CandidateDictionary dictionary;
 
 	/**
-	 * Default constructor which instantiates the ballot.
+	 * Holds what will be the actual ballot. Each element will be the ID of
+	 * each candidate and the index will be the ranking of that candidate.
+	 */
+	private final int[] ranking;
+
+	/**
+	 * The number of candidates on the ballot.
+	 */
+	private final int length;
+
+	/**
+	 * The inverse of <code>ranking</code>. Holds the index of each candidate
+	 * on the ballot with their ID as the index, or -1 if they are not ranked.
+	 */
+	private final int[] positions;
+
+	/**
+	 * Default constructor which instantiates an empty ballot with its own
+	 * dictionary.
 	 */
 	public Ballot(){
-		theBallot = new ArrayList<String>();
+		this(new CandidateDictionary());
+	}
+
+	/**
+	 * Instantiates an empty ballot whose candidates' IDs are taken from the
+	 * dictionary.
+	 * 
+	 * @param dictionary	The dictionary of the election.
+	 */
+	public Ballot(CandidateDictionary dictionary){
+		this(dictionary, new int[0], 0);
+	}
+
+	/**
+	 * Setups a ballot with the candidates IDs in order of ranking. Any ID 
+	 * after the first occurrence of the same ID is skipped.
+	 * 
+	 * @param dictionary	The dictionary the IDs are taken from.
+	 * @param ids			The IDs of the candidates in order of preference.
+	 * @param n				The number of IDs to be read from <code>ids</code>.
+	 */
+	Ballot(CandidateDictionary dictionary, int[] ids, int n){
+		this.dictionary = dictionary;
+
+		int[] ranking = new int[n];
+		positions = new int[dictionary.size()];
+		int length = 0;
+
+		Arrays.fill(positions, -1);
+
+		for(int i = 0; i < n; i++){
+			int id = ids[i];
+
+			if(positions[id] == -1){	//If the candidate is not yet ranked,
+				positions[id] = length;	//rank them.
+				ranking[length++] = id;
+			}
+		}
+
+		this.ranking = ranking;
+		this.length = length;
 	}
 
 	/**
@@ -39,9 +105,21 @@ public class Ballot {
 	 * 						higher preferences.
 	 */
 	public Ballot(String[] candidates){
-		this();
+		this(candidates, new CandidateDictionary());
+	}
 
-		setBallot(candidates);
+	/**
+	 * Setups a ballot with the candidates names in order of ranking. Ballots 
+	 * of the same election should share a dictionary so that they do not need
+	 * to be translated when they are counted.
+	 * 
+	 * @param candidates	The candidates to be voted on in order preference. 
+	 * 						Lower index values in the array correspond with 
+	 * 						higher preferences.
+	 * @param dictionary	The dictionary of the election.
+	 */
+	public Ballot(String[] candidates, CandidateDictionary dictionary){
+		this(dictionary, intern(candidates, dictionary), candidates.length);
 	}
 
 	/**
@@ -52,83 +130,74 @@ public class Ballot {
 	 * 						higher preferences.
 	 */
 	public Ballot(ArrayList<String> candidates){
-		this();
-
-		setBallot(candidates);
-	}
-
-	public Ballot(String candidates){
-		this();
-
-		setBallot(candidates);
+		this(candidates.toArray(new String[candidates.size()]));
 	}
 
 	/**
-	 * Sets the ballot with the candidates names in order of ranking. 
-	 * <p>
-	 * <b>Note:</b> This method initializes the ballot. If the ballot is 
-	 * initialized, Candidates must be added with either 
-	 * <code>addCandidate(String)</code> or <code>addCandidates(String[]).
+	 * Setups a ballot from a single string as described in 
+	 * <code>Ballot(String, CandidateDictionary)</code>.
 	 * 
-	 * @param ballot	The candidates to be voted on in order preference. 
-	 * 					Lower index values in the array corresponds with
-	 * 					higher (more preferred) preferences (candidates).
+	 * @param candidates	The candidates in order of preference.
 	 */
-	public void setBallot(String[] ballot){
-		theBallot.removeAll(theBallot);
-
-		for(String candidate : ballot){
-			if(!theBallot.contains(candidate))
-				theBallot.add(candidate); //Sets the ballot to the array passed
-		}									//in the parameter.
-	}
-
-	public void setBallot(ArrayList<String> candidates){
-		setBallot(candidates.toArray(new String[candidates.size()]));
+	public Ballot(String candidates){
+		this(candidates, new CandidateDictionary());
 	}
 
 	/**
-	 * Sets the ballot with the candidates names from a single string in order 
+	 * Setups a ballot with the candidates names from a single string in order 
 	 * of listing. Candidates must be separated by a comma (,), semicolon (;),
 	 * forward slash (/), and/or greater than (>). However, within the same line,
 	 * candidates must be separated by the same character. Trailing and leading 
-	 * whitespace will be removed from candidates' names.
+	 * whitespace will be removed from candidates' names. The string is parsed
+	 * by a <code>BallotTokenizer</code>.
 	 * 
-	 * <p>
-	 * <b>Note:</b> This method initializes the ballot. If the ballot is 
-	 * initialized, Candidates must be added with either 
-	 * <code>addCandidate(String)</code> or <code>addCandidates(String[]).
-	 * 
-	 * @param ballot	The candidates to be voted on in order preference. 
-	 * 					Lower index values in the array corresponds with
-	 * 					higher (more preferred) preferences (candidates).
+	 * @param candidates	The candidates to be voted on in order preference. 
+	 * 						Lower index values in the array corresponds with
+	 * 						higher (more preferred) preferences (candidates).
+	 * @param dictionary	The dictionary of the election.
+	 * @throws IllegalArgumentException if a candidate is empty or the 
+	 * separators are mixed.
 	 */
-	public void setBallot(String ballot){
-		theBallot.removeAll(theBallot);
+	public Ballot(String candidates, CandidateDictionary dictionary){
+		this(tokenize(candidates, dictionary));
+	}
 
-		int index = -1; //The index for searching the candidates string.
+	/**
+	 * Setups a ballot with the candidates of the last line parsed by the 
+	 * tokenizer.
+	 */
+	private Ballot(BallotTokenizer tokenizer){
+		this(tokenizer.getCandidates(), tokenizer.getIds(), 
+				tokenizer.getLength());
+	}
 
-		char[] separators = {',', ';', '>', '/'};
+	/**
+	 * Returns the IDs of the names, adding any new names to the dictionary.
+	 */
+	private static int[] intern(String[] candidates, 
+			CandidateDictionary dictionary){
+		int[] ids = new int[candidates.length];
 
-		do {
-			int newIndex = -1;
+		for(int i = 0; i < candidates.length; i++)
+			ids[i] = dictionary.intern(candidates[i]);
 
-			for(char c : separators)
-				newIndex = Math.max(ballot.indexOf(c, index + 1), newIndex);
+		return ids;
+	}
 
-			String candidate;
-			
-			if(newIndex != -1)
-				candidate = ballot.substring(index + 1, newIndex).trim();
-			else
-				candidate = ballot.substring(index + 1).trim();
-			
-			if(!theBallot.contains(candidate))
-				theBallot.add(candidate);
+	/**
+	 * Parses a ballot given as a single string.
+	 * 
+	 * @throws IllegalArgumentException if the string is malformed.
+	 */
+	private static BallotTokenizer tokenize(String ballot, 
+			CandidateDictionary dictionary){
+		BallotTokenizer tokenizer = new BallotTokenizer(dictionary);
 
-			index = newIndex;
+		if(!tokenizer.tokenize(ballot, 0, ballot.length(), false))
+			throw new IllegalArgumentException(tokenizer.getError() + 
+					": " + ballot);
 
-		} while(index != -1);
+		return tokenizer;
 	}
 
 	/**
@@ -144,11 +213,24 @@ public class Ballot {
 	 * 			bounds.
 	 */
 	public String getCandidate(int index){
-		try {
-			return theBallot.get(index); //Returns the candidate with specified index.
-		} catch(IndexOutOfBoundsException e){
+		if(index < 0 || index >= length)
 			return "";
-		}
+
+		return dictionary.getName(ranking[index]);
+	}
+
+	/**
+	 * Returns the ID of the candidate at the specified index.
+	 * 
+	 * @param index	The index of the candidate whose ID is to be returned.
+	 * @return	The ID of the candidate whose index is <code>index</code> on 
+	 * 			the ballot, or -1 if <code>index</code> is out of bounds.
+	 */
+	public int getCandidateId(int index){
+		if(index < 0 || index >= length)
+			return -1;
+
+		return ranking[index];
 	}
 
 	/**
@@ -157,41 +239,47 @@ public class Ballot {
 	 * @return The length of the ballot / number of candidates.
 	 */
 	public int getBallotLength(){
-		return theBallot.size();
+		return length;
 	}
 
 	/**
-	 * Given a candidate's name, they will be removed from the ballot and then
-	 * array will be resized so that there aren't any null elements. Note, if the
-	 * index in the array of the candidate to be eliminated is <i>i</i>, then the
-	 * index of all candidates with  index greater than <i>i</i> will be 
-	 * decremented.
-	 * <p>
-	 * However, if no candidate's name equals the name passed in the argument, 
-	 * then no changes will be made. 
-	 * 
-	 * @param candidate The name of the candidate to be eliminated.
+	 * Returns the IDs of the candidates in order of preference without 
+	 * copying them, for counts that read every ballot. Only the first 
+	 * <code>getBallotLength()</code> are used, and they must not be changed.
 	 */
-	public void eliminateCandidate(String candidate){
-		if(theBallot.contains(candidate))
-			theBallot.remove(getIndex(candidate));
+	int[] getIds(){
+		return ranking;
 	}
 
 	/**
-	 * Given a candidate's index, they will be removed from the ballot and then
-	 * array will be resized so that there aren't any null elements. Note, if 
-	 * the index in the array of the candidate to be eliminated is <i>i</i>, then
-	 * the index of all candidates with index greater than <i>i</i> will be 
-	 * decremented. <b>Note:</b> this method will remove the candidate with index
-	 * <i>i</i>, not the ranking <i>i</i>. To remove the candidate with that 
-	 * ranking, not index, use <i>i</i> + 1 in the argument.
+	 * Returns the dictionary that the candidates' IDs are taken from.
 	 * 
-	 * @param index The index of the candidate to be eliminated.
+	 * @return The dictionary of the ballot.
 	 */
-	public void eliminateCandidate(int index){
-		theBallot.remove(index);
+	public CandidateDictionary getDictionary(){
+		return dictionary;
 	}
 
+	/**
+	 * Returns the ballot with its IDs taken from the dictionary passed in the
+	 * argument. Candidates that are not in that dictionary are added to it.
+	 * Since ballots cannot be changed, the ballot itself is returned if it 
+	 * already uses that dictionary.
+	 * 
+	 * @param target	The dictionary of the copy.
+	 * @return	The ballot in the target dictionary.
+	 */
+	public Ballot copy(CandidateDictionary target){
+		if(target == dictionary)
+			return this;
+
+		int[] ids = new int[length];
+
+		for(int i = 0; i < length; i++)
+			ids[i] = target.intern(dictionary.getName(ranking[i]));
+
+		return new Ballot(target, ids, length);
+	}
 
 	/**
 	 * Returns the index of the candidate whose name equals the string passed
@@ -202,7 +290,20 @@ public class Ballot {
 	 * if the string matches a candidates name, else -1.
 	 */
 	public int getIndex(String candidate){
-		return theBallot.indexOf(candidate);
+		return getIndex(dictionary.getId(candidate));
+	}
+
+	/**
+	 * Returns the index of the candidate whose ID is passed in the argument.
+	 * 
+	 * @param id	The ID of the candidate.
+	 * @return	The candidate's index if they are ranked, else -1.
+	 */
+	public int getIndex(int id){
+		if(id < 0 || id >= positions.length)
+			return -1;
+
+		return positions[id];
 	}
 
 	/**
@@ -214,16 +315,53 @@ public class Ballot {
 	 * if the string matches a candidates name, else -1.
 	 */
 	public int getPosition(String candidate){
-		return getIndex(candidate) + 1;
+		int index = getIndex(candidate);
+
+		return index == -1 ? -1 : index + 1;
+	}
+
+	/**
+	 * Two ballots are equal if they take their IDs from the same dictionary 
+	 * and rank the same candidates in the same order.
+	 */
+	@Override
+	public boolean equals(Object o){
+		if(this == o)
+			return true;
+
+		if(!(o instanceof Ballot))
+			return false;
+
+		Ballot other = (Ballot) o;
+
+		if(other.dictionary != dictionary || other.length != length)
+			return false;
+
+		for(int i = 0; i < length; i++){
+			if(ranking[i] != other.ranking[i])
+				return false;
+		}
+
+		return true;
+	}
+
+	@Override
+	public int hashCode(){
+		int hash = 1;
+
+		for(int i = 0; i < length; i++)
+			hash = 31 * hash + ranking[i];
+
+		return hash;
 	}
 
 	/**
 	 * Returns the ballot as a list of strings.
 	 * 
-	 * @return The ballot as a lit of strings.
+	 * @return The ballot as an unmodifiable list of strings.
 	 */
 	public List<String> toList(){
-		return theBallot;
+		return Collections.unmodifiableList(Arrays.asList(toArray()));
 	}
 
 	/**
@@ -232,6 +370,11 @@ public class Ballot {
 	 * @return The ballot as an array of strings.
 	 */
 	public String[] toArray(){
-		return theBallot.toArray(new String[theBallot.size()]);
+		String[] candidates = new String[length];
+
+		for(int i = 0; i < length; i++)
+			candidates[i] = dictionary.getName(ranking[i]);
+
+		return candidates;
 	}
 } //end Ballot
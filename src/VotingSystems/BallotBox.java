@@ -0,0 +1,334 @@
+package VotingSystems;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <b>B A L L O T   B O X</b>
+ *
+ * <p>
+ * <b>Purpose:</b> To collect the ballots of an election, merging identical
+ * 					rankings into a single <code>WeightedBallot</code> as they
+ * 					are added. The memory used depends on the number of 
+ * 					distinct rankings, not the number of voters. Adding a
+ * 					ranking that is already in the box does not allocate.
+ * <p>
+ * <b>Input:</b>	Ballots, each with the number of voters who cast it.
+ * <p>
+ * <b>Output:</b>	The distinct rankings with their weights, in the order in
+ * 					which they were first added, and the dictionary of the
+ * 					candidates named on them.
+ */
+public class BallotBox implements BallotSink, Iterable<WeightedBallot> {
+	/**
+	 * Holds the IDs of the candidates on all of the ballots.
+	 */
+	private CandidateDictionary candidates;
+
+	/**
+	 * Holds each distinct ranking in the order in which it was first added.
+	 */
+	private List<WeightedBallot> ballots;
+
+	/**
+	 * An open addressing hash table which holds the index + 1 of each ranking
+	 * in <code>ballots</code>, or 0 for an empty slot. The hash of a ranking
+	 * is <code>Ballot.hashCode()</code>. Its length is always a power of two.
+	 */
+	private int[] table;
+
+	/**
+	 * The sum of the weights of all ballots.
+	 */
+	private long totalWeight;
+
+	/**
+	 * Holds the IDs of the ballot being added once duplicates are removed.
+	 */
+	private int[] scratch;
+
+	/**
+	 * Holds the number of the last ballot on which each candidate was seen, 
+	 * where the index is their ID. Used to remove duplicates without clearing
+	 * an array for each ballot.
+	 */
+	private int[] seen;
+
+	/**
+	 * The number of ballots passed to <code>add(int[], int, long)</code>.
+	 */
+	private int stamp;
+
+	/**
+	 * Default constructor which instantiates an empty ballot box with its own
+	 * dictionary.
+	 */
+	public BallotBox(){
+		this(new CandidateDictionary());
+	}
+
+	/**
+	 * Instantiates an empty ballot box whose ballots will take their IDs from
+	 * the dictionary.
+	 * 
+	 * @param candidates	The dictionary of the election.
+	 */
+	public BallotBox(CandidateDictionary candidates){
+		this.candidates = candidates;
+		ballots = new ArrayList<WeightedBallot>();
+		table = new int[16];
+		scratch = new int[8];
+		seen = new int[8];
+	}
+
+	/**
+	 * Setups a ballot box with one vote for each ballot in the array. Null
+	 * ballots are skipped.
+	 * 
+	 * @param ballots	The ballots to be added.
+	 */
+	public BallotBox(Ballot[] ballots){
+		this();
+
+		for(Ballot ballot : ballots){
+			if(ballot != null)
+				add(ballot, 1);
+		}
+	}
+
+	/**
+	 * Adds one vote for the ballot.
+	 * 
+	 * @param ballot	The ballot to be added.
+	 */
+	public void add(Ballot ballot){
+		add(ballot, 1);
+	}
+
+	/**
+	 * Adds the ballot the specified number of times. If an identical ranking
+	 * was already added, its weight is increased. Otherwise the ballot itself
+	 * is stored if it uses the dictionary of the box, since ballots cannot be
+	 * changed, or else a copy of it in that dictionary is stored.
+	 * 
+	 * @param ballot	The ballot to be added.
+	 * @param weight	The number of voters who cast the ballot.
+	 * @throws IllegalArgumentException if <code>weight</code> is negative.
+	 */
+	public void add(Ballot ballot, long weight){
+		int[] ids = new int[ballot.getBallotLength()];
+		boolean shared = ballot.getDictionary() == candidates;
+
+		for(int i = 0; i < ids.length; i++){
+			if(shared)	//Translates the IDs.
+				ids[i] = ballot.getCandidateId(i);
+			else
+				ids[i] = candidates.intern(ballot.getCandidate(i));
+		}
+
+		put(ids, ids.length, weight, shared ? ballot : null);
+	}
+
+	/**
+	 * Adds the ranking the specified number of times. If an identical ranking
+	 * was already added, its weight is increased without allocating.
+	 * 
+	 * @throws IllegalArgumentException if <code>weight</code> is negative.
+	 */
+	@Override
+	public void add(int[] ids, int length, long weight){
+		put(ids, length, weight);
+	}
+
+	/**
+	 * Adds the ranking as <code>add(int[], int, long)</code> does and returns
+	 * the entry it was added to.
+	 */
+	WeightedBallot put(int[] ids, int length, long weight){
+		return put(ids, length, weight, null);
+	}
+
+	/**
+	 * Adds the ranking, storing <code>ballot</code> for it if it is new and
+	 * <code>ballot</code> is not null. The ballot must rank the same IDs.
+	 */
+	private WeightedBallot put(int[] ids, int length, long weight, 
+			Ballot ballot){
+		if(weight < 0)
+			throw new IllegalArgumentException("Negative weight: " + weight);
+
+		int n = dedupe(ids, length);
+		int slot = find(n);
+
+		if(table[slot] != 0){
+			WeightedBallot entry = ballots.get(table[slot] - 1);
+
+			entry.addWeight(weight);
+			totalWeight += weight;
+
+			return entry;
+		}
+
+		if(ballot == null)
+			ballot = new Ballot(candidates, scratch, n);
+
+		WeightedBallot entry = new WeightedBallot(ballot, weight);
+
+		ballots.add(entry);
+		table[slot] = ballots.size();
+		totalWeight += weight;
+
+		if(ballots.size() * 2 > table.length)	//Keeps the table half empty.
+			rehash();
+
+		return entry;
+	}
+
+	/**
+	 * Removes the ranking the specified number of times. The ranking stays in
+	 * the box, with a smaller weight, so that the order of the rankings does 
+	 * not change.
+	 * 
+	 * @return The entry the ranking was removed from.
+	 * @throws IllegalArgumentException if <code>weight</code> is negative or
+	 * more than the weight of the ranking in the box.
+	 */
+	WeightedBallot take(int[] ids, int length, long weight){
+		if(weight < 0)
+			throw new IllegalArgumentException("Negative weight: " + weight);
+
+		int slot = find(dedupe(ids, length));
+		WeightedBallot entry = table[slot] == 0 ? null : 
+				ballots.get(table[slot] - 1);
+
+		if(entry == null || entry.getWeight() < weight)
+			throw new IllegalArgumentException("Cannot remove " + weight +
+					" ballots of a ranking cast " + 
+					(entry == null ? 0 : entry.getWeight()) + " times");
+
+		entry.addWeight(-weight);
+		totalWeight -= weight;
+
+		return entry;
+	}
+
+	/**
+	 * Returns the slot of the table that holds the first <code>n</code> IDs 
+	 * of <code>scratch</code>, or the empty slot where they would be added.
+	 */
+	private int find(int n){
+		int hash = 1;
+
+		for(int i = 0; i < n; i++)
+			hash = 31 * hash + scratch[i];
+
+		int mask = table.length - 1;
+		int slot = hash & mask;
+
+		while(table[slot] != 0 && 
+				!matches(ballots.get(table[slot] - 1).getBallot(), n))
+			slot = (slot + 1) & mask;
+
+		return slot;
+	}
+
+	/**
+	 * Copies the IDs to <code>scratch</code>, skipping any candidate who was
+	 * already ranked, and returns the number of IDs copied.
+	 */
+	private int dedupe(int[] ids, int length){
+		if(scratch.length < length)
+			scratch = new int[Math.max(length, scratch.length * 2)];
+
+		if(seen.length < candidates.size())
+			seen = Arrays.copyOf(seen, Math.max(candidates.size(), 
+					seen.length * 2));
+
+		stamp++;
+		int n = 0;
+
+		for(int i = 0; i < length; i++){
+			if(seen[ids[i]] != stamp){
+				seen[ids[i]] = stamp;
+				scratch[n++] = ids[i];
+			}
+		}
+
+		return n;
+	}
+
+	/**
+	 * Checks if the ballot ranks the first <code>n</code> IDs of 
+	 * <code>scratch</code> in order.
+	 */
+	private boolean matches(Ballot ballot, int n){
+		if(ballot.getBallotLength() != n)
+			return false;
+
+		for(int i = 0; i < n; i++){
+			if(ballot.getCandidateId(i) != scratch[i])
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Doubles the size of the table and puts each ranking back into it.
+	 */
+	private void rehash(){
+		table = new int[table.length * 2];
+		int mask = table.length - 1;
+
+		for(int i = 0; i < ballots.size(); i++){
+			int slot = ballots.get(i).getBallot().hashCode() & mask;
+
+			while(table[slot] != 0)
+				slot = (slot + 1) & mask;
+
+			table[slot] = i + 1;
+		}
+	}
+
+	/**
+	 * Returns the dictionary of the candidates named on the ballots.
+	 * 
+	 * @return The dictionary of the election.
+	 */
+	@Override
+	public CandidateDictionary getCandidates(){
+		return candidates;
+	}
+
+	/**
+	 * Returns the number of distinct rankings.
+	 * 
+	 * @return The number of distinct rankings.
+	 */
+	public int size(){
+		return ballots.size();
+	}
+
+	/**
+	 * Returns the number of voters, which is the sum of the weights.
+	 * 
+	 * @return The number of voters.
+	 */
+	public long getTotalWeight(){
+		return totalWeight;
+	}
+
+	/**
+	 * Returns an iterator over the distinct rankings in the order in which 
+	 * they were first added.
+	 */
+	@Override
+	public Iterator<WeightedBallot> iterator(){
+		return Collections.unmodifiableList(ballots).iterator();
+	}
+} //end BallotBox
@@ -0,0 +1,49 @@
+package VotingSystems;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Ballot Cursor</b>
+ * <p>
+ * <b>Purpose:</b> To read ballots one at a time from wherever they are kept,
+ * 			such as a mapped ballot file or native memory, without creating a
+ * 			<code>Ballot</code> or any objects for each one.
+ * <p>
+ * <b>Input:</b>	None. The cursor starts before the first ballot, and
+ * 			<code>next()</code> moves it to the next one.
+ * <p>
+ * <b>Output:</b>	The IDs and the weight of the current ballot.
+ */
+public interface BallotCursor {
+
+	/**
+	 * Moves to the next ballot.
+	 *
+	 * @return <code>true</code> if there is a next ballot.
+	 */
+	boolean next();
+
+	/**
+	 * Returns the number of candidates on the current ballot.
+	 *
+	 * @return The length of the ballot.
+	 */
+	int getLength();
+
+	/**
+	 * Returns the ID of the candidate at the index of the current ballot.
+	 *
+	 * @param index	The rank of the candidate, where 0 is first. It must be
+	 * 				less than <code>getLength()</code>.
+	 * @return The ID of the candidate.
+	 */
+	int getId(int index);
+
+	/**
+	 * Returns the number of voters who cast the current ballot.
+	 *
+	 * @return The weight of the ballot.
+	 */
+	long getWeight();
+}
@@ -0,0 +1,239 @@
+package VotingSystems;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Ballot File Reader</b>
+ * <p>
+ * <b>Purpose:</b> To stream the ballots of a text file into a count. The file
+ * 			is memory-mapped and tokenized directly from the mapped bytes, so 
+ * 			no string is created for a candidate who is already in the 
+ * 			dictionary and the heap used does not grow with the size of the 
+ * 			file.
+ * <p>
+ * <b>Input:</b>	A file with one ballot per line in the same format as the
+ * 			console input of <code>Poll</code>: an optional number of voters 
+ * 			followed by a space, then the candidates in order of preference 
+ * 			separated by a comma (,), semicolon (;), forward slash (/), or 
+ * 			greater than (>). For example <code>5000 A>B>C</code>. Each line 
+ * 			is read by the rules of <code>BallotTokenizer</code>, straight 
+ * 			from the mapped bytes: leading and trailing whitespace is removed 
+ * 			from each name, blank lines are skipped, and names are read as 
+ * 			UTF-8.
+ * <p>
+ * <b>Output:</b>	The ballots, passed to a <code>BallotSink</code>. A line 
+ * 			that the tokenizer finds malformed, such as one with an empty 
+ * 			candidate or mixed separators, is skipped and counted, and the 
+ * 			first such line is described by <code>getFirstError()</code>.
+ * <p>
+ * With a <code>TallyCheckpoint</code> the count is saved every few lines with
+ * the offset of the next line, and a later read resumes from the last save. 
+ * A file that is being read with checkpoints may only be added to at its end
+ * and in whole lines; the checkpoint refuses to resume a file that has been
+ * replaced, cut short, or changed where its sample of the counted bytes 
+ * falls.
+ */
+public class BallotFileReader {
+	/**
+	 * The largest number of bytes mapped at once. Files larger than this are
+	 * mapped one region at a time.
+	 */
+	private static final int REGION_SIZE = 1 << 30;
+
+	private final Path file;
+
+	/**
+	 * Receives the time spent reading and the number of ballots read.
+	 */
+	private final ElectionMetrics metrics;
+
+	/**
+	 * The number of malformed lines skipped by the last read.
+	 */
+	private long malformed;
+
+	/**
+	 * Why the first malformed line of the last read was skipped, or null.
+	 */
+	private String firstError;
+
+	/**
+	 * Setups a reader for the file.
+	 * 
+	 * @param file	The ballot file.
+	 */
+	public BallotFileReader(Path file){
+		this(file, ElectionMetrics.NONE);
+	}
+
+	/**
+	 * Setups a reader for the file that reports the time of each read and
+	 * the number of ballots read to the metrics.
+	 * 
+	 * @param file		The ballot file.
+	 * @param metrics	The metrics of the reads, or null for none.
+	 */
+	public BallotFileReader(Path file, ElectionMetrics metrics){
+		this.file = file;
+		this.metrics = metrics == null ? ElectionMetrics.NONE : metrics;
+	}
+
+	/**
+	 * Reads every ballot in the file into the sink. The names of the 
+	 * candidates are added to the sink's dictionary. Malformed lines are 
+	 * skipped and counted by <code>getMalformed()</code>.
+	 * 
+	 * @param sink	The count the ballots are added to.
+	 * @return	The number of ballot lines added to the sink.
+	 * @throws IOException if the file cannot be read, or if a line is longer
+	 * than the largest region that can be mapped.
+	 */
+	public long read(BallotSink sink) throws IOException {
+		return read(sink, null, 0, null);
+	}
+
+	/**
+	 * Reads the ballots in the file after the last snapshot of the checkpoint
+	 * into the ballots restored from it, saving a new snapshot every 
+	 * interval of the checkpoint and once the whole file has been read.
+	 * 
+	 * @param ballots		The ballots restored from the checkpoint, or an 
+	 * 						empty ballot box if there was no snapshot.
+	 * @param checkpoint	The checkpoint of this file, which has been 
+	 * 						restored.
+	 * @return	The number of ballot lines read after the offset of the 
+	 * 			restored snapshot.
+	 * @throws IOException if the file or the snapshot cannot be read or 
+	 * written, or if the file is shorter than the offset of the snapshot.
+	 * @throws IllegalArgumentException if the checkpoint is of another file.
+	 */
+	public long read(BallotBox ballots, TallyCheckpoint checkpoint) 
+			throws IOException {
+		if(!checkpoint.getBallotFile().equals(
+				file.toAbsolutePath().normalize()))
+			throw new IllegalArgumentException("Checkpoint " + 
+					checkpoint.getFile() + " is of the ballot file " + 
+					checkpoint.getBallotFile() + ", not " + file);
+
+		return read(ballots, ballots, checkpoint.getOffset(), checkpoint);
+	}
+
+	/**
+	 * Reads the file from the offset, which is the start of a line, into the
+	 * sink. If there is a checkpoint the ballots, which are the sink, are 
+	 * saved to it.
+	 */
+	private long read(BallotSink sink, BallotBox ballots, long offset, 
+			TallyCheckpoint checkpoint) throws IOException {
+		long started = System.nanoTime();
+		long lines = 0;
+		long saved = 0;		//The lines read at the last snapshot.
+		BallotTokenizer tokenizer = new BallotTokenizer(sink.getCandidates());
+
+		malformed = 0;
+		firstError = null;
+
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+			long size = channel.size();
+
+			if(offset > size)
+				throw new IOException("Checkpoint offset " + offset + 
+						" is past the end of " + file);
+
+			while(offset < size){
+				long length = Math.min(REGION_SIZE, size - offset);
+				boolean last = offset + length == size;
+
+				MappedByteBuffer region = channel.map(
+						FileChannel.MapMode.READ_ONLY, offset, length);
+
+				int start = 0;
+
+				for(int i = 0; i < length; i++){
+					if(region.get(i) == '\n'){
+						if(readLine(tokenizer, region, offset, start, i, sink))
+							lines++;
+
+						start = i + 1;
+
+						if(checkpoint != null && 
+								lines - saved == checkpoint.getInterval()){
+							checkpoint.save(ballots, offset + start);
+							saved = lines;
+						}
+					}
+				}
+
+				if(last){					//The last line has no newline.
+					if(start < length && readLine(tokenizer, region, offset, 
+							start, (int) length, sink))
+						lines++;
+
+					start = (int) length;
+
+					if(checkpoint != null && 
+							checkpoint.getOffset() != offset + start)
+						checkpoint.save(ballots, offset + start);
+				} else if(start == 0){
+					throw new IOException("Line longer than " + REGION_SIZE
+							+ " bytes at offset " + offset + " of " + file);
+				}
+
+				offset += start;		//The next region starts at the first
+			}							//line that was not read.
+		}
+
+		metrics.time(ElectionMetrics.Phase.PARSE, System.nanoTime() - started);
+		metrics.count(ElectionMetrics.Counter.BALLOTS, lines);
+		metrics.count(ElectionMetrics.Counter.MALFORMED, malformed);
+
+		return lines;
+	}
+
+	/**
+	 * Tokenizes the line from <code>start</code> to <code>end</code> of the
+	 * region, which starts at the offset of the file, and adds it to the 
+	 * sink. A malformed line is counted and skipped.
+	 * 
+	 * @return <code>true</code> if the line held a ballot.
+	 */
+	private boolean readLine(BallotTokenizer tokenizer, MappedByteBuffer region,
+			long offset, int start, int end, BallotSink sink){
+		if(tokenizer.parse(region, start, end, sink))
+			return true;
+
+		if(tokenizer.getError() != null && malformed++ == 0)
+			firstError = "Malformed ballot at byte " + (offset + start) + 
+					" of " + file + ": " + tokenizer.getError();
+
+		return false;
+	}
+
+	/**
+	 * Returns the number of lines skipped by the last read because they were
+	 * malformed.
+	 * 
+	 * @return The number of malformed lines.
+	 */
+	public long getMalformed(){
+		return malformed;
+	}
+
+	/**
+	 * Returns why the first malformed line of the last read was skipped, 
+	 * with the offset of the line in the file.
+	 * 
+	 * @return The description of the problem, or null if no line was 
+	 * malformed.
+	 */
+	public String getFirstError(){
+		return firstError;
+	}
+} //end BallotFileReader
@@ -0,0 +1,696 @@
+package VotingSystems;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Ballot Server</b>
+ * <p>
+ * <b>Purpose:</b> To take ballots from many clients at once over a loopback
+ * 			socket and keep the winner of each voting method up to date, so
+ * 			that clients can ask for it while others are still voting.
+ * <p>
+ * <b>Input:</b>	Lines of UTF-8 text on a TCP connection to the loopback
+ * 			address. Each line is a ballot in the format read by
+ * 			<code>BallotTokenizer</code>, or one of these commands:
+ * <li><code>\winner METHOD</code>: The winner by a <code>VotingMethod</code>,
+ * 				such as <code>\winner instant_runoff</code>.
+ * <li><code>\status</code>: The number of ballots counted and rejected, and
+ * 				the number of voters.
+ * <li><code>\quit</code>: Closes the connection.
+ * <p>
+ * <b>Output:</b>	One line for each line received: <code>OK</code> once a
+ * 			ballot is parsed and queued, the answer to a command, or 
+ * 			<code>ERROR</code> and a description, such as why a ballot is 
+ * 			malformed.
+ * <p>
+ * <b>Algorithm:</b>	Two threads run the server, however many clients there
+ * 			are:
+ * <li>The intake thread serves every connection through one
+ * 				<code>Selector</code>. It parses each complete line with its
+ * 				own <code>BallotTokenizer</code> before replying, and puts the
+ * 				IDs of the ballots read in one pass over the ready connections
+ * 				in a batch on a lock-free queue, with the names it has not
+ * 				sent before.
+ * <li>The tally thread adds each batch to a <code>LiveElection</code>,
+ * 				which only it touches. Whenever the queue is empty, and at
+ * 				least every <code>PUBLISH_NANOS</code> while it is not, it
+ * 				publishes a new <code>Snapshot</code> of the winners through a
+ * 				volatile field.
+ * <p>
+ * At most <code>MAX_QUEUED</code> lines wait for the tally. Once that many 
+ * are queued the intake thread stops reading from every connection, so that
+ * clients are held back by TCP, until the tally has counted half of them.
+ * <p>
+ * Queries read the latest snapshot, so they never wait for the tally and the
+ * tally never waits for them. A ballot is in the snapshot some time after its
+ * <code>OK</code>; a client that needs its own ballots counted can wait for
+ * <code>\status</code> to show them. If either thread fails, the server 
+ * closes, and <code>getSnapshot()</code> and <code>close()</code> throw the
+ * failure.
+ */
+public class BallotServer implements Closeable {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * The most time between snapshots while ballots keep arriving.
+	 */
+	private static final long PUBLISH_NANOS = 100000000L;
+
+	/**
+	 * The longest line a client may send.
+	 */
+	private static final int MAX_LINE = 65536;
+
+	/**
+	 * The most ballot lines that may wait for the tally thread.
+	 */
+	private static final int MAX_QUEUED = 65536;
+
+	/**
+	 * How long the intake thread waits for the tally while reading is paused,
+	 * in case a wakeup is missed.
+	 */
+	private static final long PAUSE_MILLIS = 10;
+
+	/**
+	 * The counts published by the tally thread. Every field is final, so a
+	 * snapshot is safe to read from any thread.
+	 */
+	public static class Snapshot {
+
+		private final String[] winners;
+
+		private final long ballots, rejected, voters;
+
+		Snapshot(String[] winners, long ballots, long rejected, long voters){
+			this.winners = winners;
+			this.ballots = ballots;
+			this.rejected = rejected;
+			this.voters = voters;
+		}
+
+		/**
+		 * Returns the winner by the method when the snapshot was taken.
+		 *
+		 * @param method	The voting method.
+		 * @return If a winner exists, the name of the winning candidate;
+		 * otherwise, the string "Tie".
+		 */
+		public String getWinner(VotingMethod method){
+			return winners[method.ordinal()];
+		}
+
+		/**
+		 * Returns the number of lines counted as ballots, including those
+		 * that were rejected.
+		 *
+		 * @return The number of ballot lines.
+		 */
+		public long getBallots(){
+			return ballots;
+		}
+
+		/**
+		 * Returns the number of malformed ballot lines.
+		 *
+		 * @return The number of rejected lines.
+		 */
+		public long getRejected(){
+			return rejected;
+		}
+
+		/**
+		 * Returns the number of voters, which is the sum of the weights of the
+		 * ballots.
+		 *
+		 * @return The number of voters.
+		 */
+		public long getNumVoters(){
+			return voters;
+		}
+	}
+
+	/**
+	 * The state of one client's connection. Only the intake thread uses it.
+	 */
+	private static class Connection {
+
+		private final ByteBuffer in = ByteBuffer.allocate(8192);
+
+		private ByteBuffer out = ByteBuffer.allocate(1024);
+
+		/**
+		 * Holds the bytes of the line being read.
+		 */
+		private byte[] line = new byte[256];
+
+		private int lineLength;
+
+		/**
+		 * Whether the connection is to be closed once its replies are sent.
+		 */
+		private boolean closing;
+
+		/**
+		 * Queues a line to be sent to the client.
+		 */
+		void reply(String message){
+			byte[] bytes = (message + "\n").getBytes(UTF_8);
+
+			if(out.remaining() < bytes.length){
+				ByteBuffer grown = ByteBuffer.allocate(
+						Math.max(out.capacity() * 2, out.position() + bytes.length));
+				out.flip();
+				grown.put(out);
+				out = grown;
+			}
+
+			out.put(bytes);
+		}
+	}
+
+	/**
+	 * The ballots read in one pass over the ready connections. Their IDs are
+	 * from the dictionary of the intake thread, so the names it first gave an
+	 * ID in the pass are sent with them.
+	 */
+	private static class Batch {
+
+		/**
+		 * The first ID of <code>names</code>.
+		 */
+		private int firstId;
+
+		/**
+		 * Holds the names of the IDs from <code>firstId</code> on, in order.
+		 */
+		private final List<String> names = new ArrayList<String>();
+
+		/**
+		 * Holds the length of each ballot followed by its IDs.
+		 */
+		private int[] ids = new int[256];
+
+		private int size;
+
+		private long[] weights = new long[32];
+
+		private int ballots;
+
+		/**
+		 * The number of ballot lines, including those that were rejected or
+		 * rank no one.
+		 */
+		private int lines;
+
+		private int rejected;
+
+		/**
+		 * Adds a well formed ballot line, which is only kept if it ranks a
+		 * candidate and has a weight of at least 1.
+		 */
+		void add(int[] ballot, int length, long weight){
+			lines++;
+
+			if(length == 0 || weight <= 0)
+				return;
+
+			if(size + length + 1 > ids.length)
+				ids = Arrays.copyOf(ids, Math.max(2 * ids.length,
+						size + length + 1));
+
+			if(ballots == weights.length)
+				weights = Arrays.copyOf(weights, 2 * weights.length);
+
+			ids[size++] = length;
+			System.arraycopy(ballot, 0, ids, size, length);
+			size += length;
+			weights[ballots++] = weight;
+		}
+
+		void reject(){
+			lines++;
+			rejected++;
+		}
+	}
+
+	private final ServerSocketChannel server;
+
+	private final Selector selector;
+
+	/**
+	 * Holds the batches that have not yet been counted.
+	 */
+	private final ConcurrentLinkedQueue<Batch> queue =
+			new ConcurrentLinkedQueue<Batch>();
+
+	/**
+	 * The number of ballot lines in the queue.
+	 */
+	private final AtomicInteger queued = new AtomicInteger();
+
+	/**
+	 * Parses the lines of every connection. Only the intake thread uses it 
+	 * and its dictionary.
+	 */
+	private final BallotTokenizer tokenizer = 
+			new BallotTokenizer(new CandidateDictionary());
+
+	/**
+	 * The number of names of the intake dictionary sent to the tally thread.
+	 */
+	private int sentNames;
+
+	/**
+	 * Whether the intake thread has stopped reading until the queue drains.
+	 */
+	private volatile boolean paused;
+
+	private final Thread intake, tally;
+
+	private volatile Snapshot snapshot;
+
+	private volatile boolean closed;
+
+	/**
+	 * The first exception thrown by the intake or the tally thread.
+	 */
+	private volatile Throwable failure;
+
+	/**
+	 * Starts a server on the loopback address.
+	 *
+	 * @param port	The port, or 0 for any free port.
+	 * @throws IOException if the port cannot be bound.
+	 */
+	public BallotServer(int port) throws IOException {
+		selector = Selector.open();
+		server = ServerSocketChannel.open();
+		server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+				port));
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+
+		final LiveElection election = new LiveElection();
+		snapshot = snapshot(election, 0, 0);
+
+		intake = new Thread(new Runnable(){
+			@Override
+			public void run(){
+				try {
+					serve();
+				} catch(Throwable e){
+					fail(e);
+				}
+			}
+		}, "ballot-intake");
+
+		tally = new Thread(new Runnable(){
+			@Override
+			public void run(){
+				try {
+					count(election);
+				} catch(Throwable e){
+					fail(e);
+				}
+			}
+		}, "ballot-tally");
+
+		intake.start();
+		tally.start();
+	}
+
+	/**
+	 * Returns the port the server is listening on.
+	 *
+	 * @return The port.
+	 */
+	public int getPort(){
+		return server.socket().getLocalPort();
+	}
+
+	/**
+	 * Returns the latest counts published by the tally thread.
+	 *
+	 * @return The latest snapshot.
+	 * @throws IllegalStateException if the intake or the tally thread failed.
+	 */
+	public Snapshot getSnapshot(){
+		Throwable cause = failure;
+
+		if(cause != null)
+			throw new IllegalStateException("Ballot server failed", cause);
+
+		return snapshot;
+	}
+
+	/**
+	 * Stops taking connections, counts every ballot already queued, and
+	 * publishes a final snapshot.
+	 *
+	 * @throws IOException if the socket cannot be closed, or if the intake or
+	 * the tally thread failed.
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		selector.wakeup();
+
+		try {
+			intake.join();
+			LockSupport.unpark(tally);
+			tally.join();
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+
+		if(failure != null)
+			throw new IOException("Ballot server failed", failure);
+	}
+
+	/**
+	 * Records the first failure of a thread and closes the server.
+	 */
+	private synchronized void fail(Throwable e){
+		if(failure == null)
+			failure = e;
+
+		closed = true;
+		selector.wakeup();
+		LockSupport.unpark(tally);
+	}
+
+	/**
+	 * Runs the intake thread.
+	 */
+	private void serve() throws IOException {
+		Batch batch = new Batch();
+
+		try {
+			while(!closed){
+				//Reading stops when the queue is full and starts again once
+				//half of it is counted.
+				int waiting = queued.get();
+
+				if(!paused && waiting >= MAX_QUEUED)
+					setReading(false);
+				else if(paused && waiting <= MAX_QUEUED / 2)
+					setReading(true);
+
+				selector.select(paused ? PAUSE_MILLIS : 0);
+
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+
+				while(keys.hasNext()){
+					SelectionKey key = keys.next();
+					keys.remove();
+
+					try {
+						if(key.isAcceptable())
+							accept();
+						else				//A full queue leaves the rest unread.
+							service(key, batch,
+									waiting + batch.lines < MAX_QUEUED);
+					} catch(IOException e){
+						key.cancel();	//The client is gone.
+						key.channel().close();
+					}
+				}
+
+				if(batch.lines > 0){
+					send(batch);
+					batch = new Batch();
+				}
+			}
+		} finally {
+			closed = true;				//So the tally thread can finish.
+			LockSupport.unpark(tally);
+
+			try {
+				for(SelectionKey key : selector.keys())
+					key.channel().close();
+
+				selector.close();
+			} catch(IOException e){
+				//Nothing more can be done while closing.
+			}
+		}
+	}
+
+	/**
+	 * Adds the names that are new since the last batch to the batch and puts
+	 * it on the queue.
+	 */
+	private void send(Batch batch){
+		CandidateDictionary candidates = tokenizer.getCandidates();
+
+		batch.firstId = sentNames;
+
+		for(; sentNames < candidates.size(); sentNames++)
+			batch.names.add(candidates.getName(sentNames));
+
+		queued.addAndGet(batch.lines);
+		queue.offer(batch);
+		LockSupport.unpark(tally);
+	}
+
+	/**
+	 * Starts or stops reading from every connection.
+	 */
+	private void setReading(boolean reading){
+		paused = !reading;
+
+		for(SelectionKey key : selector.keys()){
+			if(key.isValid() && key.attachment() != null)
+				key.interestOps(reading ?
+						key.interestOps() | SelectionKey.OP_READ :
+						key.interestOps() & ~SelectionKey.OP_READ);
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel client = server.accept();
+
+		if(client != null){
+			client.configureBlocking(false);
+			client.register(selector, paused ? 0 : SelectionKey.OP_READ,
+					new Connection());
+		}
+	}
+
+	/**
+	 * Reads the complete lines of a connection if <code>canRead</code> is set and
+	 * sends its replies.
+	 */
+	private void service(SelectionKey key, Batch batch, boolean canRead)
+			throws IOException {
+		SocketChannel channel = (SocketChannel) key.channel();
+		Connection connection = (Connection) key.attachment();
+
+		if(canRead && key.isReadable()){
+			int read = channel.read(connection.in);
+
+			if(read == -1)
+				connection.closing = true;
+
+			connection.in.flip();
+
+			while(connection.in.hasRemaining() && !connection.closing){
+				byte b = connection.in.get();
+
+				if(b == '\n'){
+					handle(connection, batch);
+					connection.lineLength = 0;
+				} else if(connection.lineLength == MAX_LINE){
+					connection.reply("ERROR Line longer than " + MAX_LINE +
+							" bytes");
+					connection.closing = true;
+				} else {
+					if(connection.lineLength == connection.line.length)
+						connection.line = Arrays.copyOf(
+								connection.line, connection.line.length * 2);
+
+					connection.line[connection.lineLength++] = b;
+				}
+			}
+
+			connection.in.clear();
+		}
+
+		connection.out.flip();
+		channel.write(connection.out);
+		connection.out.compact();
+
+		int reading = paused ? 0 : SelectionKey.OP_READ;
+
+		if(connection.out.position() > 0){
+			key.interestOps(reading | SelectionKey.OP_WRITE);
+		} else if(connection.closing){
+			key.cancel();
+			channel.close();
+		} else {
+			key.interestOps(reading);
+		}
+	}
+
+	/**
+	 * Parses the line of the connection and queues it if it is a well formed
+	 * ballot, or answers it if it is a command.
+	 */
+	private void handle(Connection connection, Batch batch){
+		int length = connection.lineLength;
+		int start = 0;
+
+		while(start < length && connection.line[start] <= ' ')
+			start++;
+
+		if(start == length)		//A blank line ranks no one.
+			connection.reply("OK");
+		else if(connection.line[start] != '\\')
+			parse(connection, batch, start, length);
+		else
+			command(connection, new String(connection.line, start, 
+					length - start, UTF_8).trim());
+	}
+
+	/**
+	 * Parses the ballot from <code>start</code> to <code>end</code> of the
+	 * line of the connection into the batch.
+	 */
+	private void parse(Connection connection, Batch batch, int start, int end){
+		if(tokenizer.tokenize(ByteBuffer.wrap(connection.line), start, end,
+				true)){
+			batch.add(tokenizer.getIds(), tokenizer.getLength(),
+					tokenizer.getWeight());
+			connection.reply("OK");
+		} else {
+			batch.reject();
+			connection.reply("ERROR " + tokenizer.getError());
+		}
+	}
+
+	/**
+	 * Answers a command, which starts with a backslash.
+	 */
+	private void command(Connection connection, String line){
+		String[] command = line.substring(1).split("\\s+");
+
+		switch(command[0].toLowerCase(Locale.ROOT)){
+			case "winner":
+				try {
+					connection.reply(snapshot.getWinner(VotingMethod.valueOf(
+							command[1].toUpperCase(Locale.ROOT))));
+				} catch(IllegalArgumentException |
+						ArrayIndexOutOfBoundsException e){
+					connection.reply("ERROR Expected \\winner followed by " +
+							"plurality, borda, condorcet, or instant_runoff");
+				}
+				break;
+			case "status":
+				Snapshot counts = snapshot;
+				connection.reply("ballots " + counts.getBallots() +
+						" rejected " + counts.getRejected() +
+						" voters " + counts.getNumVoters());
+				break;
+			case "quit":
+				connection.closing = true;
+				break;
+			default:
+				connection.reply("ERROR Unknown command: " + line);
+		}
+	}
+
+	/**
+	 * Runs the tally thread.
+	 */
+	private void count(LiveElection election){
+		//Maps the IDs of the intake dictionary to those of the election.
+		int[] translation = new int[16];
+		int[] ballot = new int[16];
+		long ballots = 0, rejected = 0;
+		boolean changed = false;
+		long published = System.nanoTime();
+
+		while(true){
+			Batch batch = queue.poll();
+
+			if(batch != null){
+				int numNames = batch.firstId + batch.names.size();
+
+				if(numNames > translation.length)
+					translation = Arrays.copyOf(translation, 
+							Math.max(2 * translation.length, numNames));
+
+				for(int i = 0; i < batch.names.size(); i++)
+					translation[batch.firstId + i] = 
+							election.getCandidates().intern(batch.names.get(i));
+
+				for(int b = 0, at = 0; b < batch.ballots; b++){
+					int n = batch.ids[at++];
+
+					if(n > ballot.length)
+						ballot = new int[Math.max(2 * ballot.length, n)];
+
+					for(int i = 0; i < n; i++)
+						ballot[i] = translation[batch.ids[at++]];
+
+					election.add(ballot, n, batch.weights[b]);
+				}
+
+				ballots += batch.lines;
+				rejected += batch.rejected;
+				changed = true;
+
+				if(queued.addAndGet(-batch.lines) <= MAX_QUEUED / 2 && paused)
+					selector.wakeup();
+			}
+
+			if(changed && (batch == null ||
+					System.nanoTime() - published > PUBLISH_NANOS)){
+				snapshot = snapshot(election, ballots, rejected);
+				published = System.nanoTime();
+				changed = false;
+			}
+
+			if(batch == null){
+				if(closed && !intake.isAlive() && queue.isEmpty())
+					return;
+
+				LockSupport.park(this);
+			}
+		}
+	}
+
+	private static Snapshot snapshot(LiveElection election, long ballots,
+			long rejected){
+		VotingMethod[] methods = VotingMethod.values();
+		String[] winners = new String[methods.length];
+
+		for(VotingMethod method : methods)
+			winners[method.ordinal()] = election.computeWinner(method);
+
+		return new Snapshot(winners, ballots, rejected,
+				election.getNumVoters());
+	}
+} //end BallotServer
@@ -0,0 +1,39 @@
+package VotingSystems;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Ballot Sink</b>
+ * <p>
+ * <b>Purpose:</b> To receive ballots as arrays of candidate IDs, so that a
+ * 			reader can stream ballots into a count without creating a 
+ * 			<code>Ballot</code> or any strings for each one.
+ * <p>
+ * <b>Input:</b>	The IDs of the candidates in order of preference, taken 
+ * 			from the dictionary returned by <code>getCandidates()</code>, with
+ * 			the number of voters who cast the ballot.
+ * <p>
+ * <b>Output:</b>	None.
+ */
+public interface BallotSink {
+
+	/**
+	 * Returns the dictionary the IDs of the ballots must be taken from.
+	 * 
+	 * @return The dictionary of the election.
+	 */
+	CandidateDictionary getCandidates();
+
+	/**
+	 * Adds a ballot. The array may be reused by the caller once this method 
+	 * returns, so it must not be kept.
+	 * 
+	 * @param ids		The IDs of the candidates in order of preference. A
+	 * 					candidate ranked more than once is only counted at 
+	 * 					their highest rank.
+	 * @param length	The number of IDs to be read from <code>ids</code>.
+	 * @param weight	The number of voters who cast the ballot.
+	 */
+	void add(int[] ids, int length, long weight);
+}
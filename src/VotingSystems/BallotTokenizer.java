@@ -0,0 +1,406 @@
+package VotingSystems;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Ballot Tokenizer</b>
+ * <p>
+ * <b>Purpose:</b> To parse a ballot written as a line of text in one scan,
+ * 			without creating a string for each candidate. Names are resolved
+ * 			to IDs through a <code>CandidateDictionary</code>, so a string is
+ * 			only created for a name the first time it is seen.
+ * <p>
+ * <b>Input:</b>	A line such as <code>"12 Alice, Bob, Carol"</code>. An
+ * 			all-digit prefix followed by a space is the number of voters who
+ * 			cast the ballot, which is 1 if it is left out. The candidates are
+ * 			separated by a comma (,), semicolon (;), forward slash (/), or
+ * 			greater than (&gt;), but every separator of a line must be the
+ * 			same. Whitespace around each name is removed.
+ * <p>
+ * <b>Output:</b>	The IDs of the candidates and the weight of the ballot,
+ * 			or a description of why the line is malformed. A line is
+ * 			malformed if a candidate is empty, such as in <code>"A,,B"</code>
+ * 			or <code>"A,B,"</code>, or if it mixes separators. No names of a
+ * 			malformed line are added to the dictionary.
+ * <p>
+ * Lines may also be read as UTF-8 from a range of a <code>ByteBuffer</code>,
+ * such as a mapped file, by the same rules. The spaces, digits and separators
+ * are all single bytes in UTF-8, and no byte of a longer character matches
+ * them, so the bytes are scanned as characters and only the names are 
+ * decoded.
+ * <p>
+ * A tokenizer reuses its arrays for every line, so it must not be shared
+ * between threads.
+ */
+public class BallotTokenizer {
+	/**
+	 * The most digits of a weight, so that it cannot overflow a long.
+	 */
+	private static final int MAX_WEIGHT_DIGITS = 18;
+
+	private final CandidateDictionary candidates;
+
+	/**
+	 * Holds the IDs of the candidates of the last line.
+	 */
+	private int[] ids = new int[8];
+
+	/**
+	 * Holds the start and end of each name of the last line, so that no name
+	 * is interned until the whole line is known to be well formed.
+	 */
+	private int[] bounds = new int[16];
+
+	/**
+	 * The number of candidates on the last line.
+	 */
+	private int length;
+
+	private long weight;
+
+	/**
+	 * Why the last line is malformed, or null if it is not.
+	 */
+	private String error;
+
+	/**
+	 * Reads the bytes of the last buffer given to the tokenizer as 
+	 * characters.
+	 */
+	private final ByteChars byteChars = new ByteChars();
+
+	/**
+	 * Setups a tokenizer whose IDs are taken from the dictionary.
+	 *
+	 * @param candidates	The dictionary of the election.
+	 */
+	public BallotTokenizer(CandidateDictionary candidates){
+		this.candidates = candidates;
+	}
+
+	/**
+	 * Parses the line and adds it to the sink if it is well formed, ranks at
+	 * least one candidate, and has a weight of at least 1. The tokenizer
+	 * must use the dictionary of the sink.
+	 *
+	 * @param line	The ballot as a line of text.
+	 * @param sink	The count the ballot is added to.
+	 * @return	<code>true</code> if the ballot was added; otherwise
+	 * 			<code>false</code>, where <code>getError()</code> tells if the
+	 * 			line was malformed.
+	 */
+	public boolean parse(CharSequence line, BallotSink sink){
+		if(!tokenize(line) || length == 0 || weight <= 0)
+			return false;
+
+		sink.add(ids, length, weight);
+
+		return true;
+	}
+
+	/**
+	 * Parses the UTF-8 bytes from <code>start</code> (inclusive) to 
+	 * <code>end</code> (exclusive), which may start with a weight, and adds 
+	 * the ballot to the sink as <code>parse(CharSequence, BallotSink)</code>
+	 * does.
+	 *
+	 * @param bytes	The bytes holding the ballot.
+	 * @param start	The index of the first byte of the ballot.
+	 * @param end	The index after the last byte of the ballot.
+	 * @param sink	The count the ballot is added to.
+	 * @return	<code>true</code> if the ballot was added; otherwise
+	 * 			<code>false</code>, where <code>getError()</code> tells if the
+	 * 			line was malformed.
+	 */
+	public boolean parse(ByteBuffer bytes, int start, int end, 
+			BallotSink sink){
+		if(!tokenize(bytes, start, end, true) || length == 0 || weight <= 0)
+			return false;
+
+		sink.add(ids, length, weight);
+
+		return true;
+	}
+
+	/**
+	 * Parses the line, which may start with a weight.
+	 *
+	 * @param line	The ballot as a line of text.
+	 * @return	<code>true</code> if the line is well formed.
+	 */
+	public boolean tokenize(CharSequence line){
+		return tokenize(line, 0, line.length(), true);
+	}
+
+	/**
+	 * Parses the characters from <code>start</code> (inclusive) to
+	 * <code>end</code> (exclusive).
+	 *
+	 * @param line		The characters holding the ballot.
+	 * @param start		The index of the first character of the ballot.
+	 * @param end		The index after the last character of the ballot.
+	 * @param weighted	Whether the ballot may start with a weight. If not,
+	 * 					a leading number is part of the first name.
+	 * @return	<code>true</code> if the line is well formed.
+	 */
+	public boolean tokenize(CharSequence line, int start, int end,
+			boolean weighted){
+		int names = split(line, start, end, weighted);
+
+		if(names < 0)
+			return false;
+
+		for(int n = 0; n < names; n++)
+			ids[n] = candidates.intern(line, bounds[2 * n], bounds[2 * n + 1]);
+
+		length = names;
+
+		return true;
+	}
+
+	/**
+	 * Parses the UTF-8 bytes from <code>start</code> (inclusive) to
+	 * <code>end</code> (exclusive) by the same rules as a line of text.
+	 *
+	 * @param bytes		The bytes holding the ballot.
+	 * @param start		The index of the first byte of the ballot.
+	 * @param end		The index after the last byte of the ballot.
+	 * @param weighted	Whether the ballot may start with a weight. If not,
+	 * 					a leading number is part of the first name.
+	 * @return	<code>true</code> if the line is well formed.
+	 */
+	public boolean tokenize(ByteBuffer bytes, int start, int end,
+			boolean weighted){
+		byteChars.bytes = bytes;
+
+		int names = split(byteChars, start, end, weighted);
+
+		if(names < 0)
+			return false;
+
+		for(int n = 0; n < names; n++)
+			ids[n] = candidates.intern(bytes, bounds[2 * n], bounds[2 * n + 1]);
+
+		length = names;
+
+		return true;
+	}
+
+	/**
+	 * Finds the weight and the bounds of each name of the line without 
+	 * interning any of them. The index in an error is from 
+	 * <code>start</code>.
+	 *
+	 * @return	The number of names, or -1 if the line is malformed.
+	 */
+	private int split(CharSequence line, int start, int end, 
+			boolean weighted){
+		int offset = start;
+
+		length = 0;
+		weight = 1;
+		error = null;
+
+		//Trims the line.
+		while(start < end && isSpace(line.charAt(start)))
+			start++;
+
+		while(end > start && isSpace(line.charAt(end - 1)))
+			end--;
+
+		if(start == end)		//A blank line ranks no one.
+			return 0;
+
+		if(weighted)
+			start = readWeight(line, start, end);
+
+		char separator = 0;
+		int names = 0;
+		int nameStart = start;
+
+		for(int i = start; i <= end; i++){
+			char c = i == end ? 0 : line.charAt(i);
+
+			if(i < end && !isSeparator(c))
+				continue;
+
+			if(i < end){
+				if(separator == 0)
+					separator = c;
+				else if(c != separator)
+					return fail("Mixed separators '" + separator + "' and '"
+							+ c + "' at index " + (i - offset));
+			}
+
+			int nameEnd = i;
+
+			while(nameStart < nameEnd && isSpace(line.charAt(nameStart)))
+				nameStart++;
+
+			while(nameEnd > nameStart && isSpace(line.charAt(nameEnd - 1)))
+				nameEnd--;
+
+			if(nameStart == nameEnd)
+				return fail("Empty candidate at index " + (nameStart - offset));
+
+			if(2 * names == bounds.length)
+				bounds = grow(bounds);
+
+			bounds[2 * names] = nameStart;
+			bounds[2 * names + 1] = nameEnd;
+			names++;
+
+			nameStart = i + 1;
+		}
+
+		if(ids.length < names)
+			ids = new int[bounds.length / 2];
+
+		return names;
+	}
+
+	/**
+	 * Reads the weight if the line starts with one and returns the index
+	 * after it, or <code>start</code> if there is none.
+	 */
+	private int readWeight(CharSequence line, int start, int end){
+		int digits = start;
+
+		while(digits < end && line.charAt(digits) >= '0' &&
+				line.charAt(digits) <= '9')
+			digits++;
+
+		//An all-digit prefix followed by a space is the number of voters.
+		if(digits == start || digits - start > MAX_WEIGHT_DIGITS ||
+				digits >= end - 1 || line.charAt(digits) != ' ')
+			return start;
+
+		weight = 0;
+
+		for(int i = start; i < digits; i++)
+			weight = weight * 10 + (line.charAt(i) - '0');
+
+		return digits + 1;
+	}
+
+	private int fail(String message){
+		error = message;
+		length = 0;
+
+		return -1;
+	}
+
+	private static int[] grow(int[] array){
+		int[] grown = new int[array.length * 2];
+		System.arraycopy(array, 0, grown, 0, array.length);
+
+		return grown;
+	}
+
+	private static boolean isSpace(char c){
+		return c <= ' ';
+	}
+
+	private static boolean isSeparator(char c){
+		return c == ',' || c == ';' || c == '>' || c == '/';
+	}
+
+	/**
+	 * Reads each byte of a buffer as the character with the same value, so 
+	 * that bytes can be split by the rules for text. A byte of a character
+	 * longer than one byte reads as a character above 127, which is neither 
+	 * a space, a digit nor a separator.
+	 */
+	private static class ByteChars implements CharSequence {
+
+		ByteBuffer bytes;
+
+		@Override
+		public int length(){
+			return bytes.limit();
+		}
+
+		@Override
+		public char charAt(int index){
+			return (char) (bytes.get(index) & 0xFF);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end){
+			return toString().substring(start, end);
+		}
+
+		@Override
+		public String toString(){
+			char[] chars = new char[length()];
+
+			for(int i = 0; i < chars.length; i++)
+				chars[i] = charAt(i);
+
+			return new String(chars);
+		}
+	}
+
+	/**
+	 * Returns the dictionary the IDs are taken from.
+	 *
+	 * @return The dictionary of the election.
+	 */
+	public CandidateDictionary getCandidates(){
+		return candidates;
+	}
+
+	/**
+	 * Returns the number of candidates on the last line.
+	 *
+	 * @return The length of the ballot, or 0 if it was malformed.
+	 */
+	public int getLength(){
+		return length;
+	}
+
+	/**
+	 * Returns the ID of the candidate at the index of the last line.
+	 *
+	 * @param index	The rank of the candidate, where 0 is first.
+	 * @return	The ID of the candidate.
+	 * @throws IndexOutOfBoundsException if the index is not less than
+	 * <code>getLength()</code>.
+	 */
+	public int getId(int index){
+		if(index >= length)
+			throw new IndexOutOfBoundsException("Index: " + index);
+
+		return ids[index];
+	}
+
+	/**
+	 * Returns the IDs of the last line. Only the first
+	 * <code>getLength()</code> are used.
+	 */
+	int[] getIds(){
+		return ids;
+	}
+
+	/**
+	 * Returns the number of voters who cast the last line.
+	 *
+	 * @return The weight of the ballot.
+	 */
+	public long getWeight(){
+		return weight;
+	}
+
+	/**
+	 * Returns why the last line is malformed.
+	 *
+	 * @return The description of the problem, or null if the line was well
+	 * formed.
+	 */
+	public String getError(){
+		return error;
+	}
+} //end BallotTokenizer
@@ -0,0 +1,480 @@
+package VotingSystems;
+
+import java.util.Arrays;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Ballot Trie</b>
+ * <p>
+ * <b>Purpose:</b> To keep the ballots of an election as a prefix tree, where
+ * 			ballots that start with the same candidates share the nodes of
+ * 			that prefix. Each node holds the weight of the ballots that pass
+ * 			through it, so most counts take one pass over the nodes rather
+ * 			than over the ballots.
+ * <p>
+ * <b>Input:</b>	Ballots as arrays of candidate IDs through
+ * 			<code>BallotSink</code>, such as from a <code>BallotFileReader
+ * 			</code>.
+ * <p>
+ * <b>Output:</b>	The counts of the voting systems, which are built from a
+ * 			trie with their <code>BallotTrie</code> constructors:
+ * <li>The first place votes are the weights of the children of the root.
+ * <li>A node at depth <i>d</i> gives its candidate the points of position
+ * 				<i>d</i> for each of its voters, such as <i>k</i> - <i>d</i>
+ * 				Borda points.
+ * <li>The candidate of a node beats every candidate but those above it on
+ * 				the path from the root on each of the node's ballots, which
+ * 				gives the Condorcet pairwise counts.
+ * <li>An instant runoff is counted by <code>runoff()</code>, which splices
+ * 				the subtrees of each eliminated candidate into their parents.
+ * <p>
+ * The nodes are kept in parallel arrays, where node 0 is the root and the
+ * children of a node are a linked list through <code>nextSibling</code>.
+ */
+public class BallotTrie implements BallotSink, CountableBallots {
+
+	private static final int NONE = -1;
+
+	private final CandidateDictionary candidates;
+
+	/**
+	 * Holds the ID of the candidate of each node.
+	 */
+	private int[] candidate;
+
+	/**
+	 * Holds the depth of each node, where the children of the root are at
+	 * depth 1.
+	 */
+	private int[] depth;
+
+	private int[] parent;
+
+	private int[] firstChild;
+
+	private int[] nextSibling;
+
+	/**
+	 * Holds the weight of the ballots that pass through each node.
+	 */
+	private long[] weight;
+
+	/**
+	 * Holds the weight of the ballots that end at each node.
+	 */
+	private long[] ending;
+
+	/**
+	 * The number of nodes, including the root.
+	 */
+	private int size;
+
+	/**
+	 * Holds the number of the last ballot on which each candidate was seen,
+	 * where the index is their ID, to remove duplicates.
+	 */
+	private int[] seen = new int[8];
+
+	private int stamp;
+
+	/**
+	 * Default constructor which instantiates an empty trie with its own
+	 * dictionary.
+	 */
+	public BallotTrie(){
+		this(new CandidateDictionary());
+	}
+
+	/**
+	 * Instantiates an empty trie whose ballots will take their IDs from the
+	 * dictionary.
+	 *
+	 * @param candidates	The dictionary of the election.
+	 */
+	public BallotTrie(CandidateDictionary candidates){
+		this.candidates = candidates;
+
+		int capacity = 64;
+
+		candidate = new int[capacity];
+		depth = new int[capacity];
+		parent = new int[capacity];
+		firstChild = new int[capacity];
+		nextSibling = new int[capacity];
+		weight = new long[capacity];
+		ending = new long[capacity];
+
+		candidate[0] = NONE;
+		parent[0] = NONE;
+		firstChild[0] = NONE;
+		nextSibling[0] = NONE;
+		size = 1;
+	}
+
+	/**
+	 * Setups a trie with the ballots of the ballot box, using its dictionary.
+	 *
+	 * @param ballots	The ballots to be added.
+	 */
+	public BallotTrie(BallotBox ballots){
+		this(ballots.getCandidates());
+
+		int[] ids = new int[candidates.size()];
+
+		for(WeightedBallot weighted : ballots){
+			Ballot ballot = weighted.getBallot();
+
+			for(int i = 0; i < ballot.getBallotLength(); i++)
+				ids[i] = ballot.getCandidateId(i);
+
+			add(ids, ballot.getBallotLength(), weighted.getWeight());
+		}
+	}
+
+	/**
+	 * Adds the ballot the specified number of times, adding a node for each
+	 * candidate after the longest prefix already in the trie.
+	 *
+	 * @throws IllegalArgumentException if <code>weight</code> is negative.
+	 */
+	@Override
+	public void add(int[] ids, int length, long weight){
+		if(weight < 0)
+			throw new IllegalArgumentException("Negative weight: " + weight);
+
+		if(seen.length < candidates.size())
+			seen = Arrays.copyOf(seen, Math.max(candidates.size(),
+					seen.length * 2));
+
+		stamp++;
+
+		int node = 0;
+		this.weight[0] += weight;
+
+		for(int i = 0; i < length; i++){
+			int id = ids[i];
+
+			if(seen[id] == stamp)	//Ranked higher on the same ballot.
+				continue;
+
+			seen[id] = stamp;
+			node = child(node, id);
+			this.weight[node] += weight;
+		}
+
+		ending[node] += weight;
+	}
+
+	/**
+	 * Returns the child of the node for the candidate, adding it if there is
+	 * none.
+	 */
+	private int child(int node, int id){
+		for(int c = firstChild[node]; c != NONE; c = nextSibling[c]){
+			if(candidate[c] == id)
+				return c;
+		}
+
+		if(size == candidate.length)
+			grow();
+
+		int c = size++;
+
+		candidate[c] = id;
+		depth[c] = depth[node] + 1;
+		parent[c] = node;
+		firstChild[c] = NONE;
+		nextSibling[c] = firstChild[node];
+		firstChild[node] = c;
+
+		return c;
+	}
+
+	private void grow(){
+		int capacity = candidate.length * 2;
+
+		candidate = Arrays.copyOf(candidate, capacity);
+		depth = Arrays.copyOf(depth, capacity);
+		parent = Arrays.copyOf(parent, capacity);
+		firstChild = Arrays.copyOf(firstChild, capacity);
+		nextSibling = Arrays.copyOf(nextSibling, capacity);
+		weight = Arrays.copyOf(weight, capacity);
+		ending = Arrays.copyOf(ending, capacity);
+	}
+
+	/**
+	 * Returns the first place votes of each candidate, which are the weights
+	 * of the children of the root.
+	 *
+	 * @return The votes with the candidates' IDs as the index.
+	 */
+	public long[] getFirstChoices(){
+		long[] votes = new long[candidates.size()];
+
+		for(int c = firstChild[0]; c != NONE; c = nextSibling[c])
+			votes[candidate[c]] += weight[c];
+
+		return votes;
+	}
+
+	/**
+	 * Returns the Borda score of each candidate, which is the same as the
+	 * votes of <code>Borda</code> for the same ballots.
+	 *
+	 * @return The scores with the candidates' IDs as the index.
+	 */
+	public long[] getBordaScores(){
+		return getScores(PositionalScoring.bordaScores(candidates.size()));
+	}
+
+	/**
+	 * Returns the points of each candidate by a positional scoring system, 
+	 * where a node at depth <i>d</i> gives its candidate the points of 
+	 * position <i>d</i> for each of its voters.
+	 *
+	 * @param points	The points of each position, starting with the first.
+	 * 					Positions past its end get no points.
+	 * @return The points with the candidates' IDs as the index.
+	 */
+	public long[] getScores(long[] points){
+		long[] scores = new long[candidates.size()];
+
+		for(int node = 1; node < size; node++){
+			if(depth[node] <= points.length)
+				scores[candidate[node]] += points[depth[node] - 1] * weight[node];
+		}
+
+		return scores;
+	}
+
+	/**
+	 * Returns the votes of each candidate against each other candidate,
+	 * which are the same as those of <code>Condorcet</code> for the same
+	 * ballots. Each node adds its weight to the votes of its candidate
+	 * against every candidate, and then takes it away from the votes against
+	 * its own candidate and the candidates above it.
+	 *
+	 * @return The votes of candidate <i>a</i> against candidate <i>b</i> at
+	 * index <i>a</i> * <i>k</i> + <i>b</i>.
+	 */
+	public long[] getPairwise(){
+		int k = candidates.size();
+		long[] ranked = new long[k];
+		long[] pairwise = new long[k * k];
+
+		for(int node = 1; node < size; node++){
+			int row = candidate[node] * k;
+			long w = weight[node];
+
+			ranked[candidate[node]] += w;
+
+			for(int above = node; above != 0; above = parent[above])
+				pairwise[row + candidate[above]] -= w;
+		}
+
+		for(int a = 0; a < k; a++){
+			for(int b = 0; b < k; b++)
+				pairwise[a * k + b] += ranked[a];
+		}
+
+		return pairwise;
+	}
+
+	/**
+	 * Adds the weight of each ballot to the first of the remaining candidates
+	 * on it, which is the vote of the ballot in the round of an instant runoff
+	 * where only they remain. Bit <i>i</i> of <code>remaining</code> is set
+	 * if the candidate with ID <i>i</i> remains, so the trie may have at most
+	 * 64 candidates. Only the nodes above the first remaining candidate of
+	 * each ballot are visited.
+	 *
+	 * @param remaining	The candidates who remain.
+	 * @param votes		The votes with the candidates' IDs as the index.
+	 */
+	void tally(long remaining, long[] votes){
+		tally(0, remaining, votes);
+	}
+
+	private void tally(int node, long remaining, long[] votes){
+		for(int c = firstChild[node]; c != NONE; c = nextSibling[c]){
+			if((remaining >>> candidate[c] & 1) != 0)
+				votes[candidate[c]] += weight[c];
+			else
+				tally(c, remaining, votes);		//At most k deep.
+		}
+	}
+
+	/**
+	 * Returns an engine that counts an instant runoff of the ballots by
+	 * splicing the subtrees of each eliminated candidate into their parents.
+	 * The trie is not changed.
+	 *
+	 * @return The engine, with the first round counted.
+	 */
+	public RunoffEngine runoff(){
+		return new TrieRunoff();
+	}
+
+	@Override
+	public CandidateDictionary getCandidates(){
+		return candidates;
+	}
+
+	/**
+	 * Returns the number of nodes, not counting the root.
+	 *
+	 * @return The number of nodes.
+	 */
+	public int getNumNodes(){
+		return size - 1;
+	}
+
+	/**
+	 * Returns the number of voters, which is the sum of the weights.
+	 *
+	 * @return The number of voters.
+	 */
+	public long getTotalWeight(){
+		return weight[0];
+	}
+
+	/**
+	 * Counts an instant runoff on a copy of the trie. When a candidate is
+	 * eliminated each of their nodes is removed, the ballots that end there
+	 * end at its parent instead, and each of its children is merged into the
+	 * child of the parent with the same candidate, or moved to the parent if
+	 * it has none. The children of the root then hold the current choice of
+	 * every ballot, and the ballots that end at the root are exhausted.
+	 */
+	private class TrieRunoff extends RunoffEngine {
+
+		private final int[] parent = Arrays.copyOf(BallotTrie.this.parent,
+				size);
+
+		private final int[] firstChild = Arrays.copyOf(
+				BallotTrie.this.firstChild, size);
+
+		private final int[] nextSibling = Arrays.copyOf(
+				BallotTrie.this.nextSibling, size);
+
+		private final long[] weight = Arrays.copyOf(BallotTrie.this.weight,
+				size);
+
+		private final long[] ending = Arrays.copyOf(BallotTrie.this.ending,
+				size);
+
+		/**
+		 * Holds whether each node has been removed.
+		 */
+		private final boolean[] removed = new boolean[size];
+
+		/**
+		 * Holds the first node of each candidate, with their ID as the
+		 * index, and the next node of the same candidate after each node.
+		 */
+		private final int[] firstOf, nextOf;
+
+		TrieRunoff(){
+			super(candidates.size());
+
+			firstOf = new int[candidates.size()];
+			nextOf = new int[size];
+
+			Arrays.fill(firstOf, NONE);
+
+			for(int node = size - 1; node > 0; node--){
+				nextOf[node] = firstOf[candidate[node]];
+				firstOf[candidate[node]] = node;
+			}
+
+			count();
+			recordFirstRound();
+		}
+
+		@Override
+		protected void transfer(int eliminated){
+			for(int node = firstOf[eliminated]; node != NONE;
+					node = nextOf[node]){
+				if(!removed[node])
+					splice(node);
+			}
+
+			firstOf[eliminated] = NONE;
+			count();
+		}
+
+		/**
+		 * Removes the node and moves its ballots to its parent.
+		 */
+		private void splice(int node){
+			int up = parent[node];
+
+			unlink(up, node);
+			removed[node] = true;
+			ending[up] += ending[node];
+
+			for(int c = firstChild[node], next; c != NONE; c = next){
+				next = nextSibling[c];
+				merge(up, c);
+			}
+		}
+
+		/**
+		 * Makes the node a child of the new parent, merging it into the
+		 * child of the parent with the same candidate if there is one.
+		 */
+		private void merge(int up, int node){
+			int same = firstChild[up];
+
+			while(same != NONE && candidate[same] != candidate[node])
+				same = nextSibling[same];
+
+			if(same == NONE){
+				parent[node] = up;
+				nextSibling[node] = firstChild[up];
+				firstChild[up] = node;
+				return;
+			}
+
+			weight[same] += weight[node];
+			ending[same] += ending[node];
+			removed[node] = true;
+
+			for(int c = firstChild[node], next; c != NONE; c = next){
+				next = nextSibling[c];
+				merge(same, c);
+			}
+		}
+
+		/**
+		 * Removes the node from the children of its parent.
+		 */
+		private void unlink(int up, int node){
+			if(firstChild[up] == node){
+				firstChild[up] = nextSibling[node];
+				return;
+			}
+
+			int c = firstChild[up];
+
+			while(nextSibling[c] != node)
+				c = nextSibling[c];
+
+			nextSibling[c] = nextSibling[node];
+		}
+
+		/**
+		 * Sets the votes from the children of the root.
+		 */
+		private void count(){
+			Arrays.fill(votes, 0);
+
+			for(int c = firstChild[0]; c != NONE; c = nextSibling[c])
+				votes[candidate[c]] += weight[c];
+
+			exhausted = ending[0];
+		}
+	}
+} //end BallotTrie
@@ -0,0 +1,422 @@
+package VotingSystems;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Binary Ballot Reader</b>
+ * <p>
+ * <b>Purpose:</b> To count ballots saved by <code>BinaryBallotWriter</code>.
+ * 			The file is memory-mapped and the rankings are decoded straight 
+ * 			from the mapped bytes into a <code>BallotSink</code>, so nothing is
+ * 			allocated per ballot and no names are parsed after the header.
+ * <p>
+ * <b>Input:</b>	A file in the format described in 
+ * 			<code>BinaryBallotWriter</code>.
+ * <p>
+ * <b>Output:</b>	The candidates of the file as a dictionary, and the 
+ * 			ballots, passed to a <code>BallotSink</code> or counted by the
+ * 			voting systems straight from the mapped file through
+ * 			<code>map()</code>.
+ * <p>
+ * Every ballot is checked as it is decoded: a ballot longer than the number
+ * of candidates, a candidate ID that is not in the header, or a ballot cut
+ * off at the end of the file is reported with its number as an
+ * <code>IOException</code>.
+ */
+public class BinaryBallotReader {
+
+	static final byte[] MAGIC = {'V', 'S', 'B', 'B'};
+
+	static final int VERSION = 1;
+
+	/**
+	 * The flag that is set if each ballot has a weight.
+	 */
+	static final int WEIGHTED = 1;
+
+	/**
+	 * The largest number of bytes mapped at once.
+	 */
+	private static final int REGION_SIZE = 1 << 30;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final Path file;
+
+	/**
+	 * Receives the time spent reading and the number of ballots read.
+	 */
+	private final ElectionMetrics metrics;
+
+	/**
+	 * Holds the candidates in the header of the file.
+	 */
+	private CandidateDictionary candidates;
+
+	private boolean weighted;
+
+	/**
+	 * The offset of the first ballot in the file.
+	 */
+	private long ballotsOffset;
+
+	/**
+	 * The position in the current region while decoding.
+	 */
+	private int position;
+
+	/**
+	 * Setups a reader for the file and reads its header.
+	 * 
+	 * @param file	The ballot file.
+	 * @throws IOException if the file cannot be read or is not a ballot file.
+	 */
+	public BinaryBallotReader(Path file) throws IOException {
+		this(file, ElectionMetrics.NONE);
+	}
+
+	/**
+	 * Setups a reader for the file that reports the time of each read and
+	 * the number of ballots read to the metrics, and reads its header.
+	 * 
+	 * @param file		The ballot file.
+	 * @param metrics	The metrics of the reads, or null for none.
+	 * @throws IOException if the file cannot be read or is not a ballot file.
+	 */
+	public BinaryBallotReader(Path file, ElectionMetrics metrics) 
+			throws IOException {
+		this.file = file;
+		this.metrics = metrics == null ? ElectionMetrics.NONE : metrics;
+
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY,
+					0, Math.min(REGION_SIZE, channel.size()));
+
+			try {
+				readHeader(header);
+			} catch(IndexOutOfBoundsException e){
+				throw new IOException("Truncated header in " + file);
+			}
+		}
+	}
+
+	private void readHeader(MappedByteBuffer header) throws IOException {
+		for(byte b : MAGIC){
+			if(header.get(position++) != b)
+				throw new IOException("Not a ballot file: " + file);
+		}
+
+		int version = header.get(position++);
+
+		if(version != VERSION)
+			throw new IOException("Unsupported version " + version + " of " 
+					+ file);
+
+		weighted = (header.get(position++) & WEIGHTED) != 0;
+
+		candidates = new CandidateDictionary();
+		int numCandidates = (int) readVarint(header);
+
+		for(int id = 0; id < numCandidates; id++){
+			byte[] name = new byte[(int) readVarint(header)];
+
+			for(int i = 0; i < name.length; i++)
+				name[i] = header.get(position++);
+
+			candidates.intern(new String(name, UTF_8));
+		}
+
+		ballotsOffset = position;
+	}
+
+	/**
+	 * Returns the candidates in the header of the file.
+	 * 
+	 * @return The dictionary of the file.
+	 */
+	public CandidateDictionary getCandidates(){
+		return candidates;
+	}
+
+	/**
+	 * Reads the ballots of the file into a new ballot box which uses the 
+	 * dictionary of the file, so no IDs need to be translated.
+	 * 
+	 * @return The ballots of the file.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public BallotBox read() throws IOException {
+		BallotBox ballots = new BallotBox(candidates);
+
+		read(ballots);
+
+		return ballots;
+	}
+
+	/**
+	 * Reads every ballot in the file into the sink. If the sink does not use
+	 * the dictionary of the file the IDs are translated through a table built
+	 * once from the header.
+	 * 
+	 * @param sink	The count the ballots are added to.
+	 * @return	The number of rankings read.
+	 * @throws IOException if the file cannot be read, is truncated, or has a
+	 * ballot with an ID that is not in the header.
+	 */
+	public long read(BallotSink sink) throws IOException {
+		long started = System.nanoTime();
+		int[] translation = new int[candidates.size()];
+
+		for(int id = 0; id < translation.length; id++){
+			translation[id] = sink.getCandidates() == candidates ? id :
+					sink.getCandidates().intern(candidates.getName(id));
+		}
+
+		int[] ids = new int[candidates.size()];
+		FileCursor cursor = new FileCursor(Files.size(file));
+
+		while(cursor.advance()){
+			int n = cursor.getLength();
+
+			for(int i = 0; i < n; i++)
+				ids[i] = translation[cursor.getId(i)];
+
+			sink.add(ids, n, cursor.getWeight());
+		}
+
+		metrics.time(ElectionMetrics.Phase.PARSE, System.nanoTime() - started);
+		metrics.count(ElectionMetrics.Counter.BALLOTS, cursor.rankings);
+
+		return cursor.rankings;
+	}
+
+	/**
+	 * Checks every ballot in the file and returns a view of them that voting 
+	 * systems count straight from the mapped file, such as with <code>new 
+	 * InstantRunoff(reader.map())</code>. Nothing is kept per ballot, so a 
+	 * recount of a converted election reads the file without building a 
+	 * <code>BallotBox</code>. Each count reads the file again, so it must not
+	 * be changed while the view is in use.
+	 * 
+	 * @return The ballots of the file, with its dictionary.
+	 * @throws IOException if the file cannot be read, is truncated, or has a
+	 * ballot with an ID that is not in the header.
+	 */
+	public StreamedBallots map() throws IOException {
+		long started = System.nanoTime();
+		final long size = Files.size(file);
+		long totalWeight = 0;
+		FileCursor cursor = new FileCursor(size);
+
+		while(cursor.advance())
+			totalWeight += cursor.getWeight();
+
+		metrics.time(ElectionMetrics.Phase.PARSE, System.nanoTime() - started);
+		metrics.count(ElectionMetrics.Counter.BALLOTS, cursor.rankings);
+
+		final long voters = totalWeight;
+
+		return new StreamedBallots(){
+			@Override
+			public BallotCursor cursor(){
+				return new FileCursor(size);
+			}
+
+			@Override
+			public CandidateDictionary getCandidates(){
+				return candidates;
+			}
+
+			@Override
+			public long getTotalWeight(){
+				return voters;
+			}
+		};
+	}
+
+	/**
+	 * Reads an unsigned LEB128 varint at <code>position</code>.
+	 */
+	private long readVarint(MappedByteBuffer bytes){
+		long value = 0;
+		int shift = 0;
+		byte b;
+
+		do {
+			b = bytes.get(position++);
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while(b < 0);
+
+		return value;
+	}
+
+	/**
+	 * Decodes the ballots of the file from mapped regions of at most
+	 * <code>REGION_SIZE</code> bytes. A region is mapped again from the
+	 * current ballot when fewer bytes are left in it than the longest ballot
+	 * can take, so no ballot is cut off at the end of a region. Each ballot is
+	 * checked as it is decoded.
+	 */
+	private class FileCursor implements BallotCursor {
+
+		/**
+		 * The size of the file, where the ballots end.
+		 */
+		private final long size;
+
+		/**
+		 * The most bytes one ballot can take.
+		 */
+		private final long maxBallot = 10 + 5 + 5L * candidates.size();
+
+		private final int[] ids = new int[candidates.size()];
+
+		private MappedByteBuffer region;
+
+		/**
+		 * The offset of the region in the file.
+		 */
+		private long regionOffset = ballotsOffset;
+
+		private int regionLength;
+
+		/**
+		 * The position in the region of the next ballot.
+		 */
+		private int at;
+
+		private int length;
+
+		private long weight;
+
+		/**
+		 * The number of ballots read so far.
+		 */
+		private long rankings;
+
+		FileCursor(long size){
+			this.size = size;
+		}
+
+		/**
+		 * Moves to the next ballot.
+		 * 
+		 * @return <code>true</code> if there is a next ballot.
+		 * @throws IOException if the file cannot be read or the ballot is 
+		 * damaged.
+		 */
+		boolean advance() throws IOException {
+			if(regionOffset + regionLength < size && 
+					regionLength - at < maxBallot)
+				remap();
+
+			if(regionOffset + at >= size)
+				return false;
+
+			try {
+				weight = weighted ? varint() : 1;
+				long n = varint();
+
+				if(n < 0 || n > ids.length)
+					throw new IOException("Ballot " + (rankings + 1) + " of " +
+							n + " candidates is longer than the " + ids.length + 
+							" candidates in the header of " + file);
+
+				length = (int) n;
+
+				for(int i = 0; i < length; i++){
+					long id = varint();
+
+					if(id < 0 || id >= ids.length)
+						throw new IOException("Ballot " + (rankings + 1) + 
+								" has candidate ID " + id + ", which is not one" +
+								" of the " + ids.length + " candidates in the " +
+								"header of " + file);
+
+					ids[i] = (int) id;
+				}
+			} catch(IndexOutOfBoundsException e){
+				throw new IOException("Truncated ballot " + (rankings + 1) + 
+						" in " + file);
+			}
+
+			rankings++;
+
+			return true;
+		}
+
+		/**
+		 * Maps the next region of the file from the current ballot.
+		 */
+		private void remap() throws IOException {
+			regionOffset += at;
+			regionLength = (int) Math.min(REGION_SIZE, size - regionOffset);
+			at = 0;
+
+			try(FileChannel channel = FileChannel.open(file, 
+					StandardOpenOption.READ)){
+				region = channel.map(FileChannel.MapMode.READ_ONLY, 
+						regionOffset, regionLength);
+			}
+		}
+
+		/**
+		 * Reads an unsigned LEB128 varint at <code>at</code>.
+		 */
+		private long varint(){
+			long value = 0;
+			int shift = 0;
+			byte b;
+
+			do {
+				b = region.get(at++);
+				value |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while(b < 0);
+
+			return value;
+		}
+
+		/**
+		 * Moves to the next ballot. A view returned by <code>map()</code> was 
+		 * checked when it was mapped, so this only fails if the file has been
+		 * changed since.
+		 * 
+		 * @throws IllegalStateException if the file cannot be read or the 
+		 * ballot is damaged.
+		 */
+		@Override
+		public boolean next(){
+			try {
+				return advance();
+			} catch(IOException e){
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+		}
+
+		@Override
+		public int getLength(){
+			return length;
+		}
+
+		@Override
+		public int getId(int index){
+			return ids[index];
+		}
+
+		@Override
+		public long getWeight(){
+			return weight;
+		}
+	}
+} //end BinaryBallotReader
@@ -0,0 +1,106 @@
+package VotingSystems;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Binary Ballot Writer</b>
+ * <p>
+ * <b>Purpose:</b> To save the ballots of an election in a compact binary 
+ * 			format, so that they can be counted again without parsing text.
+ * <p>
+ * <b>Input:</b>	A <code>BallotBox</code>.
+ * <p>
+ * <b>Output:</b>	A file with the following layout, where every number is an
+ * 			unsigned LEB128 varint unless stated otherwise:
+ * <li>The magic number <code>VSBB</code> (4 bytes) and the format version 
+ * 				(1 byte).
+ * <li>The flags (1 byte). If bit 0 is set each ballot has a weight.
+ * <li>The number of candidates, then the name of each candidate in order of 
+ * 				ID as the number of bytes followed by the UTF-8 bytes.
+ * <li>Each distinct ranking as the weight (if the flag is set), the number of
+ * 				candidates ranked, and the ID of each ranked candidate.
+ * <p>
+ * Since most IDs are less than 128 a ranking usually takes one byte per 
+ * candidate plus two bytes.
+ */
+public class BinaryBallotWriter {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final Path file;
+
+	/**
+	 * Setups a writer for the file.
+	 * 
+	 * @param file	The file to be written. It is replaced if it exists.
+	 */
+	public BinaryBallotWriter(Path file){
+		this.file = file;
+	}
+
+	/**
+	 * Writes the candidates and ballots of the ballot box to the file. The 
+	 * weights are only written if some ballot has a weight other than 1.
+	 * 
+	 * @param ballots	The ballots to be written.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void write(BallotBox ballots) throws IOException {
+		boolean weighted = false;
+
+		for(WeightedBallot ballot : ballots)
+			weighted |= ballot.getWeight() != 1;
+
+		try(OutputStream out = new BufferedOutputStream(
+				Files.newOutputStream(file), 1 << 16)){
+			out.write(BinaryBallotReader.MAGIC);
+			out.write(BinaryBallotReader.VERSION);
+			out.write(weighted ? BinaryBallotReader.WEIGHTED : 0);
+
+			CandidateDictionary candidates = ballots.getCandidates();
+
+			writeVarint(out, candidates.size());
+
+			for(int id = 0; id < candidates.size(); id++){
+				byte[] name = candidates.getName(id).getBytes(UTF_8);
+
+				writeVarint(out, name.length);
+				out.write(name);
+			}
+
+			for(WeightedBallot weightedBallot : ballots){
+				Ballot ballot = weightedBallot.getBallot();
+
+				if(weighted)
+					writeVarint(out, weightedBallot.getWeight());
+
+				writeVarint(out, ballot.getBallotLength());
+
+				for(int i = 0; i < ballot.getBallotLength(); i++)
+					writeVarint(out, ballot.getCandidateId(i));
+			}
+		}
+	}
+
+	/**
+	 * Writes the number seven bits at a time, lowest first, with the high 
+	 * bit of each byte set if more bytes follow.
+	 */
+	private static void writeVarint(OutputStream out, long value) 
+			throws IOException {
+		while((value & ~0x7FL) != 0){
+			out.write((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+
+		out.write((int) value);
+	}
+} //end BinaryBallotWriter
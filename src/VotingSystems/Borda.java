@@ -1,7 +1,5 @@
 package VotingSystems;
 
-import java.util.Map;
-
 /**
  * 
  * @author Warren Godone-Maresca
@@ -26,29 +24,41 @@ import java.util.Map;
  * 			all candidates will	be awarded <i>n</i> - 1 points each time that 
  * 			they are ranked first on a	ballot, <i>n</i> - 2 points every time 
  * 			they are ranked second, and so forth. The candidate with the most 
- * 			points wins.
+ * 			points wins. It is the positional scoring system with the score 
+ * 			vector (<i>n</i> - 1, <i>n</i> - 2, ..., 0).
  * <p>
  * <b>Precondition</b>	The array of ballots and the candidates names must be set.
  * <p>
  * <b>Relation with other classes</b> Inherits the ballots array  and the several
- * 				methods from VotingSystem.
+ * 				methods from VotingSystem, and the count from PositionalScoring.
  */
-public class Borda extends VotingSystem{
+public class Borda extends PositionalScoring {
 	
 	public Borda(){}
 
 	public Borda(Ballot[] ballots){
-		super(ballots);
+		this(new BallotBox(ballots));
+	}
+
+	public Borda(BallotBox ballots){
+		super(ballots, bordaScores(ballots.getCandidates().size()));
+	}
+
+	public Borda(BallotBox ballots, int parallelism){
+		super(ballots, parallelism, 
+				bordaScores(ballots.getCandidates().size()));
+	}
+
+	public Borda(BallotBox ballots, int parallelism, ElectionMetrics metrics){
+		super(ballots, parallelism, 
+				bordaScores(ballots.getCandidates().size()), metrics);
+	}
+
+	public Borda(CountableBallots ballots){
+		super(ballots, bordaScores(ballots.getCandidates().size()));
 	}
 
-	protected void setVotes(){
-		for(Ballot ballot : voterBallots){
-			for(String candidate : ballot.toArray()){
-				int score = candVotes.get(candidate) + 
-						candVotes.size() - ballot.getPosition(candidate);
-				
-				candVotes.put(candidate, score);
-			}
-		}
+	public Borda(CountableBallots ballots, ElectionMetrics metrics){
+		super(ballots, bordaScores(ballots.getCandidates().size()), metrics);
 	}
 }//end Borda
\ No newline at end of file
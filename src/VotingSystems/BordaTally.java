@@ -0,0 +1,97 @@
+package VotingSystems;
+
+import java.util.Arrays;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Borda Tally</b>
+ * <p>
+ * <b>Purpose:</b> To hold the points of each candidate in part of an election
+ * 			so that the parts can be merged and counted by the Borda count.
+ * <p>
+ * <b>Input:</b>	The ballots of one part of the election, or two tallies.
+ * <p>
+ * <b>Output:</b>	The same winner as <code>Borda</code> would give for all
+ * 			of the ballots.
+ * <p>
+ * The points of a candidate depend on the number of candidates in the whole 
+ * election, which a part may not know. So the tally keeps the weight of the
+ * ballots that rank each candidate and the sum of their positions, and
+ * scores them as <code>ElectionCounts</code> does.
+ */
+public class BordaTally extends PartialTally<BordaTally> {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Holds the weight of the ballots that rank each candidate.
+	 */
+	private final long[] ranked;
+
+	/**
+	 * Holds the sum of each candidate's position, weighted, on the ballots 
+	 * that rank them.
+	 */
+	private final long[] positions;
+
+	/**
+	 * Counts the positions of the candidates on the ballots.
+	 * 
+	 * @param ballots	The ballots of one part of the election.
+	 */
+	public BordaTally(BallotBox ballots){
+		this(ballots.getCandidates().toArray(), ballots.getTotalWeight(),
+				new long[ballots.getCandidates().size()], 
+				new long[ballots.getCandidates().size()]);
+
+		for(WeightedBallot weighted : ballots){
+			Ballot ballot = weighted.getBallot();
+			long weight = weighted.getWeight();
+
+			for(int i = 0; i < ballot.getBallotLength(); i++){
+				ranked[ballot.getCandidateId(i)] += weight;
+				positions[ballot.getCandidateId(i)] += (i + 1) * weight;
+			}
+		}
+	}
+
+	private BordaTally(String[] candidates, long numVoters, long[] ranked, 
+			long[] positions){
+		super(candidates, numVoters);
+		this.ranked = ranked;
+		this.positions = positions;
+	}
+
+	@Override
+	public BordaTally merge(BordaTally other){
+		CandidateDictionary merged = union(other);
+		int[] ids = translate(other, merged);
+		long[] sumRanked = Arrays.copyOf(ranked, merged.size());
+		long[] sumPositions = Arrays.copyOf(positions, merged.size());
+
+		for(int i = 0; i < ids.length; i++){
+			sumRanked[ids[i]] += other.ranked[i];
+			sumPositions[ids[i]] += other.positions[i];
+		}
+
+		return new BordaTally(merged.toArray(), numVoters + other.numVoters, 
+				sumRanked, sumPositions);
+	}
+
+	@Override
+	public String computeWinner(){
+		return leader(getScores());
+	}
+
+	/**
+	 * Returns the Borda score of each candidate, which is the same as the 
+	 * votes of <code>Borda</code> for the same ballots.
+	 * 
+	 * @return The scores with the candidates' IDs as the index.
+	 */
+	public long[] getScores(){
+		return ElectionCounts.bordaScores(candidates.length, ranked, positions);
+	}
+} //end BordaTally
@@ -0,0 +1,298 @@
+package VotingSystems;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <b>C A N D I D A T E   D I C T I O N A R Y</b>
+ *
+ * <p>
+ * <b>Purpose:</b> To map the name of each candidate to a dense integer ID so
+ * 					that ballots and tallies can work with array indices
+ * 					instead of hashing and comparing strings.
+ * <p>
+ * <b>Input:</b>	The names of the candidates, in any order. A name is given
+ * 					an ID the first time it is seen.
+ * <p>
+ * <b>Output:</b>	The ID of a name or the name of an ID. IDs start at 0 and
+ * 					are assigned in order of first appearance.
+ * <p>
+ * Names can also be looked up from a range of bytes, such as a line of a 
+ * memory-mapped ballot file, without creating a string for names that are 
+ * already in the dictionary.
+ */
+public class CandidateDictionary {
+	/**
+	 * The charset of names read from bytes.
+	 */
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * Holds the name of each candidate where the index is their ID.
+	 */
+	private List<String> names;
+
+	/**
+	 * Holds the hash code of each name where the index is the candidate's ID.
+	 */
+	private int[] hashes;
+
+	/**
+	 * An open addressing hash table which holds the ID + 1 of each candidate,
+	 * or 0 for an empty slot. Its length is always a power of two.
+	 */
+	private int[] table;
+
+	/**
+	 * Default constructor which instantiates an empty dictionary.
+	 */
+	public CandidateDictionary(){
+		names = new ArrayList<String>();
+		hashes = new int[8];
+		table = new int[16];
+	}
+
+	/**
+	 * Setups a dictionary with the candidates names. The IDs will be the
+	 * indices of the names in the array, less any duplicates.
+	 *
+	 * @param candidates	The names of the candidates.
+	 */
+	public CandidateDictionary(String[] candidates){
+		this();
+
+		for(String candidate : candidates)
+			intern(candidate);
+	}
+
+	/**
+	 * Returns the ID of the candidate, giving them the next free ID if they
+	 * are not yet in the dictionary.
+	 *
+	 * @param candidate	The name of the candidate.
+	 * @return	The ID of the candidate.
+	 */
+	public int intern(String candidate){
+		int hash = candidate.hashCode();
+		int slot = find(candidate, hash);
+
+		if(table[slot] == 0)		//If the name is new,
+			return add(candidate, hash, slot);	//it gets the next ID.
+
+		return table[slot] - 1;
+	}
+
+	/**
+	 * Returns the ID of the candidate whose name is encoded in UTF-8 in the 
+	 * bytes from <code>start</code> (inclusive) to <code>end</code> 
+	 * (exclusive), giving them the next free ID if they are not yet in the 
+	 * dictionary. A string is only created for a name that is new or that is
+	 * not plain ASCII.
+	 *
+	 * @param bytes	The buffer holding the name. Its position is not changed.
+	 * @param start	The index of the first byte of the name.
+	 * @param end	The index after the last byte of the name.
+	 * @return	The ID of the candidate.
+	 */
+	public int intern(ByteBuffer bytes, int start, int end){
+		int hash = 0;
+
+		for(int i = start; i < end; i++){
+			byte b = bytes.get(i);
+
+			if(b < 0)	//Not ASCII, so bytes and chars do not line up.
+				return intern(decode(bytes, start, end));
+
+			hash = 31 * hash + b;	//Same as String.hashCode() for ASCII.
+		}
+
+		int mask = table.length - 1;
+
+		for(int slot = hash & mask; ; slot = (slot + 1) & mask){
+			int id = table[slot] - 1;
+
+			if(id == -1)
+				return add(decode(bytes, start, end), hash, slot);
+
+			if(hashes[id] == hash && matches(names.get(id), bytes, start, end))
+				return id;
+		}
+	}
+
+	/**
+	 * Returns the ID of the candidate whose name is the characters from 
+	 * <code>start</code> (inclusive) to <code>end</code> (exclusive), giving 
+	 * them the next free ID if they are not yet in the dictionary. A string is
+	 * only created for a name that is new.
+	 *
+	 * @param chars	The characters holding the name.
+	 * @param start	The index of the first character of the name.
+	 * @param end	The index after the last character of the name.
+	 * @return	The ID of the candidate.
+	 */
+	public int intern(CharSequence chars, int start, int end){
+		int hash = 0;
+
+		for(int i = start; i < end; i++)
+			hash = 31 * hash + chars.charAt(i);	//Same as String.hashCode().
+
+		int mask = table.length - 1;
+
+		for(int slot = hash & mask; ; slot = (slot + 1) & mask){
+			int id = table[slot] - 1;
+
+			if(id == -1)
+				return add(chars.subSequence(start, end).toString(), hash, slot);
+
+			if(hashes[id] == hash && matches(names.get(id), chars, start, end))
+				return id;
+		}
+	}
+
+	/**
+	 * Returns the ID of the candidate whose name equals the string passed in
+	 * the argument.
+	 *
+	 * @param candidate	The name of the candidate.
+	 * @return	The ID of the candidate if they are in the dictionary, else -1.
+	 */
+	public int getId(String candidate){
+		return table[find(candidate, candidate.hashCode())] - 1;
+	}
+
+	/**
+	 * Returns the name of the candidate with the specified ID.
+	 *
+	 * @param id	The ID of the candidate.
+	 * @return	The name of the candidate.
+	 * @throws IndexOutOfBoundsException if no candidate has that ID.
+	 */
+	public String getName(int id){
+		return names.get(id);
+	}
+
+	/**
+	 * Returns the number of candidates in the dictionary. Every ID is less
+	 * than this number.
+	 *
+	 * @return The number of candidates.
+	 */
+	public int size(){
+		return names.size();
+	}
+
+	/**
+	 * Returns the candidates' names as an array where the index is their ID.
+	 *
+	 * @return The candidates' names.
+	 */
+	public String[] toArray(){
+		return names.toArray(new String[names.size()]);
+	}
+
+	/**
+	 * Returns the slot of the table that holds the name, or the empty slot 
+	 * where it would be added.
+	 */
+	private int find(String candidate, int hash){
+		int mask = table.length - 1;
+		int slot = hash & mask;
+
+		while(table[slot] != 0){
+			int id = table[slot] - 1;
+
+			if(hashes[id] == hash && names.get(id).equals(candidate))
+				break;
+
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	/**
+	 * Gives the name the next ID and puts it in the empty slot.
+	 */
+	private int add(String candidate, int hash, int slot){
+		int id = names.size();
+
+		names.add(candidate);
+
+		if(id == hashes.length)
+			hashes = Arrays.copyOf(hashes, id * 2);
+
+		hashes[id] = hash;
+		table[slot] = id + 1;
+
+		if(names.size() * 2 > table.length)	//Keeps the table half empty.
+			rehash();
+
+		return id;
+	}
+
+	/**
+	 * Doubles the size of the table and puts each ID back into it.
+	 */
+	private void rehash(){
+		table = new int[table.length * 2];
+		int mask = table.length - 1;
+
+		for(int id = 0; id < names.size(); id++){
+			int slot = hashes[id] & mask;
+
+			while(table[slot] != 0)
+				slot = (slot + 1) & mask;
+
+			table[slot] = id + 1;
+		}
+	}
+
+	/**
+	 * Checks if the ASCII bytes spell the name.
+	 */
+	private static boolean matches(String name, ByteBuffer bytes, int start, 
+			int end){
+		if(name.length() != end - start)
+			return false;
+
+		for(int i = 0; i < name.length(); i++){
+			if(name.charAt(i) != bytes.get(start + i))
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks if the characters spell the name.
+	 */
+	private static boolean matches(String name, CharSequence chars, int start,
+			int end){
+		if(name.length() != end - start)
+			return false;
+
+		for(int i = 0; i < name.length(); i++){
+			if(name.charAt(i) != chars.charAt(start + i))
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Decodes the bytes as a UTF-8 string.
+	 */
+	private static String decode(ByteBuffer bytes, int start, int end){
+		byte[] copy = new byte[end - start];
+
+		for(int i = start; i < end; i++)
+			copy[i - start] = bytes.get(i);
+
+		return new String(copy, UTF_8);
+	}
+} //end CandidateDictionary
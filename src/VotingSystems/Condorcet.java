@@ -1,7 +1,6 @@
 package VotingSystems;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 /**
  * 
@@ -28,13 +27,20 @@ import java.util.Map;
  * 					against all other candidates on each ballot. If a candidate 
  * 					is ranked above the other candidate	on a majority of ballots
  * 					in all comparisons, then that candidate wins.
+ * <p>
+ * The pairwise counts are kept in a flat matrix. The ballots are split across
+ * a <code>ForkJoinPool</code> where each part is counted into its own matrix 
+ * and the matrices are summed at the end.
  */
 public class Condorcet extends VotingSystem{
 
 	/**
-	 * Holds the votes of each candidate against each other candidate
+	 * Holds the votes of each candidate against each other candidate. The 
+	 * votes of the candidate with ID <i>a</i> against the candidate with ID 
+	 * <i>b</i> are at index <i>a</i> * <i>k</i> + <i>b</i>, where <i>k</i> is 
+	 * the number of candidates.
 	 */
-	private Map<String, Map<String, Integer>> candVotes;
+	protected long[] pairwise;
 	
 	/**
 	 * Does nothing
@@ -45,48 +51,53 @@ public class Condorcet extends VotingSystem{
 		super(ballots);
 	}
 
-	@Override
-	protected void initCandidates(Ballot[] ballots){
-		candVotes = new HashMap<String, Map<String, Integer>>();
+	public Condorcet(BallotBox ballots){
+		super(ballots);
+	}
 
-		for(Ballot ballot : ballots){
-			for(String cand : ballot.toArray()){
-				if(!candVotes.containsKey(cand))
-					candVotes.put(cand, new HashMap<String, Integer>());
-			}
-		}
+	public Condorcet(BallotBox ballots, int parallelism){
+		super(ballots, parallelism);
+	}
 
-		for(Map.Entry<String, Map<String, Integer>> outer : candVotes.entrySet()){
-			for(Map.Entry<String, Map<String, Integer>> inner : candVotes.entrySet()){
-				if(!outer.getKey().equals(inner.getKey())){
-					outer.getValue().put(inner.getKey(), 0);
-				}
-			}
-		}
+	public Condorcet(BallotBox ballots, int parallelism, 
+			ElectionMetrics metrics){
+		super(ballots, parallelism, metrics);
+	}
+
+	public Condorcet(CountableBallots ballots){
+		super(ballots);
+	}
+
+	public Condorcet(CountableBallots ballots, ElectionMetrics metrics){
+		super(ballots, metrics);
 	}
 
 	@Override
 	protected void setVotes() {
-		//for each ballot
-		for(Ballot ballot : voterBallots){
-			//and for each candidate
-			for(Map.Entry<String, Map<String, Integer>> outer : candVotes.entrySet()){
-				//against each candidate
-				for(Map.Entry<String, Integer> inner : outer.getValue().entrySet()){
-					int outerI = ballot.getIndex(outer.getKey()); //Outer index
-					int innerI = ballot.getIndex(inner.getKey());
-
-					if(innerI == -1){ //If the inner candidate is not ranked
-						if(outerI != -1){//but the outer one is,
-							//increment the votes of outer against inner.
-							inner.setValue(inner.getValue() + 1);
-						}
-					} else if(outerI < innerI){//Lower index --> higher preference
-						inner.setValue(inner.getValue() + 1);
-					}
-				}
-			}
+		if(countable != null){
+			pairwise = countable.getPairwise();
+			return;
 		}
+
+		int k = candidates.size();
+
+		PairwiseTask task = new PairwiseTask(voterBallots, 0, 
+				voterBallots.size(), k, 
+				TallyTask.grainFor(voterBallots.size(), parallelism));
+
+		pairwise = task.count(parallelism);
+	}
+
+	/**
+	 * Returns the votes of one candidate against another.
+	 * 
+	 * @param outer	The ID of the candidate whose votes are to be returned.
+	 * @param inner	The ID of the candidate they are compared against.
+	 * @return	The number of voters who rank <code>outer</code> above 
+	 * 			<code>inner</code>.
+	 */
+	public long getVotes(int outer, int inner){
+		return pairwise[outer * candidates.size() + inner];
 	}
 
 	/**
@@ -94,53 +105,44 @@ public class Condorcet extends VotingSystem{
 	 */
 	protected String getWinner(){
 		String winner = "";
-
-		Map<String, Boolean> isDefeated = new HashMap<String, Boolean>();
+		int k = candidates.size();
 
 		//Compares each candidate against each other candidate.
-		for(Map.Entry<String, Map<String, Integer>> outer : candVotes.entrySet()){
-			//against each candidate
-
-			isDefeated.put(outer.getKey(), false);
+		for(int outer = 0; outer < k; outer++){
+			boolean isDefeated = false;
 
-			for(Map.Entry<String, Integer> inner : outer.getValue().entrySet()){
-				if(inner.getValue() < voterBallots.size()/2 + 1){
-					isDefeated.put(outer.getKey(), true);
+			//against each candidate
+			for(int inner = 0; inner < k && !isDefeated; inner++){
+				if(inner != outer && 
+						pairwise[outer * k + inner] < numVoters/2 + 1){
+					isDefeated = true;
 				}
 			}
-		}
 
-		//Checks for an undefeated candidate.
-		for(Map.Entry<String, Boolean> entry : isDefeated.entrySet()){
-			if(entry.getValue() == false)
-				winner = entry.getKey();
+			if(!isDefeated)	//Checks for an undefeated candidate.
+				winner = candidates.getName(outer);
 		}
 
 		return winner;
 	}
 
+	/**
+	 * Returns the result with the pairwise votes, listing the candidates in 
+	 * order of ID.
+	 */
 	@Override
-	public String results() {
-		String table = String.format("%-18s", " ");
+	public ElectionResult getResult() {
+		int[] ids = new int[candidates.size()];
 
-		//Top row
-		for(Map.Entry<String, Map<String, Integer>> entry : candVotes.entrySet())
-			table += String.format("%-18s", entry.getKey());
+		for(int id = 0; id < ids.length; id++)
+			ids[id] = id;
 
+		ElectionResult result = new ElectionResult(getClass().getSimpleName(),
+				computeWinner(), candidates, numVoters, candVotes, ids);
 
-		for(Map.Entry<String, Map<String, Integer>> outer : candVotes.entrySet()){
-			table += String.format("\n%-18s", outer.getKey());
+		result.setPairwise(pairwise);
 
-			for(Map.Entry<String, Map<String, Integer>> inner : candVotes.entrySet()){
-				if(outer.getKey().equals(inner.getKey())){
-					table += String.format("%-18s", "-");
-				} else {
-					table += String.format("%-18d", outer.getValue().get(inner.getKey()));
-				}
-			}
-		}
-
-		return table;
+		return result;
 	}
 	
 	@Override
@@ -149,6 +151,50 @@ public class Condorcet extends VotingSystem{
 		return false;
 	}
 
+	/**
+	 * Counts part of the ballots into a pairwise matrix.
+	 */
+	private static class PairwiseTask extends TallyTask {
+
+		private static final long serialVersionUID = 1L;
 
+		/**
+		 * The number of candidates.
+		 */
+		private final int k;
+
+		PairwiseTask(List<WeightedBallot> ballots, int from, int to, int k,
+				int grain){
+			super(ballots, from, to, k * k, grain);
+			this.k = k;
+		}
+
+		/**
+		 * Adds the weight of the ballot to the votes of each ranked candidate
+		 * against every candidate ranked below them or not ranked at all.
+		 */
+		@Override
+		protected void accumulate(WeightedBallot weighted, long[] matrix){
+			Ballot ballot = weighted.getBallot();
+			long weight = weighted.getWeight();
+
+			for(int i = 0; i < ballot.getBallotLength(); i++){
+				int row = ballot.getCandidateId(i) * k;
+
+				for(int inner = 0; inner < k; inner++){
+					int innerI = ballot.getIndex(inner);
+
+					//Lower index --> higher preference
+					if(innerI == -1 || innerI > i)
+						matrix[row + inner] += weight;
+				}
+			}
+		}
+
+		@Override
+		protected TallyTask subtask(int from, int to){
+			return new PairwiseTask(ballots, from, to, k, grain);
+		}
+	}
 
-}//End Condorcet
\ No newline at end of file
+}//End Condorcet
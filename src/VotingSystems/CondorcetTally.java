@@ -0,0 +1,127 @@
+package VotingSystems;
+
+import java.util.Arrays;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Condorcet Tally</b>
+ * <p>
+ * <b>Purpose:</b> To hold the pairwise counts of part of an election so that
+ * 			the parts can be merged and counted by the Condorcet method.
+ * <p>
+ * <b>Input:</b>	The ballots of one part of the election, or two tallies.
+ * <p>
+ * <b>Output:</b>	The same winner as <code>Condorcet</code> would give for
+ * 			all of the ballots.
+ * <p>
+ * A part may not know every candidate, and a candidate who is ranked beats 
+ * one who is not. So the tally keeps the weight of the ballots that rank each
+ * candidate and the weight of the ballots that rank one candidate above 
+ * another where both are ranked, and compares them as
+ * <code>ElectionCounts</code> does.
+ */
+public class CondorcetTally extends PartialTally<CondorcetTally> {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Holds the weight of the ballots that rank each candidate.
+	 */
+	private final long[] ranked;
+
+	/**
+	 * Holds the weight of the ballots that rank candidate <i>a</i> above 
+	 * candidate <i>b</i> at index <i>a</i> * <i>k</i> + <i>b</i>, where 
+	 * <i>k</i> is the number of candidates.
+	 */
+	private final long[] above;
+
+	/**
+	 * Counts the pairwise preferences of the ballots.
+	 * 
+	 * @param ballots	The ballots of one part of the election.
+	 */
+	public CondorcetTally(BallotBox ballots){
+		this(ballots.getCandidates().toArray(), ballots.getTotalWeight(),
+				new long[ballots.getCandidates().size()], 
+				new long[ballots.getCandidates().size() * 
+				         ballots.getCandidates().size()]);
+
+		int k = candidates.length;
+
+		for(WeightedBallot weighted : ballots){
+			Ballot ballot = weighted.getBallot();
+			long weight = weighted.getWeight();
+			int n = ballot.getBallotLength();
+
+			for(int i = 0; i < n; i++){
+				int row = ballot.getCandidateId(i) * k;
+
+				ranked[ballot.getCandidateId(i)] += weight;
+
+				for(int j = i + 1; j < n; j++)
+					above[row + ballot.getCandidateId(j)] += weight;
+			}
+		}
+	}
+
+	private CondorcetTally(String[] candidates, long numVoters, long[] ranked,
+			long[] above){
+		super(candidates, numVoters);
+		this.ranked = ranked;
+		this.above = above;
+	}
+
+	@Override
+	public CondorcetTally merge(CondorcetTally other){
+		CandidateDictionary merged = union(other);
+		int[] ids = translate(other, merged);
+		int k = candidates.length, otherK = other.candidates.length;
+		int size = merged.size();
+
+		long[] sumRanked = Arrays.copyOf(ranked, size);
+		long[] sumAbove = new long[size * size];
+
+		for(int a = 0; a < k; a++)
+			System.arraycopy(above, a * k, sumAbove, a * size, k);
+
+		for(int a = 0; a < otherK; a++){
+			int row = ids[a] * size;
+
+			sumRanked[ids[a]] += other.ranked[a];
+
+			for(int b = 0; b < otherK; b++)
+				sumAbove[row + ids[b]] += other.above[a * otherK + b];
+		}
+
+		return new CondorcetTally(merged.toArray(), 
+				numVoters + other.numVoters, sumRanked, sumAbove);
+	}
+
+	/**
+	 * Returns the candidate who beats every other candidate on a majority of
+	 * ballots, or "Tie" if there is none.
+	 */
+	@Override
+	public String computeWinner(){
+		int winner = ElectionCounts.condorcetWinner(candidates.length, ranked,
+				above, numVoters);
+
+		return winner == -1 ? "Tie" : candidates[winner];
+	}
+
+	/**
+	 * Returns the votes of one candidate against another, which are the same 
+	 * as those of <code>Condorcet</code> for the same ballots.
+	 * 
+	 * @param a	The ID of the candidate whose votes are to be returned.
+	 * @param b	The ID of the candidate they are compared against.
+	 * @return	The number of voters who rank <code>a</code> above 
+	 * 			<code>b</code> or rank <code>a</code> but not <code>b</code>.
+	 */
+	public long getPairwiseVotes(int a, int b){
+		return ElectionCounts.pairwiseVotes(ranked, above, a, b);
+	}
+} //end CondorcetTally
@@ -0,0 +1,77 @@
+package VotingSystems;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Countable Ballots</b>
+ * <p>
+ * <b>Purpose:</b> To let a voting system take its counts straight from the
+ * 			place the ballots are kept, such as a <code>BallotTrie</code>, a
+ * 			mapped ballot file, or an <code>OffHeapBallotStore</code>, instead
+ * 			of from a <code>Ballot</code> per distinct ranking in a
+ * 			<code>BallotBox</code>.
+ * <p>
+ * <b>Input:</b>	None.
+ * <p>
+ * <b>Output:</b>	The counts the voting systems are built from, all with the
+ * 			IDs of <code>getCandidates()</code> as the index:
+ * <li>The first place votes, for <code>Plurality</code>.
+ * <li>The points of a score vector, for <code>PositionalScoring</code>.
+ * <li>The pairwise votes, for <code>Condorcet</code> and its subclasses.
+ * <li>An engine that counts an instant runoff, for
+ * 				<code>InstantRunoff</code>.
+ * <p>
+ * A candidate ranked more than once on a ballot is only counted at their
+ * highest rank, as by a <code>BallotSink</code>.
+ */
+public interface CountableBallots {
+
+	/**
+	 * Returns the dictionary the IDs of the ballots are taken from.
+	 *
+	 * @return The dictionary of the election.
+	 */
+	CandidateDictionary getCandidates();
+
+	/**
+	 * Returns the number of voters, which is the sum of the weights.
+	 *
+	 * @return The number of voters.
+	 */
+	long getTotalWeight();
+
+	/**
+	 * Returns the first place votes of each candidate.
+	 *
+	 * @return The votes with the candidates' IDs as the index.
+	 */
+	long[] getFirstChoices();
+
+	/**
+	 * Returns the points of each candidate by a positional scoring system.
+	 *
+	 * @param points	The points of each position, starting with the first.
+	 * 					Positions past its end get no points.
+	 * @return The points with the candidates' IDs as the index.
+	 */
+	long[] getScores(long[] points);
+
+	/**
+	 * Returns the votes of each candidate against each other candidate,
+	 * which are the same as those of <code>Condorcet</code> for the same
+	 * ballots.
+	 *
+	 * @return The votes of candidate <i>a</i> against candidate <i>b</i> at
+	 * index <i>a</i> * <i>k</i> + <i>b</i>.
+	 */
+	long[] getPairwise();
+
+	/**
+	 * Returns an engine that counts an instant runoff of the ballots. The
+	 * ballots are not changed.
+	 *
+	 * @return The engine, with the first round counted.
+	 */
+	RunoffEngine runoff();
+}
@@ -0,0 +1,104 @@
+package VotingSystems;
+
+import java.io.IOException;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>CSV Renderer</b>
+ * <p>
+ * <b>Purpose:</b> To write a result as comma separated values, one record per
+ * 			line, with a header record first.
+ * <p>
+ * <b>Output:</b>	One of the following:
+ * <li>For pairwise votes, a header with an empty field followed by each 
+ * 				candidate, then a record for each candidate with their votes 
+ * 				against each candidate and an empty field against themselves.
+ * <li>For rounds, a header <code>candidate,round 1,round 2,...</code>, then 
+ * 				a record for each candidate.
+ * <li>Otherwise, a header <code>candidate,votes</code>, then a record for 
+ * 				each candidate.
+ * <p>
+ * Names that hold a comma, quote or line break are quoted as in RFC 4180.
+ */
+public class CsvRenderer extends ResultRenderer {
+
+	@Override
+	public void render(ElectionResult result, Appendable out) 
+			throws IOException {
+		int k = result.getNumCandidates();
+
+		//Header
+		if(result.hasPairwise()){
+			for(int place = 0; place < k; place++){
+				out.append(',');
+				appendName(result.getName(result.getCandidate(place)), out);
+			}
+		} else if(result.hasRounds()){
+			out.append("candidate");
+
+			for(int round = 0; round < result.getNumRounds(); round++){
+				out.append(",round ");
+				append(out, round + 1);
+			}
+		} else {
+			out.append("candidate,votes");
+		}
+
+		out.append("\r\n");
+
+		for(int place = 0; place < k; place++){
+			int id = result.getCandidate(place);
+
+			appendName(result.getName(id), out);
+
+			if(result.hasPairwise()){
+				for(int innerPlace = 0; innerPlace < k; innerPlace++){
+					int inner = result.getCandidate(innerPlace);
+
+					out.append(',');
+
+					if(inner != id)
+						append(out, result.getPairwise(id, inner));
+				}
+			} else if(result.hasRounds()){
+				for(int round = 0; round < result.getNumRounds(); round++){
+					out.append(',');
+					append(out, result.getRoundVotes(round, id));
+				}
+			} else {
+				out.append(',');
+				append(out, result.getVotes(id));
+			}
+
+			out.append("\r\n");
+		}
+	}
+
+	private static void appendName(String name, Appendable out) 
+			throws IOException {
+		boolean quoted = false;
+
+		for(int i = 0; i < name.length() && !quoted; i++){
+			char c = name.charAt(i);
+			quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+		}
+
+		if(!quoted){
+			out.append(name);
+			return;
+		}
+
+		out.append('"');
+
+		for(int i = 0; i < name.length(); i++){
+			if(name.charAt(i) == '"')	//Quotes are doubled.
+				out.append('"');
+
+			out.append(name.charAt(i));
+		}
+
+		out.append('"');
+	}
+} //end CsvRenderer
@@ -0,0 +1,310 @@
+package VotingSystems;
+
+import java.util.Arrays;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Election Counts</b>
+ * <p>
+ * <b>Purpose:</b> To hold the counts that give the plurality, Borda and
+ * 			Condorcet winners together, so that they can be kept by one pass
+ * 			over the ballots, as by <code>ElectionEvaluator</code>, or kept up
+ * 			to date as ballots are added and removed, as by
+ * 			<code>LiveElection</code>.
+ * <p>
+ * <b>Input:</b>	Ballots with a weight, which is negative for a removal.
+ * <p>
+ * <b>Output:</b>	The votes of each method, and the winner by each. The first
+ * 			place votes also decide an instant runoff whose first round gives
+ * 			a candidate a majority.
+ * <p>
+ * <b>Algorithm:</b>	Each ballot of length <i>n</i> updates the following in
+ * 			O(<i>n</i><sup>2</sup>) time:
+ * <li>The first place votes of each candidate.
+ * <li>The weight of the ballots that rank each candidate and the sum of their
+ * 				positions on those ballots. With <i>k</i> candidates the Borda
+ * 				score is <i>k</i> times the first minus the second, so a new
+ * 				candidate does not change the counts of the others.
+ * <li>The weight of the ballots that rank one candidate above another where
+ * 				both are ranked. Candidate <i>a</i> beats <i>b</i> on every
+ * 				ballot that ranks <i>a</i> except those ranking <i>b</i> above
+ * 				<i>a</i>, which gives the Condorcet pairwise counts.
+ */
+class ElectionCounts {
+
+	private final CandidateDictionary candidates;
+
+	/**
+	 * Holds the first place votes of each candidate with their ID as the
+	 * index.
+	 */
+	private long[] firstPlaces;
+
+	/**
+	 * Holds the weight of the ballots that rank each candidate.
+	 */
+	private long[] ranked;
+
+	/**
+	 * Holds the sum of each candidate's position, weighted, on the ballots
+	 * that rank them.
+	 */
+	private long[] positions;
+
+	/**
+	 * Holds the weight of the ballots that rank candidate <i>a</i> above
+	 * candidate <i>b</i> at index <i>a</i> * <code>capacity</code> + <i>b</i>.
+	 */
+	private long[] above;
+
+	/**
+	 * The number of candidates the arrays have room for.
+	 */
+	private int capacity;
+
+	/**
+	 * Setups counts with no ballots for the candidates of the dictionary.
+	 *
+	 * @param candidates	The dictionary of the election.
+	 */
+	ElectionCounts(CandidateDictionary candidates){
+		this.candidates = candidates;
+
+		capacity = Math.max(4, candidates.size());
+		firstPlaces = new long[capacity];
+		ranked = new long[capacity];
+		positions = new long[capacity];
+		above = new long[capacity * capacity];
+	}
+
+	/**
+	 * Adds the weight, which is negative for a removal, to the counts of the
+	 * candidates on the ballot.
+	 *
+	 * @param ballot	A ballot whose IDs are from the dictionary.
+	 * @param weight	The number of voters who cast or withdrew the ballot.
+	 */
+	void add(Ballot ballot, long weight){
+		if(candidates.size() > capacity)
+			grow(candidates.size());
+
+		int n = ballot.getBallotLength();
+
+		if(n > 0)
+			firstPlaces[ballot.getCandidateId(0)] += weight;
+
+		for(int i = 0; i < n; i++){
+			int a = ballot.getCandidateId(i);
+			int row = a * capacity;
+
+			ranked[a] += weight;
+			positions[a] += (i + 1) * weight;
+
+			for(int j = i + 1; j < n; j++)
+				above[row + ballot.getCandidateId(j)] += weight;
+		}
+	}
+
+	/**
+	 * Sets every count back to 0.
+	 */
+	void clear(){
+		Arrays.fill(firstPlaces, 0);
+		Arrays.fill(ranked, 0);
+		Arrays.fill(positions, 0);
+		Arrays.fill(above, 0);
+	}
+
+	/**
+	 * Makes room in the arrays for at least the specified number of
+	 * candidates.
+	 */
+	private void grow(int size){
+		int newCapacity = Math.max(size, capacity * 2);
+		long[] newAbove = new long[newCapacity * newCapacity];
+
+		for(int a = 0; a < capacity; a++)
+			System.arraycopy(above, a * capacity, newAbove, a * newCapacity,
+					capacity);
+
+		firstPlaces = Arrays.copyOf(firstPlaces, newCapacity);
+		ranked = Arrays.copyOf(ranked, newCapacity);
+		positions = Arrays.copyOf(positions, newCapacity);
+		above = newAbove;
+		capacity = newCapacity;
+	}
+
+	/**
+	 * Returns the first place votes of each candidate.
+	 *
+	 * @return The votes with the candidates' IDs as the index.
+	 */
+	long[] getPluralityVotes(){
+		return Arrays.copyOf(firstPlaces, candidates.size());	//Pads with 0.
+	}
+
+	/**
+	 * Returns the Borda score of each candidate, which is the same as the
+	 * votes of <code>Borda</code> for the same ballots. The arrays only grow
+	 * as ballots are counted, so a candidate past their end is on no ballot
+	 * and scores 0.
+	 *
+	 * @return The scores with the candidates' IDs as the index.
+	 */
+	long[] getBordaScores(){
+		return bordaScores(candidates.size(), ranked, positions);
+	}
+
+	/**
+	 * Returns the votes of one candidate against another, which are the same
+	 * as those of <code>Condorcet</code> for the same ballots.
+	 *
+	 * @param a	The ID of the candidate whose votes are to be returned.
+	 * @param b	The ID of the candidate they are compared against.
+	 * @return	The number of voters who rank <code>a</code> above
+	 * 			<code>b</code> or rank <code>a</code> but not <code>b</code>.
+	 */
+	long getPairwiseVotes(int a, int b){
+		return pairwiseVotes(ranked, above, a, b);
+	}
+
+	/**
+	 * Returns the candidate who beats every other candidate with a majority
+	 * of the voters.
+	 *
+	 * @param numVoters	The number of voters.
+	 * @return The name of the winner, or "Tie" if there is none.
+	 */
+	String getCondorcetWinner(long numVoters){
+		int winner = condorcetWinner(candidates.size(), ranked, above,
+				numVoters);
+
+		return winner == -1 ? "Tie" : candidates.getName(winner);
+	}
+
+	/**
+	 * Returns the winner of an instant runoff if it ends in its first round,
+	 * which is when a candidate has a majority of the first place votes and
+	 * there are at least two candidates.
+	 *
+	 * @param numVoters	The number of voters.
+	 * @return The name of the winner, or null if the runoff must be counted.
+	 */
+	String getFirstRoundWinner(long numVoters){
+		int k = candidates.size();
+
+		for(int id = 0; id < Math.min(k, capacity) && k >= 2; id++){
+			if(firstPlaces[id] > numVoters/2)
+				return candidates.getName(id);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the name of the candidate with the most votes, or "Tie" if no
+	 * candidate has more votes than all of the others.
+	 *
+	 * @param votes	The votes with the candidates' IDs as the index.
+	 * @return The name of the leader, or "Tie".
+	 */
+	String leader(long[] votes){
+		int leader = leaderId(votes);
+
+		return leader == -1 ? "Tie" : candidates.getName(leader);
+	}
+
+	/**
+	 * Returns the Borda score of each of <code>k</code> candidates from the
+	 * weight of the ballots that rank them and the sum of their positions.
+	 * A candidate past the end of the arrays is on no ballot and scores 0.
+	 *
+	 * @param k			The number of candidates in the election.
+	 * @param ranked	The weight of the ballots that rank each candidate.
+	 * @param positions	The weighted sum of each candidate's positions.
+	 * @return The scores with the candidates' IDs as the index.
+	 */
+	static long[] bordaScores(int k, long[] ranked, long[] positions){
+		long[] scores = new long[k];
+
+		for(int id = 0; id < Math.min(k, ranked.length); id++)
+			scores[id] = k * ranked[id] - positions[id];
+
+		return scores;
+	}
+
+	/**
+	 * Returns the votes of one candidate against another from the weight of
+	 * the ballots that rank each candidate and the weight of those that rank
+	 * one above another. Candidates past the end of <code>ranked</code> are
+	 * on no ballot.
+	 *
+	 * @param ranked	The weight of the ballots that rank each candidate,
+	 * 					whose length is the row length of <code>above</code>.
+	 * @param above		The weight of the ballots that rank <i>a</i> above
+	 * 					<i>b</i> at index <i>a</i> * <code>ranked.length</code>
+	 * 					+ <i>b</i>.
+	 * @param a	The ID of the candidate whose votes are to be returned.
+	 * @param b	The ID of the candidate they are compared against.
+	 * @return	The number of voters who rank <code>a</code> above
+	 * 			<code>b</code> or rank <code>a</code> but not <code>b</code>.
+	 */
+	static long pairwiseVotes(long[] ranked, long[] above, int a, int b){
+		int capacity = ranked.length;
+
+		if(a >= capacity || b >= capacity)
+			return a < capacity ? ranked[a] : 0;
+
+		return ranked[a] - above[b * capacity + a];
+	}
+
+	/**
+	 * Returns the ID of the candidate who beats every other of the
+	 * <code>k</code> candidates with a majority of the voters, by the counts
+	 * of <code>pairwiseVotes()</code>.
+	 *
+	 * @return The ID of the winner, or -1 if there is none.
+	 */
+	static int condorcetWinner(int k, long[] ranked, long[] above,
+			long numVoters){
+		for(int a = 0; a < k; a++){
+			boolean isDefeated = false;
+
+			for(int b = 0; b < k && !isDefeated; b++){
+				if(b != a &&
+						pairwiseVotes(ranked, above, a, b) < numVoters/2 + 1)
+					isDefeated = true;
+			}
+
+			if(!isDefeated)
+				return a;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns the ID of the candidate with the most votes.
+	 *
+	 * @param votes	The votes with the candidates' IDs as the index.
+	 * @return The ID of the leader, or -1 if no candidate has more votes than
+	 * all of the others.
+	 */
+	static int leaderId(long[] votes){
+		int leader = -1;
+		boolean tied = false;
+
+		for(int id = 0; id < votes.length; id++){
+			if(leader == -1 || votes[id] > votes[leader]){
+				leader = id;
+				tied = false;
+			} else if(votes[id] == votes[leader]){
+				tied = true;
+			}
+		}
+
+		return tied ? -1 : leader;
+	}
+} //end ElectionCounts
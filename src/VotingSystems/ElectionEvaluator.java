@@ -0,0 +1,230 @@
+package VotingSystems;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Election Evaluator</b>
+ * <p>
+ * <b>Purpose:</b> To find the winner by every <code>VotingMethod</code> from
+ * 			one read of the ballots, rather than building each voting system
+ * 			from the ballots in turn.
+ * <p>
+ * <b>Input:</b>	Ballots as arrays of candidate IDs through
+ * 			<code>BallotSink</code>, such as from a <code>BallotFileReader
+ * 			</code>, or a <code>BallotBox</code> that has already been read.
+ * <p>
+ * <b>Output:</b>	The winner by each method, and the counts behind them.
+ * <p>
+ * <b>Algorithm:</b>	The ballots are kept in a <code>BallotBox</code>, which
+ * 			holds each distinct ranking once with the number of voters who
+ * 			cast it. When a winner is first asked for, one pass over the
+ * 			distinct rankings fills the <code>ElectionCounts</code> that give
+ * 			the plurality, Borda and Condorcet winners, as kept by
+ * 			<code>LiveElection</code>, and puts each ranking in the bucket of
+ * 			its first choice in a <code>RunoffEngine</code>. The rounds of
+ * 			the instant runoff are then counted from those buckets without
+ * 			reading the rankings again. The counts are kept until more 
+ * 			ballots are added.
+ */
+public class ElectionEvaluator implements BallotSink {
+
+	private final BallotBox ballots;
+
+	/**
+	 * Receives the time of each count and the counters of the runoff.
+	 */
+	private final ElectionMetrics metrics;
+
+	/**
+	 * The number of candidates when the counts were made.
+	 */
+	private int k;
+
+	/**
+	 * Holds the counts of the distinct rankings.
+	 */
+	private final ElectionCounts counts;
+
+	/**
+	 * Holds the winner by each method with its ordinal as the index, or null
+	 * if the ballots have changed since they were counted.
+	 */
+	private String[] winners;
+
+	/**
+	 * Default constructor which instantiates an evaluator with no ballots.
+	 */
+	public ElectionEvaluator(){
+		this(new BallotBox());
+	}
+
+	/**
+	 * Instantiates an evaluator with no ballots whose IDs are taken from the
+	 * dictionary.
+	 *
+	 * @param candidates	The dictionary of the election.
+	 */
+	public ElectionEvaluator(CandidateDictionary candidates){
+		this(new BallotBox(candidates));
+	}
+
+	/**
+	 * Instantiates an evaluator of the ballots in the box. Ballots added to
+	 * the evaluator are added to the box, which must not be changed in any
+	 * other way while it is being evaluated.
+	 *
+	 * @param ballots	The ballots of the election.
+	 */
+	public ElectionEvaluator(BallotBox ballots){
+		this(ballots, ElectionMetrics.NONE);
+	}
+
+	/**
+	 * Instantiates an evaluator of the ballots in the box that reports the
+	 * time of each count to the metrics.
+	 *
+	 * @param ballots	The ballots of the election.
+	 * @param metrics	The metrics of the counts, or null for none.
+	 */
+	public ElectionEvaluator(BallotBox ballots, ElectionMetrics metrics){
+		this.ballots = ballots;
+		this.metrics = metrics == null ? ElectionMetrics.NONE : metrics;
+		counts = new ElectionCounts(ballots.getCandidates());
+	}
+
+	@Override
+	public void add(int[] ids, int length, long weight){
+		ballots.add(ids, length, weight);
+		winners = null;
+	}
+
+	/**
+	 * Counts the distinct rankings in one pass and finds every winner.
+	 */
+	private void evaluate(){
+		if(winners != null && k == ballots.getCandidates().size())
+			return;
+
+		long start = System.nanoTime();
+
+		k = ballots.getCandidates().size();
+		counts.clear();
+
+		RunoffEngine runoff = new RunoffEngine(ballots.size(), k);
+
+		for(WeightedBallot weighted : ballots){
+			counts.add(weighted.getBallot(), weighted.getWeight());
+			runoff.add(weighted);
+		}
+
+		runoff.recordFirstRound();
+
+		metrics.time(ElectionMetrics.Phase.COUNT, System.nanoTime() - start);
+
+		winners = new String[VotingMethod.values().length];
+		winners[VotingMethod.PLURALITY.ordinal()] =
+				counts.leader(counts.getPluralityVotes());
+		winners[VotingMethod.BORDA.ordinal()] =
+				counts.leader(counts.getBordaScores());
+		winners[VotingMethod.CONDORCET.ordinal()] =
+				counts.getCondorcetWinner(ballots.getTotalWeight());
+		winners[VotingMethod.INSTANT_RUNOFF.ordinal()] =
+				InstantRunoff.count(ballots, runoff, metrics).computeWinner();
+	}
+
+	/**
+	 * Computes and returns the name of the winning candidate by the method.
+	 * The first call after ballots are added counts the winners of every
+	 * method, and later calls return them.
+	 *
+	 * @param method	The voting method.
+	 * @return If a winner exists, the name of the winning candidate; otherwise,
+	 * the string "Tie".
+	 */
+	public String computeWinner(VotingMethod method){
+		evaluate();
+
+		return winners[method.ordinal()];
+	}
+
+	/**
+	 * Returns the winner by each method, one per line, in the order of
+	 * <code>VotingMethod</code>.
+	 *
+	 * @return The winners.
+	 */
+	public String results(){
+		StringBuilder results = new StringBuilder();
+
+		for(VotingMethod method : VotingMethod.values()){
+			results.append(method).append(": ")
+					.append(computeWinner(method)).append('\n');
+		}
+
+		return results.toString();
+	}
+
+	/**
+	 * Returns the first place votes of each candidate.
+	 *
+	 * @return The votes with the candidates' IDs as the index.
+	 */
+	public long[] getPluralityVotes(){
+		evaluate();
+
+		return counts.getPluralityVotes();
+	}
+
+	/**
+	 * Returns the Borda score of each candidate, which is the same as the
+	 * votes of <code>Borda</code> for the same ballots.
+	 *
+	 * @return The scores with the candidates' IDs as the index.
+	 */
+	public long[] getBordaScores(){
+		evaluate();
+
+		return counts.getBordaScores();
+	}
+
+	/**
+	 * Returns the votes of one candidate against another, which are the same
+	 * as those of <code>Condorcet</code> for the same ballots.
+	 *
+	 * @param a	The ID of the candidate whose votes are to be returned.
+	 * @param b	The ID of the candidate they are compared against.
+	 * @return	The number of voters who rank <code>a</code> above
+	 * 			<code>b</code> or rank <code>a</code> but not <code>b</code>.
+	 */
+	public long getPairwiseVotes(int a, int b){
+		evaluate();
+
+		return counts.getPairwiseVotes(a, b);
+	}
+
+	/**
+	 * Returns the number of voters, which is the sum of the weights of the
+	 * ballots.
+	 *
+	 * @return The number of voters.
+	 */
+	public long getNumVoters(){
+		return ballots.getTotalWeight();
+	}
+
+	/**
+	 * Returns the ballots of the election, which may be given to any voting
+	 * system for a fuller count.
+	 *
+	 * @return The distinct rankings with their weights.
+	 */
+	public BallotBox getBallots(){
+		return ballots;
+	}
+
+	@Override
+	public CandidateDictionary getCandidates(){
+		return ballots.getCandidates();
+	}
+} //end ElectionEvaluator
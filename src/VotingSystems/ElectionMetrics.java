@@ -0,0 +1,122 @@
+package VotingSystems;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Election Metrics</b>
+ * <p>
+ * <b>Purpose:</b> To receive the time taken by each phase of a count and the
+ * 			counters of what was counted, so that slow counts can be noticed.
+ * 			The voting systems, the file readers and 
+ * 			<code>ElectionEvaluator</code> report to the instance given to 
+ * 			their constructors, and to <code>NONE</code> if none is given, so
+ * 			counts in different threads need not share one.
+ * <p>
+ * <b>Input:</b>	The phase and the nanoseconds it took, or a counter and the
+ * 			amount to add to it. Each phase reports once, not once per ballot,
+ * 			so the metrics cost nothing on the hot paths.
+ * <p>
+ * <b>Output:</b>	Whatever the implementation records. 
+ * 			<code>MetricsRecorder</code> keeps totals in memory.
+ * <p>
+ * Implementations may be called from several threads at once.
+ */
+public interface ElectionMetrics {
+
+	/**
+	 * The phases of a count.
+	 */
+	enum Phase {
+		/**
+		 * Reading ballots from the console, a text file or a binary file.
+		 */
+		PARSE,
+
+		/**
+		 * Gathering the ballots of a ballot box for a voting system.
+		 */
+		INIT_BALLOTS,
+
+		/**
+		 * Counting the votes of a voting system, including every round of 
+		 * instant runoff voting.
+		 */
+		COUNT,
+
+		/**
+		 * The part of <code>COUNT</code> spent on the rounds of instant 
+		 * runoff voting after the first.
+		 */
+		ROUNDS,
+
+		/**
+		 * Writing the results of a voting system.
+		 */
+		RESULTS
+	}
+
+	/**
+	 * The counters of a count.
+	 */
+	enum Counter {
+		/**
+		 * The ballots read, where a line or record with a weight is one.
+		 */
+		BALLOTS,
+
+		/**
+		 * The distinct rankings counted by a voting system.
+		 */
+		DISTINCT_RANKINGS,
+
+		/**
+		 * The rounds of instant runoff voting, including the first.
+		 */
+		ROUNDS,
+
+		/**
+		 * The votes moved from an eliminated candidate to another.
+		 */
+		TRANSFERS,
+
+		/**
+		 * The votes of ballots that rank no remaining candidate at the end of
+		 * a runoff.
+		 */
+		EXHAUSTED,
+
+		/**
+		 * The lines skipped because they were malformed, such as by an empty
+		 * candidate or mixed separators.
+		 */
+		MALFORMED
+	}
+
+	/**
+	 * Metrics that are thrown away.
+	 */
+	ElectionMetrics NONE = new ElectionMetrics(){
+		@Override
+		public void time(Phase phase, long nanos){}
+
+		@Override
+		public void count(Counter counter, long amount){}
+	};
+
+	/**
+	 * Records that a phase took the specified time.
+	 * 
+	 * @param phase	The phase.
+	 * @param nanos	The time the phase took in nanoseconds.
+	 */
+	void time(Phase phase, long nanos);
+
+	/**
+	 * Adds the amount to a counter.
+	 * 
+	 * @param counter	The counter.
+	 * @param amount	The amount to be added.
+	 */
+	void count(Counter counter, long amount);
+} //end ElectionMetrics
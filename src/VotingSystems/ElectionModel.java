@@ -0,0 +1,208 @@
+package VotingSystems;
+
+import java.util.Random;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Election Model</b>
+ * <p>
+ * <b>Purpose:</b> To generate random ballots for testing and comparing the 
+ * 			voting systems. Each model is a probability distribution over the 
+ * 			rankings of <i>k</i> candidates.
+ * <p>
+ * <b>Input:</b>	The number of candidates, the parameters of the model, and a
+ * 			source of random numbers.
+ * <p>
+ * <b>Output:</b>	Rankings as arrays of candidate IDs from 0 to <i>k</i> - 1, 
+ * 			or whole elections as a <code>BallotBox</code>.
+ * <p>
+ * <b>Models:</b>
+ * <li>Impartial culture: every ranking is equally likely.
+ * <li>Mallows: rankings close to a reference ranking (0, 1, ..., <i>k</i> - 1)
+ * 				are more likely. A ranking <i>d</i> swaps away from the 
+ * 				reference has probability proportional to 
+ * 				<i>phi</i><sup><i>d</i></sup>.
+ * <li>Single-peaked: the candidates lie on a line and every voter prefers 
+ * 				candidates closer to their favourite on each side. Every 
+ * 				single-peaked ranking is equally likely.
+ */
+public abstract class ElectionModel {
+
+	/**
+	 * The number of candidates.
+	 */
+	protected final int k;
+
+	protected ElectionModel(int k){
+		if(k < 1)
+			throw new IllegalArgumentException("No candidates: " + k);
+
+		this.k = k;
+	}
+
+	/**
+	 * Fills the first <i>k</i> elements of the array with a random ranking 
+	 * of all of the candidates.
+	 * 
+	 * @param random	The source of random numbers.
+	 * @param ranking	The array to be filled.
+	 */
+	public abstract void generate(Random random, int[] ranking);
+
+	/**
+	 * Returns the number of candidates.
+	 * 
+	 * @return The number of candidates.
+	 */
+	public int getNumCandidates(){
+		return k;
+	}
+
+	/**
+	 * Generates an election. The candidates are named <code>C0</code> to 
+	 * <code>C</code><i>k</i> - 1 so that their names match their IDs.
+	 * 
+	 * @param random	The source of random numbers.
+	 * @param voters	The number of ballots.
+	 * @param length	The number of candidates ranked on each ballot, or 0 
+	 * 					to rank all of them.
+	 * @return The ballots of the election.
+	 */
+	public BallotBox generate(Random random, long voters, int length){
+		CandidateDictionary candidates = new CandidateDictionary();
+
+		for(int id = 0; id < k; id++)
+			candidates.intern("C" + id);
+
+		BallotBox ballots = new BallotBox(candidates);
+		int[] ranking = new int[k];
+		int n = length <= 0 ? k : Math.min(length, k);
+
+		for(long v = 0; v < voters; v++){
+			generate(random, ranking);
+			ballots.add(ranking, n, 1);
+		}
+
+		return ballots;
+	}
+
+	/**
+	 * Returns the model in which every ranking is equally likely.
+	 * 
+	 * @param k	The number of candidates.
+	 * @return The impartial culture model.
+	 */
+	public static ElectionModel impartialCulture(int k){
+		return new ElectionModel(k){
+			@Override
+			public void generate(Random random, int[] ranking){
+				for(int i = 0; i < k; i++){	//Fisher-Yates shuffle.
+					int j = random.nextInt(i + 1);
+
+					ranking[i] = ranking[j];
+					ranking[j] = i;
+				}
+			}
+
+			@Override
+			public String toString(){
+				return "impartial";
+			}
+		};
+	}
+
+	/**
+	 * Returns the Mallows model with the reference ranking 
+	 * (0, 1, ..., <i>k</i> - 1).
+	 * 
+	 * @param k		The number of candidates.
+	 * @param phi	The dispersion, from 0 (every voter casts the reference
+	 * 				ranking) to 1 (impartial culture).
+	 * @return The Mallows model.
+	 */
+	public static ElectionModel mallows(int k, final double phi){
+		if(phi < 0 || phi > 1)
+			throw new IllegalArgumentException("Dispersion not in [0, 1]: " 
+					+ phi);
+
+		return new ElectionModel(k){
+			@Override
+			public void generate(Random random, int[] ranking){
+				//Repeated insertion: candidate i is inserted j places above 
+				//the bottom with probability proportional to phi^j.
+				for(int i = 0; i < k; i++){
+					double total = 0, weight = 1;
+
+					for(int j = 0; j <= i; j++, weight *= phi)
+						total += weight;
+
+					double r = random.nextDouble() * total;
+					int j = 0;
+
+					for(weight = 1; j < i && r >= weight; j++, weight *= phi)
+						r -= weight;
+
+					int index = i - j;
+
+					System.arraycopy(ranking, index, ranking, index + 1, i - index);
+					ranking[index] = i;
+				}
+			}
+
+			@Override
+			public String toString(){
+				return "mallows(" + phi + ")";
+			}
+		};
+	}
+
+	/**
+	 * Returns the model in which every ranking that is single-peaked on the 
+	 * axis 0, 1, ..., <i>k</i> - 1 is equally likely.
+	 * 
+	 * @param k	The number of candidates.
+	 * @return The single-peaked model.
+	 */
+	public static ElectionModel singlePeaked(int k){
+		return new ElectionModel(k){
+			@Override
+			public void generate(Random random, int[] ranking){
+				int left = 0, right = k - 1;
+
+				//The least preferred candidate is always at one end of the
+				//candidates who remain, so the ranking is built from the end.
+				for(int i = k - 1; i >= 0; i--){
+					if(random.nextBoolean())
+						ranking[i] = left++;
+					else
+						ranking[i] = right--;
+				}
+			}
+
+			@Override
+			public String toString(){
+				return "single-peaked";
+			}
+		};
+	}
+
+	/**
+	 * Returns a model by name, where the Mallows model has a <i>phi</i> of 
+	 * 0.8.
+	 * 
+	 * @param name	"impartial", "mallows", or "single-peaked".
+	 * @param k		The number of candidates.
+	 * @return The model.
+	 * @throws IllegalArgumentException if no model has the name.
+	 */
+	public static ElectionModel forName(String name, int k){
+		switch(name){
+			case "impartial": return impartialCulture(k);
+			case "mallows": return mallows(k, 0.8);
+			case "single-peaked": return singlePeaked(k);
+			default: throw new IllegalArgumentException("Unknown model: " + name);
+		}
+	}
+} //end ElectionModel
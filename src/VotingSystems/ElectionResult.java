@@ -0,0 +1,191 @@
+package VotingSystems;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Election Result</b>
+ * <p>
+ * <b>Purpose:</b> To hold the outcome of a count in a structured form that a
+ * 			<code>ResultRenderer</code> can write out in a single pass. The 
+ * 			counts are shared with the voting system, not copied.
+ * <p>
+ * <b>Input:</b>	The name of the voting method, the winner, the candidates,
+ * 			their votes and the order in which they are to be listed. 
+ * 			Optionally, the pairwise votes of a Condorcet count or the votes of
+ * 			each round of an instant runoff.
+ * <p>
+ * <b>Output:</b>	None.
+ */
+public class ElectionResult {
+
+	private final String method;
+
+	private final String winner;
+
+	private final CandidateDictionary candidates;
+
+	private final long numVoters;
+
+	/**
+	 * Holds the votes of each candidate with their ID as the index.
+	 */
+	private final long[] votes;
+
+	/**
+	 * Holds the IDs of the candidates in the order in which they are listed.
+	 */
+	private final int[] order;
+
+	/**
+	 * Holds the votes of candidate <i>a</i> against candidate <i>b</i> at 
+	 * index <i>a</i> * <i>k</i> + <i>b</i>, or null if there are none.
+	 */
+	private long[] pairwise;
+
+	/**
+	 * Holds the counts of each round, or null if there are none.
+	 */
+	private RoundHistory rounds;
+
+	/**
+	 * Setups a result.
+	 * 
+	 * @param method		The name of the voting method.
+	 * @param winner		The name of the winner, or "Tie".
+	 * @param candidates	The dictionary of the candidates.
+	 * @param numVoters		The number of voters.
+	 * @param votes			The votes of each candidate with their ID as the 
+	 * 						index. Its length is the number of candidates.
+	 * @param order			The IDs of the candidates in the order in which 
+	 * 						they are to be listed.
+	 */
+	public ElectionResult(String method, String winner, 
+			CandidateDictionary candidates, long numVoters, long[] votes, 
+			int[] order){
+		this.method = method;
+		this.winner = winner;
+		this.candidates = candidates;
+		this.numVoters = numVoters;
+		this.votes = votes;
+		this.order = order;
+	}
+
+	/**
+	 * Sets the pairwise votes of the candidates.
+	 * 
+	 * @param pairwise	The votes of candidate <i>a</i> against candidate 
+	 * 					<i>b</i> at index <i>a</i> * <i>k</i> + <i>b</i>.
+	 */
+	public void setPairwise(long[] pairwise){
+		this.pairwise = pairwise;
+	}
+
+	/**
+	 * Sets the counts of each round.
+	 * 
+	 * @param rounds	The history of the rounds.
+	 */
+	public void setRounds(RoundHistory rounds){
+		this.rounds = rounds;
+	}
+
+	public String getMethod(){
+		return method;
+	}
+
+	public String getWinner(){
+		return winner;
+	}
+
+	public long getNumVoters(){
+		return numVoters;
+	}
+
+	/**
+	 * Returns the number of candidates.
+	 * 
+	 * @return The number of candidates.
+	 */
+	public int getNumCandidates(){
+		return votes.length;
+	}
+
+	/**
+	 * Returns the name of the candidate.
+	 * 
+	 * @param id	The ID of the candidate.
+	 * @return The name of the candidate.
+	 */
+	public String getName(int id){
+		return candidates.getName(id);
+	}
+
+	/**
+	 * Returns the votes of the candidate.
+	 * 
+	 * @param id	The ID of the candidate.
+	 * @return The votes of the candidate.
+	 */
+	public long getVotes(int id){
+		return votes[id];
+	}
+
+	/**
+	 * Returns the ID of the candidate at the specified place in the listing.
+	 * 
+	 * @param place	The place, from 0.
+	 * @return The ID of the candidate.
+	 */
+	public int getCandidate(int place){
+		return order[place];
+	}
+
+	public boolean hasPairwise(){
+		return pairwise != null;
+	}
+
+	/**
+	 * Returns the votes of one candidate against another.
+	 * 
+	 * @param a	The ID of the candidate whose votes are to be returned.
+	 * @param b	The ID of the candidate they are compared against.
+	 * @return The votes of <code>a</code> against <code>b</code>.
+	 */
+	public long getPairwise(int a, int b){
+		return pairwise[a * votes.length + b];
+	}
+
+	public boolean hasRounds(){
+		return rounds != null;
+	}
+
+	/**
+	 * Returns the number of rounds.
+	 * 
+	 * @return The number of rounds, or 0 if there are none.
+	 */
+	public int getNumRounds(){
+		return rounds == null ? 0 : rounds.getNumRounds();
+	}
+
+	/**
+	 * Returns the votes of the candidate in the round.
+	 * 
+	 * @param round	The round, from 0.
+	 * @param id	The ID of the candidate.
+	 * @return The votes of the candidate in that round.
+	 */
+	public long getRoundVotes(int round, int id){
+		return rounds.getVotes(round, id);
+	}
+
+	/**
+	 * Returns the history of the rounds.
+	 * 
+	 * @return The history, or null if there are no rounds.
+	 */
+	public RoundHistory getRounds(){
+		return rounds;
+	}
+} //end ElectionResult
@@ -0,0 +1,150 @@
+package VotingSystems;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Election Simulation</b>
+ * <p>
+ * <b>Purpose:</b> To compare the voting systems over many random elections 
+ * 			from an <code>ElectionModel</code>.
+ * <p>
+ * <b>Input:</b>	The model, the number of voters and the length of their 
+ * 			ballots, then the number of elections, a seed and the number of 
+ * 			threads for each run.
+ * <p>
+ * <b>Output:</b>	The <code>SimulationStats</code> of the winners by every 
+ * 			<code>VotingMethod</code>.
+ * <p>
+ * <b>Algorithm:</b>	Election <i>i</i> is generated from its own 
+ * 			<code>SplitMix64</code> stream of the seed, so it is the same 
+ * 			election whichever thread runs it. The elections are split across
+ * 			a <code>ForkJoinPool</code>, where each part is summarized as its
+ * 			elections are counted and the summaries are merged at the end. 
+ * 			Since the summaries are counts, the result for a seed is the same
+ * 			for any number of threads.
+ */
+public class ElectionSimulation {
+	/**
+	 * The number of elections below which a part is not split.
+	 */
+	private static final int GRAIN = 16;
+
+	private final ElectionModel model;
+
+	private final long voters;
+
+	private final int length;
+
+	/**
+	 * Setups a simulation of elections from the model.
+	 * 
+	 * @param model		The distribution of the ballots.
+	 * @param voters	The number of ballots of each election.
+	 * @param length	The number of candidates ranked on each ballot, or 0 
+	 * 					to rank all of them.
+	 */
+	public ElectionSimulation(ElectionModel model, long voters, int length){
+		this.model = model;
+		this.voters = voters;
+		this.length = length;
+	}
+
+	/**
+	 * Simulates the elections and summarizes their winners.
+	 * 
+	 * @param elections		The number of elections.
+	 * @param seed			The seed of the random numbers.
+	 * @param parallelism	The number of threads, where 1 runs the elections
+	 * 						in the calling thread.
+	 * @return The summary of the elections.
+	 * @throws IllegalArgumentException if <code>parallelism</code> is less 
+	 * than 1.
+	 */
+	public SimulationStats run(long elections, long seed, int parallelism){
+		if(parallelism < 1)
+			throw new IllegalArgumentException(
+					"Parallelism must be at least 1: " + parallelism);
+
+		SimulationTask task = new SimulationTask(seed, 0, elections);
+
+		if(parallelism == 1 || elections <= GRAIN)
+			return task.compute();
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+		try {
+			return pool.invoke(task);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Generates and counts one election.
+	 * 
+	 * @param seed	The seed of the random numbers.
+	 * @param index	The number of the election, from 0.
+	 * @return The winner by each method, or "Tie", where the index is the 
+	 * ordinal of the method.
+	 */
+	public String[] simulate(long seed, long index){
+		BallotBox ballots = model.generate(new SplitMix64(seed, index), 
+				voters, length);
+
+		String[] winners = new String[VotingMethod.values().length];
+
+		winners[VotingMethod.PLURALITY.ordinal()] = 
+				new Plurality(ballots, 1).computeWinner();
+		winners[VotingMethod.BORDA.ordinal()] = 
+				new Borda(ballots, 1).computeWinner();
+		winners[VotingMethod.CONDORCET.ordinal()] = 
+				new Condorcet(ballots, 1).computeWinner();
+		winners[VotingMethod.INSTANT_RUNOFF.ordinal()] = 
+				new InstantRunoff(ballots).computeWinner();
+
+		return winners;
+	}
+
+	/**
+	 * Simulates part of the elections.
+	 */
+	private class SimulationTask extends RecursiveTask<SimulationStats> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long seed, from, to;
+
+		SimulationTask(long seed, long from, long to){
+			this.seed = seed;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected SimulationStats compute(){
+			if(to - from <= GRAIN){
+				SimulationStats stats = new SimulationStats();
+
+				for(long i = from; i < to; i++)
+					stats.add(simulate(seed, i));
+
+				return stats;
+			}
+
+			long middle = (from + to) >>> 1;
+
+			SimulationTask left = new SimulationTask(seed, from, middle);
+			left.fork();
+
+			SimulationStats stats = new SimulationTask(seed, middle, to)
+					.compute();
+			stats.merge(left.join());
+
+			return stats;
+		}
+	}
+} //end ElectionSimulation
@@ -1,10 +1,5 @@
 package VotingSystems;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 /**
  * 
  * @author Warren Godone-Maresca
@@ -35,103 +30,155 @@ import java.util.Map;
  * 				to step 1.
  * 				Else proceed.
  * <li>Step 3: Return the candidate with most votes as winner.
+ * <p>
+ * The rounds are counted with a <code>RunoffEngine</code>, so the ballots are
+ * never changed and may be shared with other voting systems. Ballots given as
+ * <code>CountableBallots</code> are counted by their own engine, such as by
+ * splicing the subtrees of a <code>BallotTrie</code>.
  */
 public class InstantRunoff extends VotingSystem {
 
-	private boolean tied = false;
-
-	private Map<String, String> results;
-
-	private int remainingCandidates;
+	/**
+	 * Counts the rounds of the runoff.
+	 */
+	private RunoffEngine engine;
 	
 	public InstantRunoff(){}
-	
-	List<String> eliminated;
 
 	public InstantRunoff(Ballot[] ballots){
-		initBallots(ballots);
-		initCandidates(ballots);
+		this(new BallotBox(ballots));
+	}
 
-		remainingCandidates = candVotes.size();
-		eliminated = new ArrayList<String>();
+	public InstantRunoff(BallotBox ballots){
+		this(ballots, ElectionMetrics.NONE);
+	}
 
-		results = new HashMap<String, String>();
+	/**
+	 * Counts the runoff in the calling thread, reporting the time of the 
+	 * rounds and the transfers to the metrics.
+	 * 
+	 * @param ballots	The ballots to be counted.
+	 * @param metrics	The metrics of the count, or null for none.
+	 */
+	public InstantRunoff(BallotBox ballots, ElectionMetrics metrics){
+		super(ballots, 1, metrics);	//The rounds are counted in this thread.
+	}
+
+	/**
+	 * Counts the runoff with the engine of the ballots, such as by splicing
+	 * the subtrees of a trie.
+	 * 
+	 * @param ballots	The ballots to be counted.
+	 */
+	public InstantRunoff(CountableBallots ballots){
+		super(ballots);
+	}
 
-		for(Map.Entry<String, Integer> entry : candVotes.entrySet())
-			results.put(entry.getKey(), "");
+	/**
+	 * Counts the runoff with the engine of the ballots, reporting the time of
+	 * the rounds and the transfers to the metrics.
+	 * 
+	 * @param ballots	The ballots to be counted.
+	 * @param metrics	The metrics of the count, or null for none.
+	 */
+	public InstantRunoff(CountableBallots ballots, ElectionMetrics metrics){
+		super(ballots, metrics);
+	}
 
-		setVotes();
+	/**
+	 * Counts the runoff from an engine that has counted the first round of
+	 * the ballots, such as in a pass that counted other methods too.
+	 * 
+	 * @param ballots	The ballots of the engine.
+	 * @param engine	The engine, which is used up by the count.
+	 * @param metrics	The metrics of the count, or null for none.
+	 * @return The count.
+	 */
+	static InstantRunoff count(BallotBox ballots, RunoffEngine engine,
+			ElectionMetrics metrics){
+		InstantRunoff runoff = new InstantRunoff();
+
+		runoff.engine = engine;
+		runoff.count(ballots, 1, metrics);
+
+		return runoff;
 	}
 
 	@Override
 	protected void setVotes(){
-		initializeVotes();
-
-		for(Ballot ballot : voterBallots){
-			candVotes.put(ballot.getCandidate(0), 
-					candVotes.get(ballot.getCandidate(0)) + 1);
+		if(engine == null){		//Unless given with the first round counted.
+			if(countable != null)
+				engine = countable.runoff();
+			else
+				engine = new RunoffEngine(voterBallots, candidates.size());
 		}
 
-		updateResults();
+		candVotes = engine.getVotes(); //Updated by the engine each round.
+
+		long counted = System.nanoTime();
+
 		runoff();
-	}
 
-	public String results(){
-		String totalResults = "";
+		metrics.time(ElectionMetrics.Phase.ROUNDS, System.nanoTime() - counted);
+		report();
+	}
 
-		String[] candidates = getSortedCandidateList(); //Sorts the candidates.
+	/**
+	 * Reports the rounds, transfers, and exhausted votes of the runoff.
+	 */
+	private void report(){
+		RoundHistory history = engine.getHistory();
+		long transfers = 0;
 
-		for(String candidate : candidates){
-			totalResults += String.format("%-18s", candidate)  + 
-					results.get(candidate) + "\n";
+		for(int round = 1; round < history.getNumRounds(); round++){
+			for(int c = 0; c < history.getNumCandidates(); c++)
+				transfers += Math.max(0, history.getTransfers(round, c));
 		}
 
-		return totalResults;
+		metrics.count(ElectionMetrics.Counter.ROUNDS, history.getNumRounds());
+		metrics.count(ElectionMetrics.Counter.TRANSFERS, transfers);
+		metrics.count(ElectionMetrics.Counter.EXHAUSTED, engine.getExhausted());
 	}
 
-	private void initializeVotes(){
-		for(Map.Entry<String, Integer> entry : candVotes.entrySet())
-			entry.setValue(0);
+	/**
+	 * Returns the counts of each round of the runoff.
+	 * 
+	 * @return The history of the runoff.
+	 */
+	public RoundHistory getHistory(){
+		return engine.getHistory();
 	}
 
-	private void runoff(){
-		if(candVotes.get(getWinner()) > voterBallots.size()/2 ||
-				remainingCandidates < 2 || tied)
-			return;
+	/**
+	 * Returns the result with the history of the rounds.
+	 */
+	@Override
+	public ElectionResult getResult(){
+		ElectionResult result = super.getResult();
 
-		if(!isTied(getLowestCandidate())){
-			eliminate(getLowestCandidate());
-			setVotes();
-		}
-	}
+		result.setRounds(engine.getHistory());
 
-	private String getLowestCandidate(){
-		String lowest = "";
-		int fewestVotes = 0;
+		return result;
+	}
 
-		for(Map.Entry<String, Integer> entry : candVotes.entrySet()){
-			if((entry.getValue() < fewestVotes || lowest.length() == 0) &&
-					!eliminated.contains(entry.getKey())){
-				lowest = entry.getKey();
-				fewestVotes = entry.getValue();
-			}
-		}
+	/**
+	 * Eliminates the candidate with the fewest votes until a candidate has a
+	 * majority, fewer than two candidates remain, or the fewest votes are tied.
+	 */
+	private void runoff(){
+		while(engine.getRemaining() >= 2){
+			int leader = engine.getLeader();
 
-		return lowest;
-	}
+			if(candVotes[leader] > numVoters/2)
+				return;
 
-	private void eliminate(String candidate){
-		for(Ballot ballot : voterBallots)
-			ballot.eliminateCandidate(candidate);
+			int lowest = engine.getLowest();
 
-		eliminated.add(candidate);
-		remainingCandidates--;
-	}
+			if(engine.isTied(lowest))
+				return;
 
-	private void updateResults(){
-		for(Map.Entry<String, String> entry : results.entrySet())
-			entry.setValue(entry.getValue() + "\t " 
-					+ candVotes.get(entry.getKey()));
+			engine.eliminate(lowest);
+		}
 	}
 
 }//end InstantRunoffVoting
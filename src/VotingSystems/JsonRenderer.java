@@ -0,0 +1,159 @@
+package VotingSystems;
+
+import java.io.IOException;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>JSON Renderer</b>
+ * <p>
+ * <b>Purpose:</b> To write a result as a JSON object.
+ * <p>
+ * <b>Output:</b>	An object with the method, the winner, the number of 
+ * 			voters and an array of the candidates in the order of the result. 
+ * 			Each candidate has a name and their votes and, if the result has 
+ * 			them, an object of their pairwise votes against each other 
+ * 			candidate by name, or arrays of their votes and of the votes 
+ * 			transferred to them in each round. A result with rounds also has 
+ * 			arrays of the name of the candidate eliminated after each round 
+ * 			(null in the last) and of the exhausted votes in each round. For
+ * 			example:
+ * <pre>
+ * {"method":"Plurality","winner":"A","voters":75,"candidates":[
+ * {"name":"A","votes":40},{"name":"B","votes":35}]}
+ * </pre>
+ */
+public class JsonRenderer extends ResultRenderer {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	@Override
+	public void render(ElectionResult result, Appendable out) 
+			throws IOException {
+		int k = result.getNumCandidates();
+
+		out.append("{\"method\":");
+		appendString(result.getMethod(), out);
+		out.append(",\"winner\":");
+		appendString(result.getWinner(), out);
+		out.append(",\"voters\":");
+		append(out, result.getNumVoters());
+
+		if(result.hasRounds())
+			renderRounds(result, out);
+
+		out.append(",\"candidates\":[");
+
+		for(int place = 0; place < k; place++){
+			int id = result.getCandidate(place);
+
+			if(place > 0)
+				out.append(',');
+
+			out.append("\n{\"name\":");
+			appendString(result.getName(id), out);
+			out.append(",\"votes\":");
+			append(out, result.getVotes(id));
+
+			if(result.hasPairwise()){
+				out.append(",\"against\":{");
+
+				for(int innerPlace = 0, n = 0; innerPlace < k; innerPlace++){
+					int inner = result.getCandidate(innerPlace);
+
+					if(inner == id)
+						continue;
+
+					if(n++ > 0)
+						out.append(',');
+
+					appendString(result.getName(inner), out);
+					out.append(':');
+					append(out, result.getPairwise(id, inner));
+				}
+
+				out.append('}');
+			}
+
+			if(result.hasRounds()){
+				out.append(",\"rounds\":[");
+
+				for(int round = 0; round < result.getNumRounds(); round++){
+					if(round > 0)
+						out.append(',');
+
+					append(out, result.getRoundVotes(round, id));
+				}
+
+				out.append("],\"transfers\":[");
+
+				for(int round = 0; round < result.getNumRounds(); round++){
+					if(round > 0)
+						out.append(',');
+
+					append(out, result.getRounds().getTransfers(round, id));
+				}
+
+				out.append(']');
+			}
+
+			out.append('}');
+		}
+
+		out.append("]}\n");
+	}
+
+	/**
+	 * Appends the candidates eliminated and the votes exhausted in each round.
+	 */
+	private void renderRounds(ElectionResult result, Appendable out) 
+			throws IOException {
+		RoundHistory rounds = result.getRounds();
+
+		out.append(",\"eliminated\":[");
+
+		for(int round = 0; round < rounds.getNumRounds(); round++){
+			if(round > 0)
+				out.append(',');
+
+			if(rounds.getEliminated(round) == -1)
+				out.append("null");
+			else
+				appendString(result.getName(rounds.getEliminated(round)), out);
+		}
+
+		out.append("],\"exhausted\":[");
+
+		for(int round = 0; round < rounds.getNumRounds(); round++){
+			if(round > 0)
+				out.append(',');
+
+			append(out, rounds.getExhausted(round));
+		}
+
+		out.append(']');
+	}
+
+	/**
+	 * Appends the string as a JSON string literal.
+	 */
+	private static void appendString(String s, Appendable out) 
+			throws IOException {
+		out.append('"');
+
+		for(int i = 0; i < s.length(); i++){
+			char c = s.charAt(i);
+
+			if(c == '"' || c == '\\'){
+				out.append('\\').append(c);
+			} else if(c < ' '){		//Control characters are escaped.
+				out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+			} else {
+				out.append(c);
+			}
+		}
+
+		out.append('"');
+	}
+} //end JsonRenderer
@@ -0,0 +1,237 @@
+package VotingSystems;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Live Election</b>
+ * <p>
+ * <b>Purpose:</b> To keep the count of an election up to date as ballots are
+ * 			added and removed, so that the winner can be asked for at any time
+ * 			without counting every ballot again.
+ * <p>
+ * <b>Input:</b>	Ballots to be added or removed, each with a weight.
+ * <p>
+ * <b>Output:</b>	The winner by each <code>VotingMethod</code>, and the counts
+ * 			behind them.
+ * <p>
+ * <b>Algorithm:</b>	Each change updates the following, which takes
+ * 			O(<i>n</i><sup>2</sup>) time for a ballot of length <i>n</i>:
+ * <li>The <code>ElectionCounts</code> of the first place votes, the Borda 
+ * 				scores and the Condorcet pairwise counts, as made by
+ * 				<code>ElectionEvaluator</code>.
+ * <li>The distinct rankings in a <code>BallotBox</code>, for instant runoff 
+ * 				voting. If a candidate has a majority of the first place votes
+ * 				the runoff ends in its first round, so it is decided by the
+ * 				counts. Otherwise it is counted from the rankings when it is 
+ * 				asked for and then kept until the ballots change.
+ */
+public class LiveElection implements BallotSink {
+
+	private CandidateDictionary candidates;
+
+	/**
+	 * Holds the distinct rankings for counting instant runoff rounds.
+	 */
+	private BallotBox ballots;
+
+	/**
+	 * Holds the counts of the plurality, Borda and Condorcet winners.
+	 */
+	private final ElectionCounts counts;
+
+	/**
+	 * The number of times the ballots have changed.
+	 */
+	private long version;
+
+	/**
+	 * The winner by instant runoff and the version it was counted at.
+	 */
+	private String runoffWinner;
+	private long runoffVersion = -1;
+
+	/**
+	 * Default constructor which instantiates an election with no ballots.
+	 */
+	public LiveElection(){
+		this(new CandidateDictionary());
+	}
+
+	/**
+	 * Instantiates an election with no ballots whose IDs are taken from the
+	 * dictionary.
+	 * 
+	 * @param candidates	The dictionary of the election.
+	 */
+	public LiveElection(CandidateDictionary candidates){
+		this.candidates = candidates;
+		ballots = new BallotBox(candidates);
+		counts = new ElectionCounts(candidates);
+	}
+
+	/**
+	 * Adds the ballot the specified number of times.
+	 * 
+	 * @param ballot	The ballot to be added.
+	 * @param weight	The number of voters who cast the ballot.
+	 * @throws IllegalArgumentException if <code>weight</code> is negative.
+	 */
+	public void addBallot(Ballot ballot, long weight){
+		add(toIds(ballot, true), ballot.getBallotLength(), weight);
+	}
+
+	/**
+	 * Removes the ballot the specified number of times.
+	 * 
+	 * @param ballot	The ballot to be removed.
+	 * @param weight	The number of voters whose ballots are removed.
+	 * @throws IllegalArgumentException if <code>weight</code> is negative or 
+	 * more than the number of times the ballot was added.
+	 */
+	public void removeBallot(Ballot ballot, long weight){
+		int[] ids = toIds(ballot, false);
+
+		if(ids == null)		//A candidate who is on no ballot.
+			throw new IllegalArgumentException("Cannot remove " + weight +
+					" ballots of a ranking cast 0 times");
+
+		remove(ids, ballot.getBallotLength(), weight);
+	}
+
+	@Override
+	public void add(int[] ids, int length, long weight){
+		update(ballots.put(ids, length, weight).getBallot(), weight);
+	}
+
+	/**
+	 * Removes the ballot the specified number of times.
+	 * 
+	 * @param ids		The IDs of the candidates in order of preference.
+	 * @param length	The number of IDs to be read from <code>ids</code>.
+	 * @param weight	The number of voters whose ballots are removed.
+	 * @throws IllegalArgumentException if <code>weight</code> is negative or 
+	 * more than the number of times the ballot was added.
+	 */
+	public void remove(int[] ids, int length, long weight){
+		update(ballots.take(ids, length, weight).getBallot(), -weight);
+	}
+
+	/**
+	 * Adds the weight, which is negative for a removal, to the counts of the
+	 * candidates on the ballot.
+	 */
+	private void update(Ballot ballot, long weight){
+		counts.add(ballot, weight);
+		version++;
+	}
+
+	/**
+	 * Returns the IDs of the ballot in the dictionary of the election. A 
+	 * candidate who is not in the dictionary is added to it if 
+	 * <code>intern</code> is set, and otherwise null is returned, so that a 
+	 * removal does not add candidates.
+	 */
+	private int[] toIds(Ballot ballot, boolean intern){
+		int[] ids = new int[ballot.getBallotLength()];
+
+		for(int i = 0; i < ids.length; i++){
+			if(ballot.getDictionary() == candidates)
+				ids[i] = ballot.getCandidateId(i);
+			else if(intern)
+				ids[i] = candidates.intern(ballot.getCandidate(i));
+			else if((ids[i] = candidates.getId(ballot.getCandidate(i))) == -1)
+				return null;
+		}
+
+		return ids;
+	}
+
+	/**
+	 * Computes and returns the name of the winning candidate by the method.
+	 * Every method but instant runoff takes O(<i>k</i><sup>2</sup>) time or
+	 * less for <i>k</i> candidates.
+	 * 
+	 * @param method	The voting method.
+	 * @return If a winner exists, the name of the winning candidate; otherwise,
+	 * the string "Tie".
+	 */
+	public String computeWinner(VotingMethod method){
+		switch(method){
+			case PLURALITY: return counts.leader(getPluralityVotes());
+			case BORDA: return counts.leader(getBordaScores());
+			case CONDORCET: return counts.getCondorcetWinner(getNumVoters());
+			default: return getRunoffWinner();
+		}
+	}
+
+	private String getRunoffWinner(){
+		if(runoffVersion != version){
+			runoffWinner = counts.getFirstRoundWinner(getNumVoters());
+
+			if(runoffWinner == null)
+				runoffWinner = new InstantRunoff(ballots).computeWinner();
+
+			runoffVersion = version;
+		}
+
+		return runoffWinner;
+	}
+
+	/**
+	 * Returns the first place votes of each candidate.
+	 * 
+	 * @return The votes with the candidates' IDs as the index.
+	 */
+	public long[] getPluralityVotes(){
+		return counts.getPluralityVotes();
+	}
+
+	/**
+	 * Returns the Borda score of each candidate, which is the same as the 
+	 * votes of <code>Borda</code> for the same ballots.
+	 * 
+	 * @return The scores with the candidates' IDs as the index.
+	 */
+	public long[] getBordaScores(){
+		return counts.getBordaScores();
+	}
+
+	/**
+	 * Returns the votes of one candidate against another, which are the same 
+	 * as those of <code>Condorcet</code> for the same ballots.
+	 * 
+	 * @param a	The ID of the candidate whose votes are to be returned.
+	 * @param b	The ID of the candidate they are compared against.
+	 * @return	The number of voters who rank <code>a</code> above 
+	 * 			<code>b</code> or rank <code>a</code> but not <code>b</code>.
+	 */
+	public long getPairwiseVotes(int a, int b){
+		return counts.getPairwiseVotes(a, b);
+	}
+
+	/**
+	 * Returns the number of voters, which is the sum of the weights of the 
+	 * ballots.
+	 * 
+	 * @return The number of voters.
+	 */
+	public long getNumVoters(){
+		return ballots.getTotalWeight();
+	}
+
+	/**
+	 * Returns the ballots of the election. They must not be changed except 
+	 * through this election.
+	 * 
+	 * @return The distinct rankings with their weights.
+	 */
+	public BallotBox getBallots(){
+		return ballots;
+	}
+
+	@Override
+	public CandidateDictionary getCandidates(){
+		return candidates;
+	}
+} //end LiveElection
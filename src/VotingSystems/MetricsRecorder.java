@@ -0,0 +1,122 @@
+package VotingSystems;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Metrics Recorder</b>
+ * <p>
+ * <b>Purpose:</b> To keep the total time of each phase, the number of times 
+ * 			it ran, and the total of each counter, so that they can be read or
+ * 			logged while the program runs.
+ * <p>
+ * <b>Input:</b>	The metrics of each count, from any number of threads.
+ * <p>
+ * <b>Output:</b>	The totals, the rate at which ballots were read, and a 
+ * 			summary of one line per phase and counter.
+ */
+public class MetricsRecorder implements ElectionMetrics {
+
+	private final AtomicLongArray nanos = 
+			new AtomicLongArray(Phase.values().length);
+
+	/**
+	 * Holds the number of times each phase ran.
+	 */
+	private final AtomicLongArray runs = 
+			new AtomicLongArray(Phase.values().length);
+
+	private final AtomicLongArray counters = 
+			new AtomicLongArray(Counter.values().length);
+
+	@Override
+	public void time(Phase phase, long nanos){
+		this.nanos.addAndGet(phase.ordinal(), nanos);
+		runs.incrementAndGet(phase.ordinal());
+	}
+
+	@Override
+	public void count(Counter counter, long amount){
+		counters.addAndGet(counter.ordinal(), amount);
+	}
+
+	/**
+	 * Returns the total time of every run of the phase.
+	 * 
+	 * @param phase	The phase.
+	 * @return	The time in nanoseconds.
+	 */
+	public long getNanos(Phase phase){
+		return nanos.get(phase.ordinal());
+	}
+
+	/**
+	 * Returns the number of times the phase ran.
+	 * 
+	 * @param phase	The phase.
+	 * @return	The number of runs.
+	 */
+	public long getRuns(Phase phase){
+		return runs.get(phase.ordinal());
+	}
+
+	/**
+	 * Returns the total of the counter.
+	 * 
+	 * @param counter	The counter.
+	 * @return	The total.
+	 */
+	public long getCount(Counter counter){
+		return counters.get(counter.ordinal());
+	}
+
+	/**
+	 * Returns the number of ballots read per second of parsing.
+	 * 
+	 * @return	The rate, or 0 if no ballots have been read.
+	 */
+	public double getBallotsPerSecond(){
+		long time = getNanos(Phase.PARSE);
+
+		return time == 0 ? 0 : getCount(Counter.BALLOTS) * 1e9 / time;
+	}
+
+	/**
+	 * Clears every total.
+	 */
+	public void reset(){
+		for(int i = 0; i < nanos.length(); i++){
+			nanos.set(i, 0);
+			runs.set(i, 0);
+		}
+
+		for(int i = 0; i < counters.length(); i++)
+			counters.set(i, 0);
+	}
+
+	/**
+	 * Returns a summary with the time of each phase in milliseconds and the 
+	 * total of each counter.
+	 */
+	@Override
+	public String toString(){
+		StringBuilder summary = new StringBuilder();
+
+		for(Phase phase : Phase.values()){
+			summary.append(String.format("%-18s %10.3f ms %6d runs%n", phase,
+					getNanos(phase) / 1e6, getRuns(phase)));
+		}
+
+		for(Counter counter : Counter.values()){
+			summary.append(String.format("%-18s %10d%n", counter, 
+					getCount(counter)));
+		}
+
+		summary.append(String.format("%-18s %10.0f%n", "BALLOTS/S",
+				getBallotsPerSecond()));
+
+		return summary.toString();
+	}
+} //end MetricsRecorder
@@ -0,0 +1,394 @@
+package VotingSystems;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Off-Heap Ballot Store</b>
+ * <p>
+ * <b>Purpose:</b> To keep every ballot of a very large election, in the order
+ * 			cast, outside of the Java heap. A ballot takes a few bytes, so a
+ * 			hundred million ballots fit in a few gigabytes of native memory,
+ * 			and the heap and the garbage collector do not grow with the number
+ * 			of voters.
+ * <p>
+ * <b>Input:</b>	Ballots as arrays of candidate IDs through
+ * 			<code>BallotSink</code>, such as from a <code>BallotFileReader
+ * 			</code>.
+ * <p>
+ * <b>Output:</b>	The ballots through a <code>Cursor</code>, which reads them
+ * 			without creating any objects, or streamed into another
+ * 			<code>BallotSink</code> such as a <code>BallotBox</code> or a
+ * 			<code>LiveElection</code>. A <code>BallotBox</code> only holds
+ * 			the distinct rankings, so a voting system can be built from one
+ * 			without holding a <code>Ballot</code> per voter. The store is
+ * 			also <code>StreamedBallots</code>, so a voting system can count
+ * 			it through its cursor with no <code>BallotBox</code> at all, such
+ * 			as <code>new Plurality(store)</code>.
+ * <p>
+ * The ballots are packed into direct <code>ByteBuffer</code>s of
+ * <code>CHUNK_SIZE</code> bytes. Each ballot is its weight as an unsigned
+ * LEB128 varint, its length, and the IDs of its candidates, where the length
+ * and the IDs take one byte each if the store is for at most 255 candidates,
+ * and two bytes each otherwise. A ballot never spans two chunks. Duplicate
+ * candidates are removed as ballots are added.
+ * <p>
+ * The native memory is freed when the store is garbage collected, so the
+ * limit on it is set with <code>-XX:MaxDirectMemorySize</code>. A store must
+ * not be added to while it is being read.
+ */
+public class OffHeapBallotStore extends StreamedBallots 
+		implements BallotSink {
+	/**
+	 * The size of each buffer of ballots.
+	 */
+	private static final int CHUNK_SIZE = 64 << 20;
+
+	/**
+	 * The most candidates whose IDs and ballot lengths fit in one byte.
+	 */
+	private static final int BYTE_CANDIDATES = 255;
+
+	/**
+	 * The most candidates whose IDs and ballot lengths fit in two bytes.
+	 */
+	private static final int SHORT_CANDIDATES = 65535;
+
+	private final CandidateDictionary candidates;
+
+	/**
+	 * The number of candidates the store has room for.
+	 */
+	private final int maxCandidates;
+
+	/**
+	 * Whether IDs and lengths take two bytes rather than one.
+	 */
+	private final boolean wide;
+
+	/**
+	 * The most bytes one ballot can take.
+	 */
+	private final int maxBallot;
+
+	private final List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+
+	/**
+	 * The chunk ballots are being added to.
+	 */
+	private ByteBuffer current;
+
+	private long size;
+
+	private long totalWeight;
+
+	/**
+	 * Holds the number of the last ballot on which each candidate was seen,
+	 * where the index is their ID, to remove duplicates.
+	 */
+	private final int[] seen;
+
+	private int stamp;
+
+	/**
+	 * Setups a store for up to 255 candidates with its own dictionary.
+	 */
+	public OffHeapBallotStore(){
+		this(new CandidateDictionary(), BYTE_CANDIDATES);
+	}
+
+	/**
+	 * Setups a store whose IDs are taken from the dictionary.
+	 *
+	 * @param candidates	The dictionary of the election.
+	 * @param maxCandidates	The most candidates the election may have, up to
+	 * 						65535. IDs take one byte for up to 255 and two
+	 * 						bytes otherwise.
+	 * @throws IllegalArgumentException if <code>maxCandidates</code> is not
+	 * between 1 and 65535.
+	 */
+	public OffHeapBallotStore(CandidateDictionary candidates, int maxCandidates){
+		if(maxCandidates < 1 || maxCandidates > SHORT_CANDIDATES)
+			throw new IllegalArgumentException("Max candidates must be " +
+					"between 1 and " + SHORT_CANDIDATES + ": " + maxCandidates);
+
+		this.candidates = candidates;
+		this.maxCandidates = maxCandidates;
+		this.wide = maxCandidates > BYTE_CANDIDATES;
+		this.maxBallot = 10 + (wide ? 2 : 1) * (maxCandidates + 1);
+		this.seen = new int[maxCandidates];
+	}
+
+	/**
+	 * Adds the ballot to the end of the store. A weight of 0 is kept, so that
+	 * the ballots read back are the ones that were added.
+	 *
+	 * @throws IllegalArgumentException if <code>weight</code> is negative or
+	 * an ID is not less than the most candidates of the store.
+	 */
+	@Override
+	public void add(int[] ids, int length, long weight){
+		if(weight < 0)
+			throw new IllegalArgumentException("Negative weight: " + weight);
+
+		if(current == null || current.remaining() < maxBallot){
+			current = ByteBuffer.allocateDirect(CHUNK_SIZE);
+			chunks.add(current);
+		}
+
+		int start = current.position();
+
+		putVarint(weight);
+
+		int lengthAt = current.position();
+		int n = 0;
+
+		putNumber(0);		//The length, which is set once it is known.
+		stamp++;
+
+		for(int i = 0; i < length; i++){
+			int id = ids[i];
+
+			if(id < 0 || id >= maxCandidates){
+				current.position(start);	//Drops the partial ballot.
+				throw new IllegalArgumentException("Candidate ID " + id +
+						" does not fit a store of " + maxCandidates);
+			}
+
+			if(seen[id] != stamp){
+				seen[id] = stamp;
+				putNumber(id);
+				n++;
+			}
+		}
+
+		if(wide)
+			current.putShort(lengthAt, (short) n);
+		else
+			current.put(lengthAt, (byte) n);
+
+		size++;
+		totalWeight += weight;
+	}
+
+	private void putVarint(long value){
+		while((value & ~0x7FL) != 0){
+			current.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+
+		current.put((byte) value);
+	}
+
+	/**
+	 * Puts a length or an ID in one or two bytes.
+	 */
+	private void putNumber(int value){
+		if(wide)
+			current.putShort((short) value);
+		else
+			current.put((byte) value);
+	}
+
+	/**
+	 * Returns a cursor at the start of the store.
+	 *
+	 * @return A new cursor.
+	 */
+	@Override
+	public Cursor cursor(){
+		return new Cursor();
+	}
+
+	/**
+	 * Adds every ballot of the store to the sink, in the order they were
+	 * added. If the sink does not use the dictionary of the store the IDs are
+	 * translated through a table built once.
+	 *
+	 * @param sink	The count the ballots are added to.
+	 * @return	The number of ballots read.
+	 */
+	public long read(BallotSink sink){
+		int[] translation = new int[candidates.size()];
+
+		for(int id = 0; id < translation.length; id++){
+			translation[id] = sink.getCandidates() == candidates ? id :
+					sink.getCandidates().intern(candidates.getName(id));
+		}
+
+		int[] ids = new int[translation.length];
+		Cursor cursor = new Cursor();
+
+		while(cursor.next()){
+			int n = cursor.getLength();
+
+			for(int i = 0; i < n; i++)
+				ids[i] = translation[cursor.getId(i)];
+
+			sink.add(ids, n, cursor.getWeight());
+		}
+
+		return size;
+	}
+
+	/**
+	 * Reads the store into a new ballot box which uses the dictionary of the
+	 * store. The box holds one entry per distinct ranking.
+	 *
+	 * @return The ballots of the store.
+	 */
+	public BallotBox read(){
+		BallotBox ballots = new BallotBox(candidates);
+
+		read(ballots);
+
+		return ballots;
+	}
+
+	@Override
+	public CandidateDictionary getCandidates(){
+		return candidates;
+	}
+
+	/**
+	 * Returns the number of ballots in the store.
+	 *
+	 * @return The number of ballots.
+	 */
+	public long size(){
+		return size;
+	}
+
+	/**
+	 * Returns the number of voters, which is the sum of the weights.
+	 *
+	 * @return The number of voters.
+	 */
+	@Override
+	public long getTotalWeight(){
+		return totalWeight;
+	}
+
+	/**
+	 * Returns the number of bytes of native memory the ballots take, not
+	 * counting the unused end of the last chunk.
+	 *
+	 * @return The number of bytes used.
+	 */
+	public long getBytesUsed(){
+		if(current == null)
+			return 0;
+
+		return (long) (chunks.size() - 1) * CHUNK_SIZE + current.position();
+	}
+
+	/**
+	 * Reads the ballots of a store one at a time. The cursor starts before the
+	 * first ballot, and <code>next()</code> moves it to the next one. Reading
+	 * creates no objects.
+	 */
+	public class Cursor implements BallotCursor {
+
+		private int chunk = 0;
+
+		/**
+		 * The position in the chunk of the next ballot.
+		 */
+		private int position = 0;
+
+		/**
+		 * The position in the chunk of the first ID of the current ballot.
+		 */
+		private int idsAt;
+
+		private int length;
+
+		private long weight;
+
+		private Cursor(){}
+
+		/**
+		 * Moves to the next ballot.
+		 *
+		 * @return <code>true</code> if there is a next ballot.
+		 */
+		@Override
+		public boolean next(){
+			while(chunk < chunks.size() &&
+					position == chunks.get(chunk).position()){
+				chunk++;			//The end of a chunk.
+				position = 0;
+			}
+
+			if(chunk == chunks.size())
+				return false;
+
+			ByteBuffer bytes = chunks.get(chunk);
+
+			weight = 0;
+
+			for(int shift = 0; ; shift += 7){
+				byte b = bytes.get(position++);
+				weight |= (long) (b & 0x7F) << shift;
+
+				if(b >= 0)
+					break;
+			}
+
+			if(wide){
+				length = bytes.getShort(position) & 0xFFFF;
+				position += 2;
+				idsAt = position;
+				position += 2 * length;
+			} else {
+				length = bytes.get(position) & 0xFF;
+				position++;
+				idsAt = position;
+				position += length;
+			}
+
+			return true;
+		}
+
+		/**
+		 * Returns the number of candidates on the current ballot.
+		 *
+		 * @return The length of the ballot.
+		 */
+		@Override
+		public int getLength(){
+			return length;
+		}
+
+		/**
+		 * Returns the ID of the candidate at the index of the current ballot.
+		 *
+		 * @param index	The rank of the candidate, where 0 is first. It must be
+		 * 				less than <code>getLength()</code>.
+		 * @return The ID of the candidate.
+		 */
+		@Override
+		public int getId(int index){
+			ByteBuffer bytes = chunks.get(chunk);
+
+			if(wide)
+				return bytes.getShort(idsAt + 2 * index) & 0xFFFF;
+
+			return bytes.get(idsAt + index) & 0xFF;
+		}
+
+		/**
+		 * Returns the number of voters who cast the current ballot.
+		 *
+		 * @return The weight of the ballot.
+		 */
+		@Override
+		public long getWeight(){
+			return weight;
+		}
+	}
+} //end OffHeapBallotStore
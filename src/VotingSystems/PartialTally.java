@@ -0,0 +1,125 @@
+package VotingSystems;
+
+import java.io.Serializable;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Partial Tally</b>
+ * <p>
+ * <b>Purpose:</b> To hold the count of part of an election, such as one 
+ * 			precinct, in a form that can be saved, sent to another process, 
+ * 			and merged with the counts of the other parts without counting 
+ * 			the ballots again.
+ * <p>
+ * <b>Input:</b>	The ballots of one part of the election as a 
+ * 			<code>BallotBox</code>, or two partial tallies to be merged.
+ * <p>
+ * <b>Output:</b>	The name of the winning candidate of all of the merged 
+ * 			parts, if one exists, else the string "Tie".
+ * <p>
+ * The candidates are kept by name, since each part names its candidates in 
+ * the order they are first seen. Merging is associative and does not change
+ * either tally, so the parts may be merged in any grouping. A merged tally 
+ * keeps the candidates of this tally in their order, followed by those only 
+ * in the other.
+ *
+ * @param <T>	The type of the tally, which may only be merged with its own 
+ * 				type.
+ */
+public abstract class PartialTally<T extends PartialTally<T>> 
+		implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Holds the name of each candidate where the index is their ID in the 
+	 * counts of the tally.
+	 */
+	protected final String[] candidates;
+
+	/**
+	 * The number of voters, which is the sum of the weights of the ballots.
+	 */
+	protected final long numVoters;
+
+	protected PartialTally(String[] candidates, long numVoters){
+		this.candidates = candidates;
+		this.numVoters = numVoters;
+	}
+
+	/**
+	 * Returns a tally of the ballots of both tallies.
+	 * 
+	 * @param other	The tally of the other part of the election.
+	 * @return	The merged tally.
+	 */
+	public abstract T merge(T other);
+
+	/**
+	 * Computes and returns the name of the winning candidate of the ballots
+	 * counted so far.
+	 * 
+	 * @return If a winner exists, the name of the winning candidate; otherwise,
+	 * the string "Tie".
+	 */
+	public abstract String computeWinner();
+
+	/**
+	 * Returns the names of the candidates where the index is their ID in the
+	 * counts of the tally.
+	 * 
+	 * @return The candidates' names.
+	 */
+	public String[] getCandidates(){
+		return candidates.clone();
+	}
+
+	/**
+	 * Returns the number of voters, which is the sum of the weights of the 
+	 * ballots.
+	 * 
+	 * @return The number of voters.
+	 */
+	public long getNumVoters(){
+		return numVoters;
+	}
+
+	/**
+	 * Returns a dictionary of the candidates of both tallies, where the 
+	 * candidates of this tally keep their IDs.
+	 */
+	protected CandidateDictionary union(PartialTally<?> other){
+		CandidateDictionary merged = new CandidateDictionary(candidates);
+
+		for(String candidate : other.candidates)
+			merged.intern(candidate);
+
+		return merged;
+	}
+
+	/**
+	 * Returns the IDs in the dictionary of each candidate of the other tally,
+	 * where the index is their ID in that tally.
+	 */
+	protected static int[] translate(PartialTally<?> other, 
+			CandidateDictionary merged){
+		int[] ids = new int[other.candidates.length];
+
+		for(int i = 0; i < ids.length; i++)
+			ids[i] = merged.getId(other.candidates[i]);
+
+		return ids;
+	}
+
+	/**
+	 * Returns the name of the candidate with the most votes, or "Tie" if no
+	 * candidate has more votes than all of the others.
+	 */
+	protected String leader(long[] votes){
+		int leader = ElectionCounts.leaderId(votes);
+
+		return leader == -1 ? "Tie" : candidates[leader];
+	}
+} //end PartialTally
@@ -1,4 +1,5 @@
 package VotingSystems;
+
 /**
  * 
  * @author Warren Godone-Maresca
@@ -20,8 +21,11 @@ package VotingSystems;
  * 			<code>{@link #computeWinner()}</code>.
  * <p>
  * <b>Algorithm:</b>	The candidate with the most first place votes wins.
+ * 			The ballots may be counted in parallel since each ballot is 
+ * 			counted independently of the others. It is the positional 
+ * 			scoring system with the score vector (1, 0, ..., 0).
  */
-public class Plurality extends VotingSystem{
+public class Plurality extends PositionalScoring {
 	/**
 	 * Default constructor which doesn't do anything.
 	 */
@@ -34,18 +38,65 @@ public class Plurality extends VotingSystem{
 	 * @param ballots The ballots to be counted for determining the winner.
 	 */
 	public Plurality(Ballot[] ballots){
-		super(ballots);
+		this(new BallotBox(ballots));
+	}
+
+	/**
+	 * Will execute the constructor of <code>VotingSystem</code> which 
+	 * instantiates the ballots and candidates.
+	 * 
+	 * @param ballots The ballots to be counted for determining the winner.
+	 */
+	public Plurality(BallotBox ballots){
+		super(ballots, pluralityScores(ballots.getCandidates().size()));
+	}
+
+	/**
+	 * Will execute the constructor of <code>VotingSystem</code> which 
+	 * instantiates the ballots and candidates.
+	 * 
+	 * @param ballots 		The ballots to be counted for determining the winner.
+	 * @param parallelism	The number of threads used to count the ballots.
+	 */
+	public Plurality(BallotBox ballots, int parallelism){
+		super(ballots, parallelism, 
+				pluralityScores(ballots.getCandidates().size()));
 	}
 
-	
 	/**
-	 * Awards one vote to each candidate every time they are ranked first on a 
-	 * ballot.
+	 * Will execute the constructor of <code>VotingSystem</code> which 
+	 * instantiates the ballots and candidates and reports to the metrics.
+	 * 
+	 * @param ballots 		The ballots to be counted for determining the winner.
+	 * @param parallelism	The number of threads used to count the ballots.
+	 * @param metrics		The metrics of the count, or null for none.
+	 */
+	public Plurality(BallotBox ballots, int parallelism, 
+			ElectionMetrics metrics){
+		super(ballots, parallelism, 
+				pluralityScores(ballots.getCandidates().size()), metrics);
+	}
+
+	/**
+	 * Will execute the constructor of <code>VotingSystem</code> which 
+	 * counts the ballots from a prefix trie or a mapped ballot file.
+	 * 
+	 * @param ballots The ballots to be counted for determining the winner.
+	 */
+	public Plurality(CountableBallots ballots){
+		super(ballots, pluralityScores(ballots.getCandidates().size()));
+	}
+
+	/**
+	 * Will execute the constructor of <code>VotingSystem</code> which 
+	 * counts the ballots from a prefix trie or a mapped ballot file and 
+	 * reports to the metrics.
+	 * 
+	 * @param ballots The ballots to be counted for determining the winner.
+	 * @param metrics The metrics of the count, or null for none.
 	 */
-	protected void setVotes(){
-		for(Ballot ballot : voterBallots){
-			candVotes.put(ballot.getCandidate(0), 
-					candVotes.get(ballot.getCandidate(0)) + 1);
-		}
+	public Plurality(CountableBallots ballots, ElectionMetrics metrics){
+		super(ballots, pluralityScores(ballots.getCandidates().size()), 
+				metrics);
 	}
 } //end Plurality
@@ -0,0 +1,78 @@
+package VotingSystems;
+
+import java.util.Arrays;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Plurality Tally</b>
+ * <p>
+ * <b>Purpose:</b> To hold the first place votes of each candidate in part of
+ * 			an election so that the parts can be merged and counted by 
+ * 			plurality voting.
+ * <p>
+ * <b>Input:</b>	The ballots of one part of the election, or two tallies.
+ * <p>
+ * <b>Output:</b>	The same winner as <code>Plurality</code> would give for 
+ * 			all of the ballots.
+ */
+public class PluralityTally extends PartialTally<PluralityTally> {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Holds the first place votes of each candidate with their ID as the 
+	 * index.
+	 */
+	private final long[] votes;
+
+	/**
+	 * Counts the first place votes of the ballots.
+	 * 
+	 * @param ballots	The ballots of one part of the election.
+	 */
+	public PluralityTally(BallotBox ballots){
+		this(ballots.getCandidates().toArray(), ballots.getTotalWeight(),
+				new long[ballots.getCandidates().size()]);
+
+		for(WeightedBallot weighted : ballots){
+			Ballot ballot = weighted.getBallot();
+
+			if(ballot.getBallotLength() > 0)
+				votes[ballot.getCandidateId(0)] += weighted.getWeight();
+		}
+	}
+
+	private PluralityTally(String[] candidates, long numVoters, long[] votes){
+		super(candidates, numVoters);
+		this.votes = votes;
+	}
+
+	@Override
+	public PluralityTally merge(PluralityTally other){
+		CandidateDictionary merged = union(other);
+		int[] ids = translate(other, merged);
+		long[] sum = Arrays.copyOf(votes, merged.size());
+
+		for(int i = 0; i < ids.length; i++)
+			sum[ids[i]] += other.votes[i];
+
+		return new PluralityTally(merged.toArray(), 
+				numVoters + other.numVoters, sum);
+	}
+
+	@Override
+	public String computeWinner(){
+		return leader(votes);
+	}
+
+	/**
+	 * Returns the first place votes of each candidate.
+	 * 
+	 * @return The votes with the candidates' IDs as the index.
+	 */
+	public long[] getVotes(){
+		return votes.clone();
+	}
+} //end PluralityTally
@@ -0,0 +1,390 @@
+package VotingSystems;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Positional Scoring</b>
+ * <p>
+ * <b>Purpose:</b> To compute the winning candidate by any voting system that
+ * 			awards points for each position on a ballot, from a vector of the
+ * 			points of each position.
+ * <p>
+ * <b>Input:</b>	The ballots as a <code>BallotBox</code> or as
+ * 			<code>CountableBallots</code>, and the score vector, where the element
+ * 			at index <i>i</i> is the points for being ranked at position
+ * 			<i>i</i> + 1. Positions past the end of the vector, and candidates
+ * 			who are not ranked, get no points.
+ * <p>
+ * <b>Output:</b>	The name of the winning candidate if one exists, else the
+ * 			string "Tie".
+ * <p>
+ * <b>Algorithm:</b>	Each ballot adds the points of each of its positions,
+ * 			times its weight, to the candidate at that position. The score
+ * 			vector is cut at its last non-zero element, so a ballot only
+ * 			reads as many positions as can score. The ballots are counted in
+ * 			parallel parts as in <code>TallyTask</code>. These presets are
+ * 			provided, each for <i>k</i> candidates:
+ * <li><code>Plurality</code>: (1, 0, ..., 0).
+ * <li><code>Borda</code>: (<i>k</i> - 1, <i>k</i> - 2, ..., 0).
+ * <li><code>dowdall</code>: (1, 1/2, 1/3, ..., 1/<i>k</i>), scaled to whole
+ * 				numbers.
+ * <li><code>antiPlurality</code>: (1, ..., 1, 0), a vote against the last
+ * 				place.
+ * <li><code>approval</code>: one point for each of the first <i>n</i>
+ * 				positions.
+ */
+public class PositionalScoring extends VotingSystem {
+	/**
+	 * The largest number whose multiples the Dowdall points are scaled to.
+	 * Points of positions whose number does not divide it are rounded.
+	 */
+	private static final long MAX_DOWDALL_SCALE = 1L << 32;
+
+	/**
+	 * Holds the points of each position, without trailing zeros.
+	 */
+	private long[] scores;
+
+	/**
+	 * The name of the system in the results, or null for the name of the
+	 * class.
+	 */
+	private String name;
+
+	/**
+	 * Default constructor which doesn't do anything.
+	 */
+	public PositionalScoring(){}
+
+	/**
+	 * Counts the ballots with one thread per available processor.
+	 *
+	 * @param ballots	The ballots to be counted.
+	 * @param scores	The points of each position, starting with the first.
+	 */
+	public PositionalScoring(BallotBox ballots, long[] scores){
+		this(ballots, Runtime.getRuntime().availableProcessors(), scores);
+	}
+
+	/**
+	 * Counts the ballots with the specified number of threads.
+	 *
+	 * @param ballots		The ballots to be counted.
+	 * @param parallelism	The number of threads, where 1 counts the ballots
+	 * 						sequentially.
+	 * @param scores		The points of each position, starting with the
+	 * 						first.
+	 * @throws IllegalArgumentException if <code>parallelism</code> is less
+	 * than 1.
+	 */
+	public PositionalScoring(BallotBox ballots, int parallelism,
+			long[] scores){
+		this(null, ballots, parallelism, scores, ElectionMetrics.NONE);
+	}
+
+	/**
+	 * Counts the ballots with the specified number of threads, reporting the
+	 * time of each phase to the metrics.
+	 *
+	 * @param ballots		The ballots to be counted.
+	 * @param parallelism	The number of threads, where 1 counts the ballots
+	 * 						sequentially.
+	 * @param scores		The points of each position, starting with the
+	 * 						first.
+	 * @param metrics		The metrics of the count, or null for none.
+	 * @throws IllegalArgumentException if <code>parallelism</code> is less
+	 * than 1.
+	 */
+	public PositionalScoring(BallotBox ballots, int parallelism,
+			long[] scores, ElectionMetrics metrics){
+		this(null, ballots, parallelism, scores, metrics);
+	}
+
+	/**
+	 * Counts the ballots from a trie or a mapped ballot file in the calling
+	 * thread.
+	 *
+	 * @param ballots	The ballots to be counted.
+	 * @param scores	The points of each position, starting with the first.
+	 */
+	public PositionalScoring(CountableBallots ballots, long[] scores){
+		this(ballots, scores, ElectionMetrics.NONE);
+	}
+
+	/**
+	 * Counts the ballots from a trie or a mapped ballot file in the calling
+	 * thread, reporting the time of the count to the metrics.
+	 *
+	 * @param ballots	The ballots to be counted.
+	 * @param scores	The points of each position, starting with the first.
+	 * @param metrics	The metrics of the count, or null for none.
+	 */
+	public PositionalScoring(CountableBallots ballots, long[] scores,
+			ElectionMetrics metrics){
+		this.scores = trim(scores);
+		count(ballots, metrics);
+	}
+
+	private PositionalScoring(String name, BallotBox ballots, int parallelism,
+			long[] scores, ElectionMetrics metrics){
+		this.name = name;
+		this.scores = trim(scores);
+		count(ballots, parallelism, metrics);
+	}
+
+	/**
+	 * Returns the Dowdall count of the ballots, where the candidate at
+	 * position <i>i</i> gets 1/<i>i</i> points.
+	 *
+	 * @param ballots	The ballots to be counted.
+	 * @return The count.
+	 */
+	public static PositionalScoring dowdall(BallotBox ballots){
+		return dowdall(ballots, ElectionMetrics.NONE);
+	}
+
+	/**
+	 * Returns the Dowdall count of the ballots, reporting the time of each 
+	 * phase to the metrics.
+	 *
+	 * @param ballots	The ballots to be counted.
+	 * @param metrics	The metrics of the count, or null for none.
+	 * @return The count.
+	 */
+	public static PositionalScoring dowdall(BallotBox ballots,
+			ElectionMetrics metrics){
+		return new PositionalScoring("Dowdall", ballots,
+				Runtime.getRuntime().availableProcessors(),
+				dowdallScores(ballots.getCandidates().size()), metrics);
+	}
+
+	/**
+	 * Returns the anti-plurality count of the ballots, where each voter votes
+	 * against the candidate they rank last of all <i>k</i> candidates.
+	 *
+	 * @param ballots	The ballots to be counted.
+	 * @return The count.
+	 */
+	public static PositionalScoring antiPlurality(BallotBox ballots){
+		return antiPlurality(ballots, ElectionMetrics.NONE);
+	}
+
+	/**
+	 * Returns the anti-plurality count of the ballots, reporting the time of
+	 * each phase to the metrics.
+	 *
+	 * @param ballots	The ballots to be counted.
+	 * @param metrics	The metrics of the count, or null for none.
+	 * @return The count.
+	 */
+	public static PositionalScoring antiPlurality(BallotBox ballots,
+			ElectionMetrics metrics){
+		return new PositionalScoring("AntiPlurality", ballots,
+				Runtime.getRuntime().availableProcessors(),
+				antiPluralityScores(ballots.getCandidates().size()), metrics);
+	}
+
+	/**
+	 * Returns the <i>n</i>-approval count of the ballots, where each voter
+	 * approves of the first <i>n</i> candidates on their ballot.
+	 *
+	 * @param ballots	The ballots to be counted.
+	 * @param approvals	The number of candidates each voter approves of.
+	 * @return The count.
+	 * @throws IllegalArgumentException if <code>approvals</code> is less than
+	 * 1.
+	 */
+	public static PositionalScoring approval(BallotBox ballots, int approvals){
+		return new PositionalScoring(approvals + "-Approval", ballots,
+				Runtime.getRuntime().availableProcessors(),
+				approvalScores(ballots.getCandidates().size(), approvals),
+				ElectionMetrics.NONE);
+	}
+
+	/**
+	 * Returns the score vector of plurality voting.
+	 *
+	 * @param k	The number of candidates.
+	 * @return One point for the first position.
+	 */
+	public static long[] pluralityScores(int k){
+		return approvalScores(k, 1);
+	}
+
+	/**
+	 * Returns the score vector of the Borda count.
+	 *
+	 * @param k	The number of candidates.
+	 * @return <i>k</i> - <i>i</i> points for position <i>i</i>.
+	 */
+	public static long[] bordaScores(int k){
+		long[] scores = new long[k];
+
+		for(int i = 0; i < k; i++)
+			scores[i] = k - (i + 1);
+
+		return scores;
+	}
+
+	/**
+	 * Returns the score vector of the Dowdall system, scaled by the least
+	 * common multiple of 1 to <i>k</i> so that every score is a whole number
+	 * with the same ratios. If that multiple is more than 2<sup>32</sup>
+	 * (past 22 candidates) the largest one that is not is used, and the points
+	 * of the positions it is not a multiple of are rounded.
+	 *
+	 * @param k	The number of candidates.
+	 * @return The scaled points of 1/<i>i</i> for position <i>i</i>.
+	 */
+	public static long[] dowdallScores(int k){
+		long scale = 1;
+
+		for(int i = 2; i <= k; i++){
+			long multiple = scale / gcd(scale, i) * i;
+
+			if(multiple > MAX_DOWDALL_SCALE)
+				break;
+
+			scale = multiple;
+		}
+
+		long[] scores = new long[k];
+
+		for(int i = 0; i < k; i++)
+			scores[i] = Math.round((double) scale / (i + 1));
+
+		return scores;
+	}
+
+	private static long gcd(long a, long b){
+		while(b != 0){
+			long r = a % b;
+			a = b;
+			b = r;
+		}
+
+		return a;
+	}
+
+	/**
+	 * Returns the score vector of anti-plurality voting.
+	 *
+	 * @param k	The number of candidates.
+	 * @return One point for every position but the last.
+	 */
+	public static long[] antiPluralityScores(int k){
+		long[] scores = new long[k];
+
+		Arrays.fill(scores, 0, Math.max(0, k - 1), 1);
+
+		return scores;
+	}
+
+	/**
+	 * Returns the score vector of <i>n</i>-approval voting.
+	 *
+	 * @param k			The number of candidates.
+	 * @param approvals	The number of positions that get a point.
+	 * @return One point for each of the first <code>approvals</code>
+	 * positions.
+	 * @throws IllegalArgumentException if <code>approvals</code> is less than
+	 * 1.
+	 */
+	public static long[] approvalScores(int k, int approvals){
+		if(approvals < 1)
+			throw new IllegalArgumentException(
+					"Approvals must be at least 1: " + approvals);
+
+		long[] scores = new long[k];
+
+		Arrays.fill(scores, 0, Math.min(k, approvals), 1);
+
+		return scores;
+	}
+
+	/**
+	 * Returns a copy of the scores without trailing zeros.
+	 */
+	private static long[] trim(long[] scores){
+		int length = scores.length;
+
+		while(length > 0 && scores[length - 1] == 0)
+			length--;
+
+		return Arrays.copyOf(scores, length);
+	}
+
+	/**
+	 * Awards the points of each position of each ballot to the candidate at
+	 * that position.
+	 */
+	@Override
+	protected void setVotes(){
+		if(countable != null){
+			candVotes = countable.getScores(scores);
+			return;
+		}
+
+		ScoreTask task = new ScoreTask(voterBallots, 0, voterBallots.size(),
+				candidates.size(),
+				TallyTask.grainFor(voterBallots.size(), parallelism), scores);
+
+		candVotes = task.count(parallelism);
+	}
+
+	/**
+	 * Returns the points of each position, without trailing zeros.
+	 *
+	 * @return The score vector.
+	 */
+	public long[] getScores(){
+		return scores.clone();
+	}
+
+	@Override
+	public ElectionResult getResult(){
+		if(name == null)
+			return super.getResult();
+
+		return new ElectionResult(name, computeWinner(), candidates,
+				numVoters, candVotes, getSortedCandidateIds());
+	}
+
+	/**
+	 * Counts the points of part of the ballots.
+	 */
+	private static class ScoreTask extends TallyTask {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long[] scores;
+
+		ScoreTask(List<WeightedBallot> ballots, int from, int to, int size,
+				int grain, long[] scores){
+			super(ballots, from, to, size, grain);
+			this.scores = scores;
+		}
+
+		@Override
+		protected void accumulate(WeightedBallot weighted, long[] tally){
+			Ballot ballot = weighted.getBallot();
+			int[] ids = ballot.getIds();
+			long weight = weighted.getWeight();
+
+			//Only the positions that can score are read.
+			int n = Math.min(ballot.getBallotLength(), scores.length);
+
+			for(int i = 0; i < n; i++)
+				tally[ids[i]] += scores[i] * weight;
+		}
+
+		@Override
+		protected TallyTask subtask(int from, int to){
+			return new ScoreTask(ballots, from, to, size, grain, scores);
+		}
+	}
+} //end PositionalScoring
@@ -0,0 +1,148 @@
+package VotingSystems;
+
+import java.util.Arrays;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Ranked Pairs</b>
+ * <p>
+ * <b>Purpose:</b> To compute the winning candidate using the ranked pairs 
+ * 			method, which always elects the Condorcet winner if there is one 
+ * 			and otherwise resolves the cycles among the candidates.
+ * <p>
+ * <b>Input:</b>	The ranked ballots as an array of the <code>Ballot</code> 
+ * 			object or as a <code>BallotBox</code>.
+ * <p>
+ * <b>Output:</b>	The name of the winning candidate if one exists, else the 
+ * 			string "Tie". The output is given with <code>{@link #computeWinner()}
+ * 			</code>.
+ * <p>
+ * <b>Algorithm:</b>	The algorithm of ranked pairs is as follows:
+ * <li>Step 1: For each pair of candidates where <i>a</i> has more votes 
+ * 				against <i>b</i> than <i>b</i> has against <i>a</i>, the 
+ * 				margin is the difference of those votes.
+ * <li>Step 2: Sort the pairs by margin, largest first. Pairs with the same 
+ * 				margin are taken in order of the ID of <i>a</i>, then of 
+ * 				<i>b</i>.
+ * <li>Step 3: Lock in each pair in turn, so that <i>a</i> is ranked above 
+ * 				<i>b</i>, unless <i>b</i> is already ranked above <i>a</i> by
+ * 				the pairs locked in before it.
+ * <li>Step 4: The candidate who is not ranked below any other wins, or the 
+ * 				election is tied if there is more than one.
+ * <p>
+ * The candidates each candidate is ranked above are kept as bit sets, so 
+ * checking a pair takes constant time and locking it in takes 
+ * O(<i>k</i><sup>2</sup>/64) time for <i>k</i> candidates.
+ */
+public class RankedPairs extends Condorcet {
+
+	public RankedPairs(Ballot[] ballots){
+		super(ballots);
+	}
+
+	public RankedPairs(BallotBox ballots){
+		super(ballots);
+	}
+
+	public RankedPairs(BallotBox ballots, int parallelism){
+		super(ballots, parallelism);
+	}
+
+	public RankedPairs(BallotBox ballots, int parallelism, 
+			ElectionMetrics metrics){
+		super(ballots, parallelism, metrics);
+	}
+
+	public RankedPairs(CountableBallots ballots){
+		super(ballots);
+	}
+
+	public RankedPairs(CountableBallots ballots, ElectionMetrics metrics){
+		super(ballots, metrics);
+	}
+
+	/**
+	 * Returns the name of the only candidate who is not ranked below another 
+	 * by the locked pairs, or an empty string if there is not exactly one.
+	 */
+	@Override
+	protected String getWinner(){
+		int k = candidates.size();
+		int words = (k + 63) / 64;
+
+		//Holds the candidates each candidate is ranked above, as bit sets.
+		long[][] below = new long[k][words];
+		boolean[] isBeaten = new boolean[k];
+
+		int[] pairs = getSortedPairs();
+
+		for(int pair : pairs){
+			int a = pair / k, b = pair % k;
+
+			if((below[b][a >>> 6] & (1L << a)) != 0)
+				continue;	//b is already ranked above a.
+
+			isBeaten[b] = true;
+
+			//Everyone ranked above a, and a, are now ranked above b and
+			//everyone below b.
+			for(int c = 0; c < k; c++){
+				if(c == a || (below[c][a >>> 6] & (1L << a)) != 0){
+					long[] set = below[c];
+
+					set[b >>> 6] |= 1L << b;
+
+					for(int w = 0; w < words; w++)
+						set[w] |= below[b][w];
+				}
+			}
+		}
+
+		int winner = -1;
+
+		for(int a = 0; a < k; a++){
+			if(!isBeaten[a]){
+				if(winner != -1)
+					return "";	//More than one candidate is not beaten.
+
+				winner = a;
+			}
+		}
+
+		return winner == -1 ? "" : candidates.getName(winner);
+	}
+
+	/**
+	 * Returns the pairs won by a margin as <i>a</i> * <i>k</i> + <i>b</i>, 
+	 * sorted by margin.
+	 */
+	private int[] getSortedPairs(){
+		int k = candidates.size();
+		int n = 0;
+		int[] pairs = new int[k * (k - 1) / 2];
+		long[] margins = new long[pairs.length];
+
+		for(int a = 0; a < k; a++){
+			for(int b = 0; b < k; b++){
+				long margin = pairwise[a * k + b] - pairwise[b * k + a];
+
+				if(margin > 0){
+					pairs[n] = a * k + b;
+					margins[n++] = margin;
+				}
+			}
+		}
+
+		//Pairs are listed in order of a then b, so ties keep that order.
+		int[] order = new Ranking(Arrays.copyOf(margins, n))
+				.toArray();
+		int[] sorted = new int[n];
+
+		for(int i = 0; i < n; i++)
+			sorted[i] = pairs[order[i]];
+
+		return sorted;
+	}
+} //end RankedPairs
@@ -0,0 +1,279 @@
+package VotingSystems;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Ranking</b>
+ * <p>
+ * <b>Purpose:</b> To order the candidates by score, either all of them in 
+ * 			O(<i>k</i> log <i>k</i>) time or only the top <i>n</i> with a 
+ * 			bounded heap in O(<i>k</i> log <i>n</i>) time, working directly on
+ * 			a primitive score array.
+ * <p>
+ * <b>Input:</b>	The score of each candidate with their ID as the index, the
+ * 			number of places wanted, and optionally the order in which tied 
+ * 			candidates are listed.
+ * <p>
+ * <b>Output:</b>	The IDs of the candidates from the highest score to the 
+ * 			lowest, and the groups of candidates who are tied.
+ * <p>
+ * Tied candidates are listed by their tie priority, lowest first, which by 
+ * default is their ID. Since no two candidates share a priority, the order is
+ * always the same for the same scores.
+ */
+public class Ranking {
+
+	private final long[] scores;
+
+	/**
+	 * Holds the priority of each candidate among those tied with them, or null
+	 * to use their ID.
+	 */
+	private final int[] priorities;
+
+	/**
+	 * Holds the IDs of the listed candidates from first place to last.
+	 */
+	private final int[] order;
+
+	/**
+	 * Ranks all of the candidates, breaking ties by ID.
+	 * 
+	 * @param scores	The score of each candidate with their ID as the index.
+	 */
+	public Ranking(long[] scores){
+		this(scores, scores.length, null);
+	}
+
+	/**
+	 * Ranks the top candidates, breaking ties by ID.
+	 * 
+	 * @param scores	The score of each candidate with their ID as the index.
+	 * @param limit		The number of places wanted.
+	 */
+	public Ranking(long[] scores, int limit){
+		this(scores, limit, null);
+	}
+
+	/**
+	 * Ranks the top candidates.
+	 * 
+	 * @param scores		The score of each candidate with their ID as the 
+	 * 						index.
+	 * @param limit			The number of places wanted. If it is less than the
+	 * 						number of candidates, only that many are ranked.
+	 * @param priorities	The priority of each candidate with their ID as the
+	 * 						index, where tied candidates with a lower priority
+	 * 						are listed first. Each candidate must have a 
+	 * 						different priority. If null, the ID is used.
+	 */
+	public Ranking(long[] scores, int limit, int[] priorities){
+		this.scores = scores;
+		this.priorities = priorities;
+
+		int n = Math.max(0, Math.min(limit, scores.length));
+
+		order = n < scores.length ? top(n) : all();
+	}
+
+	/**
+	 * Checks if candidate <i>a</i> is listed before candidate <i>b</i>.
+	 */
+	private boolean before(int a, int b){
+		if(scores[a] != scores[b])
+			return scores[a] > scores[b];
+
+		return priorities == null ? a < b : priorities[a] < priorities[b];
+	}
+
+	/**
+	 * Sorts all of the candidates with a bottom-up merge sort.
+	 */
+	private int[] all(){
+		int[] a = new int[scores.length];
+		int[] b = new int[scores.length];
+
+		for(int id = 0; id < a.length; id++)
+			a[id] = id;
+
+		for(int width = 1; width < a.length; width *= 2){
+			for(int from = 0; from < a.length; from += 2 * width){
+				int middle = Math.min(from + width, a.length);
+				int to = Math.min(from + 2 * width, a.length);
+				int i = from, j = middle, n = from;
+
+				while(i < middle && j < to)
+					b[n++] = before(a[j], a[i]) ? a[j++] : a[i++];
+
+				while(i < middle)
+					b[n++] = a[i++];
+
+				while(j < to)
+					b[n++] = a[j++];
+			}
+
+			int[] swap = a;		//The merged runs become the input.
+			a = b;
+			b = swap;
+		}
+
+		return a;
+	}
+
+	/**
+	 * Finds the top <code>n</code> candidates with a heap whose root is the 
+	 * lowest of those kept so far, then sorts the heap.
+	 */
+	private int[] top(int n){
+		int[] heap = new int[n];
+		int size = 0;
+
+		for(int id = 0; id < scores.length && n > 0; id++){
+			if(size < n){
+				heap[size] = id;
+				siftUp(heap, size++);
+			} else if(before(id, heap[0])){	//Replaces the lowest kept.
+				heap[0] = id;
+				siftDown(heap, 0, size);
+			}
+		}
+
+		//Removes the lowest until the heap is empty, filling from the back.
+		for(int end = size - 1; end > 0; end--){
+			int lowest = heap[0];
+
+			heap[0] = heap[end];
+			heap[end] = lowest;
+			siftDown(heap, 0, end);
+		}
+
+		return heap;
+	}
+
+	private void siftUp(int[] heap, int i){
+		while(i > 0){
+			int parent = (i - 1) / 2;
+
+			if(!before(heap[parent], heap[i]))
+				break;
+
+			int swap = heap[parent];
+			heap[parent] = heap[i];
+			heap[i] = swap;
+			i = parent;
+		}
+	}
+
+	private void siftDown(int[] heap, int i, int size){
+		while(2 * i + 1 < size){
+			int child = 2 * i + 1;
+
+			if(child + 1 < size && before(heap[child], heap[child + 1]))
+				child++;					//The lower of the two children.
+
+			if(!before(heap[i], heap[child]))
+				break;
+
+			int swap = heap[child];
+			heap[child] = heap[i];
+			heap[i] = swap;
+			i = child;
+		}
+	}
+
+	/**
+	 * Returns the number of places in the ranking.
+	 * 
+	 * @return The number of listed candidates.
+	 */
+	public int size(){
+		return order.length;
+	}
+
+	/**
+	 * Returns the ID of the candidate at the place.
+	 * 
+	 * @param place	The place, from 0 for first.
+	 * @return The ID of the candidate.
+	 */
+	public int getCandidate(int place){
+		return order[place];
+	}
+
+	/**
+	 * Returns the score of the candidate at the place.
+	 * 
+	 * @param place	The place, from 0 for first.
+	 * @return The score of the candidate.
+	 */
+	public long getScore(int place){
+		return scores[order[place]];
+	}
+
+	/**
+	 * Checks if the candidate at the place has the same score as another 
+	 * candidate, whether or not that candidate is listed.
+	 * 
+	 * @param place	The place, from 0 for first.
+	 * @return <code>true</code> if the candidate is tied.
+	 */
+	public boolean isTied(int place){
+		long score = scores[order[place]];
+
+		if((place > 0 && scores[order[place - 1]] == score) || 
+				(place + 1 < order.length && scores[order[place + 1]] == score))
+			return true;
+
+		if(place + 1 < order.length || order.length == scores.length)
+			return false;
+
+		for(int id = 0; id < scores.length; id++){ //Checks the unlisted ones.
+			if(id != order[place] && scores[id] == score)
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the listed candidates grouped by score. Each group holds the 
+	 * IDs of candidates with the same score in the order in which they are 
+	 * listed, and the groups are in order of score. A group of one candidate 
+	 * is not tied with any listed candidate.
+	 * 
+	 * @return The groups of the listed candidates.
+	 */
+	public int[][] getTiedGroups(){
+		int groups = 0;
+
+		for(int place = 0; place < order.length; place++){
+			if(place == 0 || getScore(place) != getScore(place - 1))
+				groups++;
+		}
+
+		int[][] tied = new int[groups][];
+		int group = 0;
+
+		for(int start = 0, end; start < order.length; start = end){
+			end = start + 1;
+
+			while(end < order.length && getScore(end) == getScore(start))
+				end++;
+
+			tied[group] = new int[end - start];
+			System.arraycopy(order, start, tied[group++], 0, end - start);
+		}
+
+		return tied;
+	}
+
+	/**
+	 * Returns the IDs of the listed candidates from first place to last.
+	 * 
+	 * @return The IDs of the candidates.
+	 */
+	public int[] toArray(){
+		return order.clone();
+	}
+} //end Ranking
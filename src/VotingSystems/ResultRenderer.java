@@ -0,0 +1,81 @@
+package VotingSystems;
+
+import java.io.IOException;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Result Renderer</b>
+ * <p>
+ * <b>Purpose:</b> To write an <code>ElectionResult</code> to an 
+ * 			<code>Appendable</code>, such as a <code>Writer</code> or a 
+ * 			<code>StringBuilder</code>, in a single pass over the counts. 
+ * 			Numbers and padding are appended a character at a time so that no
+ * 			intermediate strings are built.
+ * <p>
+ * <b>Input:</b>	The result and the destination.
+ * <p>
+ * <b>Output:</b>	The result in the format of the subclass.
+ * <p>
+ * A renderer keeps a buffer for digits, so it must not be used by two threads
+ * at once.
+ */
+public abstract class ResultRenderer {
+
+	/**
+	 * Holds the digits of a number while it is appended.
+	 */
+	private final char[] digits = new char[20];
+
+	/**
+	 * Writes the result.
+	 * 
+	 * @param result	The result to be written.
+	 * @param out		The destination.
+	 * @throws IOException if the destination throws it.
+	 */
+	public abstract void render(ElectionResult result, Appendable out) 
+			throws IOException;
+
+	/**
+	 * Appends the number in decimal and returns the number of characters 
+	 * appended.
+	 */
+	protected int append(Appendable out, long value) throws IOException {
+		if(value == Long.MIN_VALUE){
+			out.append("-9223372036854775808");
+			return 20;
+		}
+
+		int length = 0;
+
+		if(value < 0){
+			out.append('-');
+			value = -value;
+			length++;
+		}
+
+		int n = 0;
+
+		do {
+			digits[n++] = (char) ('0' + value % 10);
+			value /= 10;
+		} while(value != 0);
+
+		for(int i = n - 1; i >= 0; i--)
+			out.append(digits[i]);
+
+		return length + n;
+	}
+
+	/**
+	 * Appends spaces until a field that is <code>length</code> characters 
+	 * long is <code>width</code> characters long.
+	 */
+	protected static void pad(Appendable out, int length, int width) 
+			throws IOException {
+		for(int i = length; i < width; i++)
+			out.append(' ');
+	}
+} //end ResultRenderer
@@ -0,0 +1,183 @@
+package VotingSystems;
+
+import java.util.Arrays;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Round History</b>
+ * <p>
+ * <b>Purpose:</b> To record each round of an instant runoff in primitive 
+ * 			arrays: the votes of each candidate, the votes each candidate 
+ * 			received by transfer, the candidate eliminated and the number of 
+ * 			exhausted votes.
+ * <p>
+ * <b>Input:</b>	The votes of the candidates and the exhausted votes after 
+ * 			each round, with the candidate eliminated before it.
+ * <p>
+ * <b>Output:</b>	The counts of any round. Rounds are numbered from 0, which
+ * 			is the count of first choices.
+ */
+public class RoundHistory {
+
+	/**
+	 * The number of candidates, which is the length of each row.
+	 */
+	private final int k;
+
+	private int numRounds;
+
+	/**
+	 * Holds the votes of candidate <i>c</i> in round <i>r</i> at index 
+	 * <i>r</i> * <i>k</i> + <i>c</i>.
+	 */
+	private long[] votes;
+
+	/**
+	 * Holds the votes of candidate <i>c</i> in round <i>r</i> less their 
+	 * votes in round <i>r</i> - 1, where both are continuing, at index 
+	 * <i>r</i> * <i>k</i> + <i>c</i>.
+	 */
+	private long[] transfers;
+
+	/**
+	 * Holds the ID of the candidate eliminated after each round, or -1.
+	 */
+	private int[] eliminated;
+
+	/**
+	 * Holds the number of exhausted votes in each round.
+	 */
+	private long[] exhausted;
+
+	/**
+	 * Setups an empty history.
+	 * 
+	 * @param k	The number of candidates.
+	 */
+	public RoundHistory(int k){
+		this.k = k;
+
+		int capacity = Math.max(2, k);
+
+		votes = new long[capacity * k];
+		transfers = new long[capacity * k];
+		eliminated = new int[capacity];
+		exhausted = new long[capacity];
+	}
+
+	/**
+	 * Records a round.
+	 * 
+	 * @param roundVotes	The votes of each candidate with their ID as the 
+	 * 						index.
+	 * @param eliminatedBefore	The ID of the candidate whose elimination led 
+	 * 						to this round, or -1 for the first round.
+	 * @param roundExhausted	The number of exhausted votes.
+	 */
+	void addRound(long[] roundVotes, int eliminatedBefore, long roundExhausted){
+		if(numRounds == eliminated.length){
+			int capacity = numRounds * 2;
+
+			votes = Arrays.copyOf(votes, capacity * k);
+			transfers = Arrays.copyOf(transfers, capacity * k);
+			eliminated = Arrays.copyOf(eliminated, capacity);
+			exhausted = Arrays.copyOf(exhausted, capacity);
+		}
+
+		int row = numRounds * k;
+
+		System.arraycopy(roundVotes, 0, votes, row, k);
+
+		if(numRounds > 0){
+			eliminated[numRounds - 1] = eliminatedBefore;
+
+			for(int c = 0; c < k; c++){
+				if(c != eliminatedBefore)
+					transfers[row + c] = votes[row + c] - votes[row - k + c];
+			}
+		}
+
+		eliminated[numRounds] = -1;
+		exhausted[numRounds] = roundExhausted;
+		numRounds++;
+	}
+
+	/**
+	 * Returns the number of rounds.
+	 * 
+	 * @return The number of rounds.
+	 */
+	public int getNumRounds(){
+		return numRounds;
+	}
+
+	/**
+	 * Returns the number of candidates.
+	 * 
+	 * @return The number of candidates.
+	 */
+	public int getNumCandidates(){
+		return k;
+	}
+
+	/**
+	 * Returns the votes of the candidate in the round.
+	 * 
+	 * @param round		The round, from 0.
+	 * @param candidate	The ID of the candidate.
+	 * @return The votes, which are 0 once the candidate is eliminated.
+	 */
+	public long getVotes(int round, int candidate){
+		checkRound(round);
+
+		return votes[round * k + candidate];
+	}
+
+	/**
+	 * Returns the votes the candidate received by transfer at the start of the
+	 * round.
+	 * 
+	 * @param round		The round, from 0.
+	 * @param candidate	The ID of the candidate.
+	 * @return The votes transferred to the candidate, which are 0 in the first
+	 * round and for the candidate just eliminated.
+	 */
+	public long getTransfers(int round, int candidate){
+		checkRound(round);
+
+		return transfers[round * k + candidate];
+	}
+
+	/**
+	 * Returns the candidate eliminated at the end of the round.
+	 * 
+	 * @param round	The round, from 0.
+	 * @return The ID of the candidate, or -1 if the runoff ended in that round.
+	 */
+	public int getEliminated(int round){
+		checkRound(round);
+
+		return eliminated[round];
+	}
+
+	/**
+	 * Returns the number of votes in the round whose ballots rank no 
+	 * continuing candidate.
+	 * 
+	 * @param round	The round, from 0.
+	 * @return The exhausted votes.
+	 */
+	public long getExhausted(int round){
+		checkRound(round);
+
+		return exhausted[round];
+	}
+
+	private void checkRound(int round){
+		if(round < 0 || round >= numRounds)
+			throw new IndexOutOfBoundsException("Round: " + round + 
+					", Rounds: " + numRounds);
+	}
+} //end RoundHistory
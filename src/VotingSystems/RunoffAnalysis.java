@@ -0,0 +1,959 @@
+package VotingSystems;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Runoff Analysis</b>
+ * <p>
+ * <b>Purpose:</b> To report how close the result of an instant runoff was:
+ * 			the margin of each elimination, and how many ballots would have to
+ * 			be changed for another candidate to win.
+ * <p>
+ * <b>Input:</b>	The distinct rankings of the election as a
+ * 			<code>BallotBox</code>, with at most 63 candidates.
+ * <p>
+ * <b>Output:</b>	The winner, the vote gap behind each elimination, and a
+ * 			lower and an upper bound on the margin of victory, which is the
+ * 			fewest voters who must change their ballots for a candidate other
+ * 			than the winner to win. If the bounds are equal the margin is
+ * 			exact.
+ * <p>
+ * <b>Algorithm:</b>	Finding the margin exactly takes integer programming,
+ * 			so it is bounded from both sides instead. The votes in a round 
+ * 			only depend on which candidates remain, and a changed ballot takes
+ * 			at most one vote from one candidate and gives at most one to 
+ * 			another in each round, so changing the votes of a round into 
+ * 			others takes at least the larger of the votes lost and the votes
+ * 			gained. Another candidate is elected from a round by eliminating 
+ * 			the winner there, or by stopping the runoff with another candidate
+ * 			ahead, at a majority or at a tie for the fewest votes. The 
+ * 			cheapest votes for each are found by searching the level that the 
+ * 			candidates are brought to:
+ * <li>The upper bound makes the cheapest of these changes in a round with
+ * 				real ballots. A candidate's lost votes are taken from ballots
+ * 				whose current choice they are, first from those ranking them
+ * 				first, and each changed ballot ranks the candidate it now
+ * 				votes for first and keeps the rest of its ranking, or failing
+ * 				that ranks only them. Each change is counted again with
+ * 				<code>InstantRunoff</code>, and the smallest that elects 
+ * 				another candidate is the bound. The rounds tried are those of
+ * 				the runoff, and then the cheapest of the sets of remaining
+ * 				candidates counted by the search below.
+ * <li>The lower bound searches every order of elimination. Eliminating
+ * 				<i>c</i> takes the cheapest votes with which <i>c</i> has
+ * 				fewer than every other remaining candidate and no one has a
+ * 				majority, and an order that elects another candidate takes at
+ * 				least the largest such cost until it eliminates the winner or
+ * 				stops with another candidate ahead. The orders are searched
+ * 				one round at a time over the sets of remaining candidates, and
+ * 				a set is dropped once its cost reaches the best bound found,
+ * 				which is the upper bound at first and falls whenever an order
+ * 				elects another candidate. The sets of each round are counted
+ * 				in parallel on a <code>ForkJoinPool</code>, each from a
+ * 				<code>BallotTrie</code> of the rankings.
+ * <p>
+ * The lower bound only counts how many votes each change moves in each round,
+ * not which ballots could make every round's moves at once, so the bounds may
+ * still differ in close elections.
+ */
+public class RunoffAnalysis {
+
+	/**
+	 * The most candidates, so that each set of remaining candidates fits in
+	 * the bits of a long.
+	 */
+	private static final int MAX_CANDIDATES = 63;
+
+	/**
+	 * The most sets of remaining candidates counted by one task without
+	 * splitting.
+	 */
+	private static final int GRAIN = 32;
+
+	/**
+	 * The most extra voters tried when a change to the ballots ties rather
+	 * than elects another candidate.
+	 */
+	private static final int MAX_EXTRA = 2;
+
+	/**
+	 * The most changes to the ballots that are counted again for each try at
+	 * the upper bound.
+	 */
+	private static final int MAX_RECOUNTS = 64;
+
+	private final BallotBox ballots;
+
+	private final BallotTrie trie;
+
+	private final int k;
+
+	/**
+	 * The number of votes that is not a majority.
+	 */
+	private final long half;
+
+	private final String winner;
+
+	/**
+	 * The ID of the winner, or -1 if there is none.
+	 */
+	private final int winnerId;
+
+	/**
+	 * Holds the gap between the eliminated candidate and the next lowest in
+	 * each round, where index <i>r</i> is the elimination of round <i>r</i>
+	 * + 1.
+	 */
+	private final long[] eliminationMargins;
+
+	private long upperBound, lowerBound;
+
+	/**
+	 * The number of sets of remaining candidates that were counted.
+	 */
+	private final AtomicLong states = new AtomicLong();
+
+	/**
+	 * The best lower bound of the orders searched so far.
+	 */
+	private final AtomicLong bound = new AtomicLong();
+
+	/**
+	 * Holds each set of remaining candidates that the search counted, with
+	 * the fewest voters who could elect another candidate from that round if
+	 * they are less than the upper bound.
+	 */
+	private final ConcurrentLinkedQueue<long[]> rounds = 
+			new ConcurrentLinkedQueue<long[]>();
+
+	/**
+	 * Analyzes the runoff with one thread per available processor.
+	 *
+	 * @param ballots	The ballots of the election.
+	 * @throws IllegalArgumentException if there are more than 63 candidates.
+	 */
+	public RunoffAnalysis(BallotBox ballots){
+		this(ballots, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Analyzes the runoff with the specified number of threads.
+	 *
+	 * @param ballots		The ballots of the election.
+	 * @param parallelism	The number of threads, where 1 searches in the
+	 * 						calling thread.
+	 * @throws IllegalArgumentException if <code>parallelism</code> is less
+	 * than 1 or there are more than 63 candidates.
+	 */
+	public RunoffAnalysis(BallotBox ballots, int parallelism){
+		if(parallelism < 1)
+			throw new IllegalArgumentException(
+					"Parallelism must be at least 1: " + parallelism);
+
+		if(ballots.getCandidates().size() > MAX_CANDIDATES)
+			throw new IllegalArgumentException("At most " + MAX_CANDIDATES +
+					" candidates can be analyzed: " +
+					ballots.getCandidates().size());
+
+		this.ballots = ballots;
+		this.trie = new BallotTrie(ballots);
+		this.k = ballots.getCandidates().size();
+		this.half = ballots.getTotalWeight() / 2;
+
+		InstantRunoff runoff = new InstantRunoff(ballots);
+		RoundHistory history = runoff.getHistory();
+
+		winner = runoff.computeWinner();
+		winnerId = ballots.getCandidates().getId(winner);
+		eliminationMargins = eliminationMargins(history);
+
+		if(winnerId == -1){				//A tie is already no winner.
+			upperBound = lowerBound = 0;
+		} else if(k < 2){				//No one else can win.
+			upperBound = lowerBound = Long.MAX_VALUE;
+		} else {
+			upperBound = recount(runoffRounds(history), 
+					ballots.getTotalWeight());	//Everyone votes for another.
+			lowerBound = search(parallelism);
+			upperBound = recount(new ArrayList<long[]>(rounds), upperBound);
+			lowerBound = Math.min(lowerBound, upperBound);
+		}
+	}
+
+	/**
+	 * Returns the gap behind the elimination of each round.
+	 */
+	private long[] eliminationMargins(RoundHistory history){
+		long[] margins = new long[history.getNumRounds() - 1];
+		boolean[] eliminated = new boolean[k];
+
+		for(int round = 1; round < history.getNumRounds(); round++){
+			int lowest = history.getEliminated(round - 1);
+			long next = Long.MAX_VALUE;
+
+			for(int c = 0; c < k; c++){
+				if(c != lowest && !eliminated[c])
+					next = Math.min(next, history.getVotes(round - 1, c));
+			}
+
+			margins[round - 1] = next == Long.MAX_VALUE ? 0 :
+					next - history.getVotes(round - 1, lowest);
+			eliminated[lowest] = true;
+		}
+
+		return margins;
+	}
+
+	/**
+	 * Returns each round of the runoff with the fewest voters who could elect
+	 * another candidate from it.
+	 */
+	private List<long[]> runoffRounds(RoundHistory history){
+		List<long[]> found = new ArrayList<long[]>();
+		long remaining = (1L << k) - 1;
+
+		for(int round = 0; round < history.getNumRounds(); round++){
+			if(round > 0)
+				remaining &= ~(1L << history.getEliminated(round - 1));
+
+			long[] votes = count(remaining);
+			long cheapest = stopCost(votes);
+			long[] target = eliminate(votes, winnerId, 0);
+
+			if(target != null)
+				cheapest = Math.min(cheapest, cost(votes, target));
+
+			found.add(new long[]{ remaining, cheapest });
+		}
+
+		return found;
+	}
+
+	/**
+	 * Tries the rounds in order of the fewest voters who could elect another
+	 * candidate from them, and returns the upper bound lowered to the best
+	 * change that elects another candidate when counted again.
+	 */
+	private long recount(List<long[]> found, long best){
+		int recounts = 0;
+
+		Collections.sort(found, new Comparator<long[]>(){
+			@Override
+			public int compare(long[] a, long[] b){
+				return Long.compare(a[1], b[1]);
+			}
+		});
+
+		for(long[] round : found){
+			if(round[1] >= best || recounts >= MAX_RECOUNTS)
+				break;
+
+			long[] votes = count(round[0]);
+
+			tries:
+			for(int extra = 0; extra <= MAX_EXTRA; extra++){
+				for(long[] target : changes(votes, extra)){
+					long cost = cost(votes, target);
+
+					//Full rankings first, then ballots that rank only one.
+					for(int bullet = 0; bullet < 2 && cost < best &&
+							recounts < MAX_RECOUNTS; bullet++){
+						recounts++;
+
+						if(electsAnother(round[0], votes, target, bullet == 1)){
+							best = cost;
+							break tries;
+						}
+					}
+				}
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Returns the votes of each candidate in the round where the set of
+	 * candidates remain, with -1 for the others.
+	 */
+	private long[] count(long remaining){
+		long[] votes = new long[k];
+
+		trie.tally(remaining, votes);
+
+		for(int c = 0; c < k; c++){
+			if((remaining >>> c & 1) == 0)
+				votes[c] = -1;
+		}
+
+		return votes;
+	}
+
+	/**
+	 * Returns the changes to the votes of the round that would elect another
+	 * candidate from it, cheapest first: eliminating the winner, and
+	 * stopping the runoff with another candidate ahead. Each is made
+	 * <code>extra</code> votes safer than it needs to be.
+	 */
+	private List<long[]> changes(final long[] votes, long extra){
+		List<long[]> targets = stops(votes, extra);
+		long[] target = eliminate(votes, winnerId, extra);
+
+		if(target != null)
+			targets.add(target);
+
+		Collections.sort(targets, new Comparator<long[]>(){
+			@Override
+			public int compare(long[] a, long[] b){
+				return Long.compare(cost(votes, a), cost(votes, b));
+			}
+		});
+
+		return targets;
+	}
+
+	/**
+	 * Returns the fewest voters who could stop the runoff in the round with
+	 * another candidate ahead of the winner, or <code>Long.MAX_VALUE</code>.
+	 */
+	private long stopCost(long[] votes){
+		long least = Long.MAX_VALUE;
+
+		for(long[] target : stops(votes, 0))
+			least = Math.min(least, cost(votes, target));
+
+		return least;
+	}
+
+	/**
+	 * Returns the votes that stop the runoff in the round with another
+	 * candidate ahead of the winner: a majority for the strongest of the
+	 * others, and the cheapest tie for the fewest votes behind each of them.
+	 */
+	private List<long[]> stops(long[] votes, long extra){
+		List<long[]> targets = new ArrayList<long[]>();
+		int rival = -1;
+
+		for(int c = 0; c < k; c++){
+			if(c == winnerId || votes[c] < 0)
+				continue;
+
+			if(rival == -1 || votes[c] > votes[rival])
+				rival = c;
+
+			long[] target = tie(votes, c, extra);
+
+			if(target != null)
+				targets.add(target);
+		}
+
+		if(rival != -1){
+			long[] target = votes.clone();
+			long needed = half + 1 + extra - votes[rival];
+
+			if(needed > 0){
+				target[rival] += needed;
+				take(target, rival, needed);
+			}
+
+			targets.add(target);
+		}
+
+		return targets;
+	}
+
+	/**
+	 * Takes the votes the rival gains from the winner, then from the others
+	 * with the most, so that the target loses as many votes as it gains.
+	 */
+	private void take(long[] target, int rival, long taken){
+		long fromWinner = Math.min(taken, target[winnerId]);
+
+		target[winnerId] -= fromWinner;
+		taken -= fromWinner;
+
+		while(taken > 0){
+			int most = -1;
+
+			for(int c = 0; c < k; c++){
+				if(c != rival && target[c] > 0 &&
+						(most == -1 || target[c] > target[most]))
+					most = c;
+			}
+
+			if(most == -1)
+				return;
+
+			target[most]--;
+			taken--;
+		}
+	}
+
+	/**
+	 * Returns the cheapest votes with which candidate c has fewer votes than
+	 * each other remaining candidate, by at least <code>extra</code> + 1, and
+	 * no one has a majority, or null if there are none. The other candidates
+	 * have more than a level that c is brought down to, and the level is
+	 * searched for where the votes gained stop being fewer than those lost.
+	 */
+	private long[] eliminate(long[] votes, int c, long extra){
+		long low = 0, high = Math.min(votes[c], half - 1 - extra);
+
+		if(high < 0)
+			return null;
+
+		while(low < high){				//Gains grow and losses fall.
+			long level = (low + high) >>> 1;
+			long[] target = eliminate(votes, c, level, extra);
+
+			if(gained(votes, target) >= lost(votes, target))
+				high = level;
+			else
+				low = level + 1;
+		}
+
+		long[] target = eliminate(votes, c, low, extra);
+
+		if(low > 0){
+			long[] below = eliminate(votes, c, low - 1, extra);
+
+			if(cost(votes, below) < cost(votes, target))
+				target = below;
+		}
+
+		return target;
+	}
+
+	private long[] eliminate(long[] votes, int c, long level, long extra){
+		long[] target = votes.clone();
+
+		for(int id = 0; id < k; id++){
+			if(id == c)
+				target[id] = Math.min(votes[id], level);
+			else if(votes[id] >= 0)
+				target[id] = Math.min(Math.max(votes[id], level + 1 + extra),
+						half);
+		}
+
+		return target;
+	}
+
+	/**
+	 * Returns the cheapest votes with which the two lowest candidates other
+	 * than <code>leader</code> are tied for the fewest votes while the leader
+	 * has more than every other candidate, by at least <code>extra</code> + 1,
+	 * or null if fewer than three candidates remain. The cost is convex in
+	 * the leader's level, which is searched by thirds, and the tied level
+	 * under each is searched as for an elimination.
+	 */
+	private long[] tie(long[] votes, int leader, long extra){
+		int a = -1, b = -1;
+		long top = 0;
+
+		for(int c = 0; c < k; c++){
+			if(votes[c] < 0)
+				continue;
+
+			top = Math.max(top, votes[c]);
+
+			if(c == leader)
+				continue;
+
+			if(a == -1 || votes[c] < votes[a]){
+				b = a;
+				a = c;
+			} else if(b == -1 || votes[c] < votes[b]){
+				b = c;
+			}
+		}
+
+		if(b == -1)
+			return null;
+
+		long low = 1, high = top + 1;
+
+		while(high - low > 2){
+			long first = low + (high - low) / 3;
+			long second = high - (high - low) / 3;
+
+			if(cost(votes, tie(votes, leader, a, b, first, extra)) <=
+					cost(votes, tie(votes, leader, a, b, second, extra)))
+				high = second;
+			else
+				low = first;
+		}
+
+		long[] best = null;
+
+		for(long level = low; level <= high; level++){
+			long[] target = tie(votes, leader, a, b, level, extra);
+
+			if(best == null || cost(votes, target) < cost(votes, best))
+				best = target;
+		}
+
+		return best;
+	}
+
+	/**
+	 * Returns the cheapest votes with the leader at the level or above, the
+	 * others below it, and <code>a</code> and <code>b</code> tied for the
+	 * fewest.
+	 */
+	private long[] tie(long[] votes, int leader, int a, int b, long level,
+			long extra){
+		long low = 0, high = level - 1;
+
+		while(low < high){				//Gains grow and losses fall.
+			long tied = (low + high) >>> 1;
+			long[] target = tie(votes, leader, a, b, level, tied, extra);
+
+			if(gained(votes, target) >= lost(votes, target))
+				high = tied;
+			else
+				low = tied + 1;
+		}
+
+		long[] target = tie(votes, leader, a, b, level, low, extra);
+
+		if(low > 0){
+			long[] below = tie(votes, leader, a, b, level, low - 1, extra);
+
+			if(cost(votes, below) < cost(votes, target))
+				target = below;
+		}
+
+		return target;
+	}
+
+	private long[] tie(long[] votes, int leader, int a, int b, long level,
+			long tied, long extra){
+		long[] target = votes.clone();
+
+		for(int id = 0; id < k; id++){
+			if(id == a || id == b)
+				target[id] = tied;
+			else if(id == leader)
+				target[id] = Math.max(votes[id], level + extra);
+			else if(votes[id] >= 0)
+				target[id] = Math.min(Math.max(votes[id], tied), level - 1);
+		}
+
+		return target;
+	}
+
+	/**
+	 * Returns the fewest voters who could change the votes of a round into
+	 * the target, since each changed ballot takes at most one vote from one
+	 * candidate and gives at most one to another.
+	 */
+	private static long cost(long[] votes, long[] target){
+		return Math.max(lost(votes, target), gained(votes, target));
+	}
+
+	private static long lost(long[] votes, long[] target){
+		long lost = 0;
+
+		for(int c = 0; c < votes.length; c++)
+			lost += Math.max(0, votes[c] - target[c]);
+
+		return lost;
+	}
+
+	private static long gained(long[] votes, long[] target){
+		long gained = 0;
+
+		for(int c = 0; c < votes.length; c++)
+			gained += Math.max(0, target[c] - votes[c]);
+
+		return gained;
+	}
+
+	/**
+	 * Changes ballots so that the round with the set of remaining candidates
+	 * has the target votes, and counts the runoff again. The votes lost by
+	 * each candidate are taken from ballots whose current choice they are,
+	 * those that rank them first before the others so that the earlier rounds
+	 * lose the same votes. A loss with no gain to match goes to the strongest
+	 * of the other candidates, and a gain with no loss to match is taken from
+	 * ballots that rank no remaining candidate. A changed ballot ranks the
+	 * candidate it now gives its vote to first, followed by the rest of its
+	 * old ranking, or ranks only that candidate if <code>bullet</code>.
+	 *
+	 * @return <code>true</code> if the changes can be made and elect another
+	 * candidate.
+	 */
+	private boolean electsAnother(long remaining, long[] votes, long[] target,
+			boolean bullet){
+		long[] lose = new long[k], gain = new long[k];
+		long lost = 0, gained = 0;
+		int strongest = -1;
+
+		for(int c = 0; c < k; c++){
+			if(votes[c] < 0)
+				continue;
+
+			lose[c] = Math.max(0, votes[c] - target[c]);
+			gain[c] = Math.max(0, target[c] - votes[c]);
+			lost += lose[c];
+			gained += gain[c];
+
+			if(c != winnerId && (strongest == -1 ||
+					target[c] > target[strongest]))
+				strongest = c;
+		}
+
+		if(strongest == -1)
+			return false;
+
+		if(lost > gained){
+			gain[strongest] += lost - gained;
+			gained = lost;
+		}
+
+		long fromExhausted = gained - lost;
+		List<WeightedBallot> list = new ArrayList<WeightedBallot>();
+
+		for(WeightedBallot weighted : ballots)
+			list.add(weighted);
+
+		long[] taken = new long[list.size()];
+
+		for(int pass = 0; pass < 2; pass++){
+			for(int i = 0; i < list.size(); i++){
+				Ballot ballot = list.get(i).getBallot();
+				long left = list.get(i).getWeight() - taken[i];
+				int choice = 0;
+
+				while(choice < ballot.getBallotLength() && (remaining >>>
+						ballot.getCandidateId(choice) & 1) == 0)
+					choice++;
+
+				long move;
+
+				if(choice == ballot.getBallotLength()){
+					move = pass == 1 ? Math.min(left, fromExhausted) : 0;
+					fromExhausted -= move;
+				} else {
+					int c = ballot.getCandidateId(choice);
+
+					move = pass == 1 || choice == 0 ? Math.min(left, lose[c]) : 0;
+					lose[c] -= move;
+				}
+
+				taken[i] += move;
+			}
+		}
+
+		for(int c = 0; c < k; c++){
+			if(lose[c] > 0)
+				return false;
+		}
+
+		if(fromExhausted > 0)
+			return false;
+
+		BallotBox changed = new BallotBox(ballots.getCandidates());
+		int[] ids = new int[k + 1];
+		int to = 0;
+
+		for(int i = 0; i < list.size(); i++){
+			Ballot ballot = list.get(i).getBallot();
+			int length = ballot.getBallotLength();
+
+			for(int j = 0; j < length; j++)
+				ids[j] = ballot.getCandidateId(j);
+
+			if(list.get(i).getWeight() > taken[i])
+				changed.add(ids, length, list.get(i).getWeight() - taken[i]);
+
+			for(long left = taken[i]; left > 0;){
+				while(gain[to] == 0)
+					to++;
+
+				long moved = Math.min(left, gain[to]);
+				int n = 1;
+
+				ids[0] = to;
+
+				for(int j = 0; j < length && !bullet; j++){
+					if(ballot.getCandidateId(j) != to)
+						ids[n++] = ballot.getCandidateId(j);
+				}
+
+				changed.add(ids, n, moved);
+				gain[to] -= moved;
+				left -= moved;
+			}
+		}
+
+		String other = new InstantRunoff(changed).computeWinner();
+
+		return !other.equals(winner) && !other.equals("Tie");
+	}
+
+	/**
+	 * Searches the orders of elimination one round at a time and returns the
+	 * least cost of an order that eliminates the winner, or the upper bound
+	 * if none costs less.
+	 */
+	private long search(int parallelism){
+		Map<Long, Long> layer = new HashMap<Long, Long>();
+
+		layer.put((1L << k) - 1, 0L);		//Every candidate remains.
+		bound.set(upperBound);
+
+		ForkJoinPool pool = parallelism > 1 ?
+				new ForkJoinPool(parallelism) : null;
+
+		try {
+			while(!layer.isEmpty()){
+				long[] sets = new long[layer.size()];
+				long[] costs = new long[layer.size()];
+				int n = 0;
+
+				for(Map.Entry<Long, Long> entry : layer.entrySet()){
+					sets[n] = entry.getKey();
+					costs[n++] = entry.getValue();
+				}
+
+				LayerTask task = new LayerTask(sets, costs, 0, n);
+
+				layer = pool == null || n <= GRAIN ? task.compute() :
+						pool.invoke(task);
+			}
+		} finally {
+			if(pool != null)
+				pool.shutdown();
+		}
+
+		return bound.get();
+	}
+
+	/**
+	 * Counts part of the sets of remaining candidates of one round, and
+	 * returns the sets of the next round with the least cost of reaching
+	 * each.
+	 */
+	private class LayerTask extends RecursiveTask<Map<Long, Long>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long[] sets, costs;
+
+		private final int from, to;
+
+		LayerTask(long[] sets, long[] costs, int from, int to){
+			this.sets = sets;
+			this.costs = costs;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Map<Long, Long> compute(){
+			if(to - from > GRAIN){
+				int middle = (from + to) >>> 1;
+
+				LayerTask left = new LayerTask(sets, costs, from, middle);
+				left.fork();
+
+				Map<Long, Long> next = new LayerTask(sets, costs, middle, to)
+						.compute();
+				Map<Long, Long> other = left.join();
+
+				if(other.size() > next.size()){
+					Map<Long, Long> swap = next;
+					next = other;
+					other = swap;
+				}
+
+				for(Map.Entry<Long, Long> entry : other.entrySet())
+					keepLeast(next, entry.getKey(), entry.getValue());
+
+				return next;
+			}
+
+			Map<Long, Long> next = new HashMap<Long, Long>();
+			long[] votes = new long[k];
+
+			for(int s = from; s < to; s++)
+				expand(sets[s], costs[s], votes, next);
+
+			return next;
+		}
+
+		/**
+		 * Adds each set that follows the set by one elimination.
+		 */
+		private void expand(long remaining, long cost, long[] votes,
+				Map<Long, Long> next){
+			if(cost >= bound.get())		//Found cheaper since it was added.
+				return;
+
+			states.incrementAndGet();
+
+			for(int c = 0; c < k; c++)
+				votes[c] = 0;
+
+			trie.tally(remaining, votes);
+
+			for(int c = 0; c < k; c++){
+				if((remaining >>> c & 1) == 0)
+					votes[c] = -1;
+			}
+
+			//The runoff could stop here with another candidate ahead of the
+			//winner, once one has a majority or two are tied for the fewest.
+			long stop = stopCost(votes);
+			long cheapest = stop;
+
+			lower(Math.max(cost, stop));
+
+			for(int c = 0; c < k; c++){
+				if(votes[c] < 0)
+					continue;
+
+				//Strictly fewer votes than the rest, and no majority.
+				long[] target = eliminate(votes, c, 0);
+
+				if(target == null)
+					continue;
+
+				long total = Math.max(cost, cost(votes, target));
+
+				if(c == winnerId){
+					cheapest = Math.min(cheapest, cost(votes, target));
+					lower(total);		//Any order from here elects another.
+					continue;
+				}
+
+				if(total >= bound.get())
+					continue;
+
+				long rest = remaining & ~(1L << c);
+
+				if(Long.bitCount(rest) > 1)	//Else only the winner is left.
+					keepLeast(next, rest, total);
+			}
+
+			if(cheapest < upperBound)
+				rounds.add(new long[]{ remaining, cheapest });
+		}
+	}
+
+	/**
+	 * Lowers the bound to the cost if it is less.
+	 */
+	private void lower(long cost){
+		long current;
+
+		while(cost < (current = bound.get()) &&
+				!bound.compareAndSet(current, cost));
+	}
+
+	private static void keepLeast(Map<Long, Long> costs, long set, long cost){
+		Long current = costs.get(set);
+
+		if(current == null || cost < current)
+			costs.put(set, cost);
+	}
+
+	/**
+	 * Returns the winner of the runoff.
+	 *
+	 * @return If a winner exists, the name of the winning candidate; otherwise,
+	 * the string "Tie".
+	 */
+	public String getWinner(){
+		return winner;
+	}
+
+	/**
+	 * Returns the gap in votes between the candidate eliminated in each round
+	 * and the next lowest candidate then. Half of a gap, rounded up, is the
+	 * fewest voters who could have changed who was eliminated.
+	 *
+	 * @return The gap of each elimination in order.
+	 */
+	public long[] getEliminationMargins(){
+		return eliminationMargins.clone();
+	}
+
+	/**
+	 * Returns the least number of voters who could elect another candidate
+	 * by changing their ballots.
+	 *
+	 * @return The lower bound of the margin of victory, 0 if there is no
+	 * winner, or <code>Long.MAX_VALUE</code> if there is no other candidate.
+	 */
+	public long getLowerBound(){
+		return lowerBound;
+	}
+
+	/**
+	 * Returns the number of voters who were found to elect another candidate
+	 * by changing their ballots.
+	 *
+	 * @return The upper bound of the margin of victory, 0 if there is no
+	 * winner, or <code>Long.MAX_VALUE</code> if there is no other candidate.
+	 */
+	public long getUpperBound(){
+		return upperBound;
+	}
+
+	/**
+	 * Checks if the margin of victory is known exactly.
+	 *
+	 * @return <code>true</code> if the bounds are equal.
+	 */
+	public boolean isExact(){
+		return lowerBound == upperBound;
+	}
+
+	/**
+	 * Returns the number of sets of remaining candidates that were counted
+	 * by the search.
+	 *
+	 * @return The number of sets counted.
+	 */
+	public long getStatesExplored(){
+		return states.get();
+	}
+
+	/**
+	 * Returns a summary of the analysis.
+	 */
+	@Override
+	public String toString(){
+		StringBuilder summary = new StringBuilder();
+
+		summary.append("Winner: ").append(winner).append('\n');
+		summary.append("Elimination margins:");
+
+		for(long margin : eliminationMargins)
+			summary.append(' ').append(margin);
+
+		summary.append("\nMargin of victory: ");
+
+		if(isExact())
+			summary.append(lowerBound);
+		else
+			summary.append(lowerBound).append(" to ").append(upperBound);
+
+		return summary.append('\n').toString();
+	}
+} //end RunoffAnalysis
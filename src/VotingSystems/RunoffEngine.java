@@ -0,0 +1,383 @@
+package VotingSystems;
+
+import java.util.List;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Runoff Engine</b>
+ * <p>
+ * <b>Purpose:</b> To count the rounds of an instant runoff without rescanning
+ * 			or changing the ballots. The ballots are kept in buckets by their
+ * 			current choice, which is the first candidate on the ballot who has 
+ * 			not been eliminated. Each ballot has a cursor that points to its
+ * 			current choice. When a candidate is eliminated only the ballots in 
+ * 			their bucket are moved, so the work of a whole runoff is roughly 
+ * 			the number of ballots plus the number of transfers.
+ * <p>
+ * <b>Input:</b>	The weighted ballots and the number of candidates in the 
+ * 			dictionary the ballots take their IDs from.
+ * <p>
+ * <b>Output:</b>	The votes of each candidate after each elimination, and 
+ * 			a <code>RoundHistory</code> of every round.
+ * <p>
+ * <code>BallotTrie.runoff()</code> returns a subclass that moves ballots by 
+ * splicing the subtrees of a prefix trie instead. A subclass that keeps the
+ * ballots as arrays of IDs can still use the buckets by overriding the
+ * methods that read a ballot and calling <code>placeBallots(int)</code>.
+ */
+public class RunoffEngine {
+	/**
+	 * Holds the ballots being counted.
+	 */
+	private WeightedBallot[] ballots;
+
+	/**
+	 * Holds the index of the current choice on each ballot, where the index
+	 * of this array is the index of the ballot in <code>ballots</code>.
+	 */
+	private int[] cursors;
+
+	/**
+	 * Holds the indices of the ballots whose current choice is each candidate,
+	 * where the first index is the candidate's ID.
+	 */
+	private int[][] buckets;
+
+	/**
+	 * Holds the number of ballots in each bucket.
+	 */
+	private int[] bucketSizes;
+
+	/**
+	 * Holds the votes of each candidate with their ID as the index.
+	 */
+	protected final long[] votes;
+
+	/**
+	 * Holds whether each candidate has been eliminated.
+	 */
+	private final boolean[] eliminated;
+
+	/**
+	 * The number of candidates who have not been eliminated.
+	 */
+	private int remaining;
+
+	/**
+	 * The number of voters whose ballots rank no remaining candidate.
+	 */
+	protected long exhausted;
+
+	/**
+	 * Holds the counts of every round so far.
+	 */
+	private RoundHistory history;
+
+	/**
+	 * The number of ballots given to <code>add(WeightedBallot)</code>.
+	 */
+	private int added;
+
+	/**
+	 * Setups the engine and counts the first choice of each ballot.
+	 * 
+	 * @param ballots		The ballots to be counted. They are not changed.
+	 * @param numCandidates	The number of candidates in the dictionary of the
+	 * 						ballots.
+	 */
+	public RunoffEngine(List<WeightedBallot> ballots, int numCandidates){
+		this(numCandidates);
+
+		this.ballots = ballots.toArray(new WeightedBallot[ballots.size()]);
+
+		placeBallots(this.ballots.length);
+	}
+
+	/**
+	 * Setups an engine to which the ballots are added one at a time with
+	 * <code>add(WeightedBallot)</code>, so that the first round is counted in
+	 * a pass over the ballots that also counts other methods, as by
+	 * <code>ElectionEvaluator</code>. <code>recordFirstRound()</code> must be
+	 * called after the last ballot is added.
+	 * 
+	 * @param numBallots	The number of ballots to be added.
+	 * @param numCandidates	The number of candidates in the dictionary of the
+	 * 						ballots.
+	 */
+	RunoffEngine(int numBallots, int numCandidates){
+		this(numCandidates);
+
+		ballots = new WeightedBallot[numBallots];
+		initBuckets(numBallots);
+	}
+
+	/**
+	 * Setups an engine with no votes for a subclass that keeps the ballots 
+	 * in its own way. The subclass must either set the votes and exhausted 
+	 * votes of the first round and then call <code>recordFirstRound()</code>,
+	 * or override the methods that read a ballot and then call 
+	 * <code>placeBallots(int)</code>.
+	 * 
+	 * @param numCandidates	The number of candidates in the dictionary of the
+	 * 						ballots.
+	 */
+	protected RunoffEngine(int numCandidates){
+		votes = new long[numCandidates];
+		eliminated = new boolean[numCandidates];
+		remaining = numCandidates;
+	}
+
+	/**
+	 * Adds each ballot to the bucket of its first choice and starts the 
+	 * history with the votes of the first round. The ballots are read with
+	 * <code>getBallotLength(int)</code>, <code>getCandidateId(int, int)</code>
+	 * and <code>getBallotWeight(int)</code>.
+	 * 
+	 * @param numBallots	The number of ballots, which are numbered from 0.
+	 */
+	protected void placeBallots(int numBallots){
+		initBuckets(numBallots);
+
+		for(int b = 0; b < numBallots; b++)
+			place(b);
+
+		recordFirstRound();
+	}
+
+	private void initBuckets(int numBallots){
+		int numCandidates = votes.length;
+
+		cursors = new int[numBallots];
+		buckets = new int[numCandidates][];
+		bucketSizes = new int[numCandidates];
+
+		for(int i = 0; i < numCandidates; i++)
+			buckets[i] = new int[4];
+	}
+
+	/**
+	 * Adds the next ballot to the bucket of its first choice.
+	 * 
+	 * @param ballot	The ballot, which is not changed.
+	 * @throws ArrayIndexOutOfBoundsException if more ballots are added than
+	 * the engine was made for.
+	 */
+	void add(WeightedBallot ballot){
+		ballots[added] = ballot;
+		place(added++);
+	}
+
+	/**
+	 * Returns the number of candidates on a ballot.
+	 * 
+	 * @param b	The number of the ballot.
+	 * @return The length of the ballot.
+	 */
+	protected int getBallotLength(int b){
+		return ballots[b].getBallot().getBallotLength();
+	}
+
+	/**
+	 * Returns the ID of the candidate at the index of a ballot.
+	 * 
+	 * @param b		The number of the ballot.
+	 * @param index	The rank of the candidate, where 0 is first.
+	 * @return The ID of the candidate.
+	 */
+	protected int getCandidateId(int b, int index){
+		return ballots[b].getBallot().getCandidateId(index);
+	}
+
+	/**
+	 * Returns the number of voters who cast a ballot.
+	 * 
+	 * @param b	The number of the ballot.
+	 * @return The weight of the ballot.
+	 */
+	protected long getBallotWeight(int b){
+		return ballots[b].getWeight();
+	}
+
+	/**
+	 * Starts the history with the votes of the first round.
+	 */
+	protected void recordFirstRound(){
+		history = new RoundHistory(votes.length);
+		history.addRound(votes, -1, exhausted);
+	}
+
+	/**
+	 * Eliminates the candidate and moves each of their ballots to the next
+	 * remaining candidate on that ballot.
+	 * 
+	 * @param candidate	The ID of the candidate to be eliminated.
+	 */
+	public void eliminate(int candidate){
+		if(eliminated[candidate])
+			return;
+
+		eliminated[candidate] = true;
+		remaining--;
+
+		transfer(candidate);
+
+		history.addRound(votes, candidate, exhausted);
+	}
+
+	/**
+	 * Moves each ballot in the bucket of the candidate, who has just been 
+	 * eliminated, to the next remaining candidate on that ballot. Subclasses
+	 * that keep the ballots in their own way must override it and update 
+	 * <code>votes</code> and <code>exhausted</code>.
+	 * 
+	 * @param candidate	The ID of the eliminated candidate.
+	 */
+	protected void transfer(int candidate){
+		int[] bucket = buckets[candidate];
+		int size = bucketSizes[candidate];
+
+		buckets[candidate] = null;	//Frees the bucket,
+		bucketSizes[candidate] = 0;
+		votes[candidate] = 0;
+
+		for(int i = 0; i < size; i++){	//and transfers its ballots.
+			cursors[bucket[i]]++;
+			place(bucket[i]);
+		}
+	}
+
+	/**
+	 * Moves the cursor of the ballot to the first remaining candidate at or 
+	 * after it and adds the ballot to that candidate's bucket. If there is no 
+	 * such candidate the ballot is exhausted.
+	 */
+	private void place(int b){
+		int length = getBallotLength(b);
+		int cursor = cursors[b];
+
+		while(cursor < length && eliminated[getCandidateId(b, cursor)])
+			cursor++;
+
+		cursors[b] = cursor;
+
+		if(cursor == length){
+			exhausted += getBallotWeight(b);
+			return;
+		}
+
+		int candidate = getCandidateId(b, cursor);
+
+		if(bucketSizes[candidate] == buckets[candidate].length){
+			int[] grown = new int[buckets[candidate].length * 2];
+			System.arraycopy(buckets[candidate], 0, grown, 0, 
+					bucketSizes[candidate]);
+			buckets[candidate] = grown;
+		}
+
+		buckets[candidate][bucketSizes[candidate]++] = b;
+		votes[candidate] += getBallotWeight(b);
+	}
+
+	/**
+	 * Returns the ID of the remaining candidate with the fewest votes. If 
+	 * several candidates have the fewest votes the one with the lowest ID is
+	 * returned.
+	 * 
+	 * @return The ID of the candidate, or -1 if no candidate remains.
+	 */
+	public int getLowest(){
+		int lowest = -1;
+
+		for(int id = 0; id < votes.length; id++){
+			if(!eliminated[id] && (lowest == -1 || votes[id] < votes[lowest]))
+				lowest = id;
+		}
+
+		return lowest;
+	}
+
+	/**
+	 * Returns the ID of the remaining candidate with the most votes. If 
+	 * several candidates have the most votes the one with the lowest ID is
+	 * returned.
+	 * 
+	 * @return The ID of the candidate, or -1 if no candidate remains.
+	 */
+	public int getLeader(){
+		int leader = -1;
+
+		for(int id = 0; id < votes.length; id++){
+			if(!eliminated[id] && (leader == -1 || votes[id] > votes[leader]))
+				leader = id;
+		}
+
+		return leader;
+	}
+
+	/**
+	 * Checks if another remaining candidate has as many votes as the 
+	 * candidate.
+	 * 
+	 * @param candidate	The ID of the candidate.
+	 * @return <code>true</code> if the candidate is tied with another remaining
+	 * candidate, otherwise <code>false</code>.
+	 */
+	public boolean isTied(int candidate){
+		for(int id = 0; id < votes.length; id++){
+			if(id != candidate && !eliminated[id] && votes[id] == votes[candidate])
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the votes of each candidate with their ID as the index. The 
+	 * array is updated in place as candidates are eliminated.
+	 * 
+	 * @return The votes of the candidates.
+	 */
+	public long[] getVotes(){
+		return votes;
+	}
+
+	/**
+	 * Checks if the candidate has been eliminated.
+	 * 
+	 * @param candidate	The ID of the candidate.
+	 * @return <code>true</code> if the candidate was eliminated.
+	 */
+	public boolean isEliminated(int candidate){
+		return eliminated[candidate];
+	}
+
+	/**
+	 * Returns the number of candidates who have not been eliminated.
+	 * 
+	 * @return The number of remaining candidates.
+	 */
+	public int getRemaining(){
+		return remaining;
+	}
+
+	/**
+	 * Returns the counts of every round so far, which starts with the count of
+	 * first choices and gains a round with each elimination.
+	 * 
+	 * @return The history of the runoff.
+	 */
+	public RoundHistory getHistory(){
+		return history;
+	}
+
+	/**
+	 * Returns the number of voters whose ballots rank no remaining candidate.
+	 * 
+	 * @return The number of exhausted votes.
+	 */
+	public long getExhausted(){
+		return exhausted;
+	}
+} //end RunoffEngine
@@ -0,0 +1,120 @@
+package VotingSystems;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Runoff Tally</b>
+ * <p>
+ * <b>Purpose:</b> To hold the distinct rankings of part of an election with 
+ * 			the number of voters who cast each one, so that the parts can be 
+ * 			merged and counted by instant runoff voting.
+ * <p>
+ * <b>Input:</b>	The ballots of one part of the election, or two tallies.
+ * <p>
+ * <b>Output:</b>	The same winner as <code>InstantRunoff</code> would give 
+ * 			for all of the ballots.
+ * <p>
+ * The rounds of a runoff depend on every ballot, so unlike the other tallies
+ * this one keeps the ballots. Its size is the number of distinct rankings, 
+ * which is usually far smaller than the number of voters. Identical rankings
+ * of different parts are merged into one.
+ */
+public class RunoffTally extends PartialTally<RunoffTally> {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Holds the IDs of the candidates of each distinct ranking in order of 
+	 * preference.
+	 */
+	private final int[][] rankings;
+
+	/**
+	 * Holds the number of voters who cast each ranking.
+	 */
+	private final long[] weights;
+
+	/**
+	 * Keeps the distinct rankings of the ballots.
+	 * 
+	 * @param ballots	The ballots of one part of the election.
+	 */
+	public RunoffTally(BallotBox ballots){
+		super(ballots.getCandidates().toArray(), ballots.getTotalWeight());
+
+		rankings = new int[ballots.size()][];
+		weights = new long[ballots.size()];
+
+		int index = 0;
+
+		for(WeightedBallot weighted : ballots){
+			Ballot ballot = weighted.getBallot();
+			int[] ids = new int[ballot.getBallotLength()];
+
+			for(int i = 0; i < ids.length; i++)
+				ids[i] = ballot.getCandidateId(i);
+
+			rankings[index] = ids;
+			weights[index++] = weighted.getWeight();
+		}
+	}
+
+	@Override
+	public RunoffTally merge(RunoffTally other){
+		CandidateDictionary merged = union(other);
+		int[] translation = translate(other, merged);
+		BallotBox box = new BallotBox(merged);
+
+		addTo(box, null);
+		other.addTo(box, translation);
+
+		return new RunoffTally(box);
+	}
+
+	@Override
+	public String computeWinner(){
+		return new InstantRunoff(toBallotBox()).computeWinner();
+	}
+
+	/**
+	 * Returns the rankings of the tally in a new ballot box whose IDs are 
+	 * the same as those of the tally.
+	 * 
+	 * @return The ballots counted so far.
+	 */
+	public BallotBox toBallotBox(){
+		BallotBox box = new BallotBox(new CandidateDictionary(candidates));
+
+		addTo(box, null);
+
+		return box;
+	}
+
+	/**
+	 * Adds the rankings to the box with each ID replaced by its index in the
+	 * translation, or unchanged if the translation is null.
+	 */
+	private void addTo(BallotBox box, int[] translation){
+		int[] ids = new int[candidates.length];
+
+		for(int r = 0; r < rankings.length; r++){
+			int[] ranking = rankings[r];
+
+			for(int i = 0; i < ranking.length; i++)
+				ids[i] = translation == null ? ranking[i] : 
+						translation[ranking[i]];
+
+			box.add(ids, ranking.length, weights[r]);
+		}
+	}
+
+	/**
+	 * Returns the number of distinct rankings.
+	 * 
+	 * @return The number of distinct rankings.
+	 */
+	public int size(){
+		return rankings.length;
+	}
+} //end RunoffTally
@@ -0,0 +1,125 @@
+package VotingSystems;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>The Schulze Method</b>
+ * <p>
+ * <b>Purpose:</b> To compute the winning candidate using the Schulze method,
+ * 			which always elects the Condorcet winner if there is one and 
+ * 			otherwise resolves the cycles among the candidates.
+ * <p>
+ * <b>Input:</b>	The ranked ballots as an array of the <code>Ballot</code> 
+ * 			object or as a <code>BallotBox</code>.
+ * <p>
+ * <b>Output:</b>	The name of the winning candidate if one exists, else the 
+ * 			string "Tie". The output is given with <code>{@link #computeWinner()}
+ * 			</code>.
+ * <p>
+ * <b>Algorithm:</b>	Candidate <i>a</i> has a link to candidate <i>b</i> 
+ * 			whose strength is the votes of <i>a</i> against <i>b</i> if 
+ * 			<i>a</i> has more votes against <i>b</i> than <i>b</i> has against
+ * 			<i>a</i>. The strength of a path of links is its weakest link. 
+ * 			Candidate <i>a</i> beats <i>b</i> if the strongest path from 
+ * 			<i>a</i> to <i>b</i> is stronger than that from <i>b</i> to 
+ * 			<i>a</i>. The candidate who is not beaten by any other wins, or 
+ * 			the election is tied if more than one candidate is not beaten.
+ * <p>
+ * The strongest paths are computed by <code>StrongestPaths</code> with the 
+ * same number of threads as the pairwise votes.
+ */
+public class Schulze extends Condorcet {
+
+	/**
+	 * The strongest paths between the candidates, computed with the winner.
+	 */
+	private StrongestPaths paths;
+
+	public Schulze(Ballot[] ballots){
+		super(ballots);
+	}
+
+	public Schulze(BallotBox ballots){
+		super(ballots);
+	}
+
+	public Schulze(BallotBox ballots, int parallelism){
+		super(ballots, parallelism);
+	}
+
+	public Schulze(BallotBox ballots, int parallelism, 
+			ElectionMetrics metrics){
+		super(ballots, parallelism, metrics);
+	}
+
+	public Schulze(CountableBallots ballots){
+		super(ballots);
+	}
+
+	public Schulze(CountableBallots ballots, ElectionMetrics metrics){
+		super(ballots, metrics);
+	}
+
+	/**
+	 * Returns the name of the only candidate who is not beaten by another, 
+	 * or an empty string if there is not exactly one.
+	 */
+	@Override
+	protected String getWinner(){
+		int k = candidates.size();
+		int winner = -1;
+
+		for(int a = 0; a < k; a++){
+			boolean isBeaten = false;
+
+			for(int b = 0; b < k && !isBeaten; b++){
+				if(b != a && getPathStrength(b, a) > getPathStrength(a, b))
+					isBeaten = true;
+			}
+
+			if(!isBeaten){
+				if(winner != -1)
+					return "";	//More than one candidate is not beaten.
+
+				winner = a;
+			}
+		}
+
+		return winner == -1 ? "" : candidates.getName(winner);
+	}
+
+	/**
+	 * Returns the strength of the strongest path from one candidate to 
+	 * another.
+	 * 
+	 * @param a	The ID of the candidate the path starts from.
+	 * @param b	The ID of the candidate the path ends at.
+	 * @return	The strength of the path, or 0 if there is none.
+	 */
+	public long getPathStrength(int a, int b){
+		if(paths == null)
+			paths = new StrongestPaths(getLinks(), candidates.size(), 
+					parallelism);
+
+		return paths.get(a, b);
+	}
+
+	/**
+	 * Returns the strength of the link from each candidate to each other 
+	 * candidate, which is 0 where there is no link.
+	 */
+	private long[] getLinks(){
+		int k = candidates.size();
+		long[] links = new long[k * k];
+
+		for(int a = 0; a < k; a++){
+			for(int b = 0; b < k; b++){
+				if(pairwise[a * k + b] > pairwise[b * k + a])
+					links[a * k + b] = pairwise[a * k + b];
+			}
+		}
+
+		return links;
+	}
+} //end Schulze
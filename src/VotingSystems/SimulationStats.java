@@ -0,0 +1,190 @@
+package VotingSystems;
+
+import java.io.Serializable;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Simulation Statistics</b>
+ * <p>
+ * <b>Purpose:</b> To summarize the winners of many simulated elections by 
+ * 			every <code>VotingMethod</code>, without keeping any election.
+ * <p>
+ * <b>Input:</b>	The winners of each election by each method, or another 
+ * 			summary to be merged.
+ * <p>
+ * <b>Output:</b>	How often each method ties, how often it elects the 
+ * 			Condorcet winner when there is one, and how often two methods 
+ * 			disagree.
+ * <p>
+ * Every statistic is a count, so merging summaries gives the same result in
+ * any order.
+ */
+public class SimulationStats implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final VotingMethod[] METHODS = VotingMethod.values();
+
+	private long elections;
+
+	/**
+	 * The number of elections with a Condorcet winner.
+	 */
+	private long condorcetElections;
+
+	/**
+	 * Holds the number of elections each method tied, where the index is the
+	 * ordinal of the method.
+	 */
+	private final long[] ties = new long[METHODS.length];
+
+	/**
+	 * Holds the number of elections with a Condorcet winner that each method
+	 * elected.
+	 */
+	private final long[] condorcetAgreements = new long[METHODS.length];
+
+	/**
+	 * Holds the number of elections where method <i>a</i> and method <i>b</i>
+	 * gave the same outcome, including a tie, at index <i>a</i> * <i>m</i> + 
+	 * <i>b</i> for <i>m</i> methods.
+	 */
+	private final long[] agreements = new long[METHODS.length * METHODS.length];
+
+	/**
+	 * Adds the outcome of one election.
+	 * 
+	 * @param winners	The winner by each method, or "Tie", where the index is
+	 * 					the ordinal of the method.
+	 */
+	public void add(String[] winners){
+		int m = METHODS.length;
+		String condorcet = winners[VotingMethod.CONDORCET.ordinal()];
+		boolean hasCondorcet = !condorcet.equals("Tie");
+
+		elections++;
+
+		if(hasCondorcet)
+			condorcetElections++;
+
+		for(int a = 0; a < m; a++){
+			if(winners[a].equals("Tie"))
+				ties[a]++;
+
+			if(hasCondorcet && winners[a].equals(condorcet))
+				condorcetAgreements[a]++;
+
+			for(int b = 0; b < m; b++){
+				if(winners[a].equals(winners[b]))
+					agreements[a * m + b]++;
+			}
+		}
+	}
+
+	/**
+	 * Adds the counts of another summary to this one.
+	 * 
+	 * @param other	The summary of other elections.
+	 */
+	public void merge(SimulationStats other){
+		elections += other.elections;
+		condorcetElections += other.condorcetElections;
+
+		for(int a = 0; a < ties.length; a++){
+			ties[a] += other.ties[a];
+			condorcetAgreements[a] += other.condorcetAgreements[a];
+		}
+
+		for(int i = 0; i < agreements.length; i++)
+			agreements[i] += other.agreements[i];
+	}
+
+	/**
+	 * Returns the number of elections.
+	 * 
+	 * @return The number of elections.
+	 */
+	public long getElections(){
+		return elections;
+	}
+
+	/**
+	 * Returns the number of elections with a Condorcet winner.
+	 * 
+	 * @return The number of elections.
+	 */
+	public long getCondorcetElections(){
+		return condorcetElections;
+	}
+
+	/**
+	 * Returns the number of elections the method tied.
+	 * 
+	 * @param method	The voting method.
+	 * @return The number of ties.
+	 */
+	public long getTies(VotingMethod method){
+		return ties[method.ordinal()];
+	}
+
+	/**
+	 * Returns the fraction of the elections with a Condorcet winner that the
+	 * method elected that candidate.
+	 * 
+	 * @param method	The voting method.
+	 * @return The rate from 0 to 1, or 0 if no election had a Condorcet 
+	 * winner.
+	 */
+	public double getCondorcetAgreement(VotingMethod method){
+		return condorcetElections == 0 ? 0 : 
+				(double) condorcetAgreements[method.ordinal()] / 
+				condorcetElections;
+	}
+
+	/**
+	 * Returns the fraction of the elections where the two methods gave 
+	 * different outcomes, where a tie is an outcome.
+	 * 
+	 * @param a	One voting method.
+	 * @param b	The other voting method.
+	 * @return The rate from 0 to 1, or 0 if there were no elections.
+	 */
+	public double getDivergence(VotingMethod a, VotingMethod b){
+		long same = agreements[a.ordinal() * METHODS.length + b.ordinal()];
+
+		return elections == 0 ? 0 : (double) (elections - same) / elections;
+	}
+
+	/**
+	 * Returns a table with a line for each method: the tie rate, the 
+	 * Condorcet agreement rate, and the divergence from every method.
+	 */
+	@Override
+	public String toString(){
+		StringBuilder summary = new StringBuilder();
+
+		summary.append(String.format("%d elections, %d with a Condorcet " +
+				"winner%n%-16s %8s %10s", elections, condorcetElections, 
+				"method", "ties", "condorcet"));
+
+		for(VotingMethod method : METHODS)
+			summary.append(String.format(" %16s", "vs " + method));
+
+		summary.append(String.format("%n"));
+
+		for(VotingMethod a : METHODS){
+			summary.append(String.format("%-16s %8.4f %10.4f", a, 
+					elections == 0 ? 0 : (double) getTies(a) / elections, 
+					getCondorcetAgreement(a)));
+
+			for(VotingMethod b : METHODS)
+				summary.append(String.format(" %16.4f", getDivergence(a, b)));
+
+			summary.append(String.format("%n"));
+		}
+
+		return summary.toString();
+	}
+} //end SimulationStats
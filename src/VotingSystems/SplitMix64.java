@@ -0,0 +1,95 @@
+package VotingSystems;
+
+import java.util.Random;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>SplitMix64</b>
+ * <p>
+ * <b>Purpose:</b> To give each of many independent tasks its own source of 
+ * 			random numbers from a single seed, so that the numbers each task
+ * 			draws do not depend on which thread runs it or in what order.
+ * <p>
+ * <b>Input:</b>	A seed, and optionally the index of a stream.
+ * <p>
+ * <b>Output:</b>	Random numbers through the methods of <code>Random</code>.
+ * <p>
+ * <b>Algorithm:</b>	The SplitMix64 generator of Steele, Lea and Flood, which
+ * 			adds a constant to a 64-bit state and scrambles the result. The 
+ * 			streams of a seed start at well separated states, found by 
+ * 			scrambling the seed plus the index of the stream.
+ * <p>
+ * Unlike <code>Random</code>, an instance is not safe to share between 
+ * threads; each thread or task should have its own stream.
+ */
+public class SplitMix64 extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The odd constant added to the state for each number.
+	 */
+	private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+	private long state;
+
+	/**
+	 * Setups a generator with the seed.
+	 * 
+	 * @param seed	The seed.
+	 */
+	public SplitMix64(long seed){
+		super(0);
+		state = seed;
+	}
+
+	/**
+	 * Setups the generator of a stream of the seed. Generators of the same 
+	 * seed and stream give the same numbers.
+	 * 
+	 * @param seed		The seed shared by every stream.
+	 * @param stream	The index of the stream, such as the number of a task.
+	 */
+	public SplitMix64(long seed, long stream){
+		this(mix(seed + mix(stream + 1) * GAMMA));
+	}
+
+	/**
+	 * Returns a new generator whose numbers are independent of this one's.
+	 * This generator moves on by one number.
+	 * 
+	 * @return The new generator.
+	 */
+	public SplitMix64 split(){
+		return new SplitMix64(mix(nextLong()));
+	}
+
+	@Override
+	public void setSeed(long seed){
+		state = seed;		//Random's constructor calls this before ours.
+	}
+
+	@Override
+	public long nextLong(){
+		state += GAMMA;
+
+		return mix(state);
+	}
+
+	@Override
+	protected int next(int bits){
+		return (int) (nextLong() >>> (64 - bits));
+	}
+
+	/**
+	 * Scrambles the bits of the value.
+	 */
+	private static long mix(long z){
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+		return z ^ (z >>> 31);
+	}
+} //end SplitMix64
@@ -0,0 +1,223 @@
+package VotingSystems;
+
+import java.util.Arrays;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Streamed Ballots</b>
+ * <p>
+ * <b>Purpose:</b> To count ballots that are read one at a time through a
+ * 			<code>BallotCursor</code>, such as those of a mapped ballot file
+ * 			or an <code>OffHeapBallotStore</code>, without first building a
+ * 			<code>BallotBox</code> or a <code>BallotTrie</code> of them.
+ * <p>
+ * <b>Input:</b>	The ballots through a new cursor from <code>cursor()
+ * 			</code> for each pass.
+ * <p>
+ * <b>Output:</b>	The counts of <code>CountableBallots</code>.
+ * <p>
+ * <b>Algorithm:</b>
+ * <li>The first place votes, the points of a score vector and the pairwise
+ * 				votes each take one pass over the ballots. The pairwise votes
+ * 				take <i>n</i><sup>2</sup>/2 steps for a ballot of length
+ * 				<i>n</i>, as in <code>BallotTrie</code>.
+ * <li>An instant runoff reads the ballots once into flat arrays of their
+ * 				IDs, weights and offsets, and counts them with the buckets of
+ * 				<code>RunoffEngine</code>, so each elimination only reads the
+ * 				ballots of the eliminated candidate. It holds 4 bytes per ID
+ * 				and 16 per ballot, rather than a <code>Ballot</code> per
+ * 				distinct ranking.
+ */
+public abstract class StreamedBallots implements CountableBallots {
+
+	/**
+	 * Returns a cursor at the start of the ballots.
+	 *
+	 * @return A new cursor.
+	 */
+	public abstract BallotCursor cursor();
+
+	@Override
+	public long[] getFirstChoices(){
+		long[] votes = new long[getCandidates().size()];
+		BallotCursor cursor = cursor();
+
+		while(cursor.next()){
+			if(cursor.getLength() > 0)
+				votes[cursor.getId(0)] += cursor.getWeight();
+		}
+
+		return votes;
+	}
+
+	@Override
+	public long[] getScores(long[] points){
+		int k = getCandidates().size();
+		long[] scores = new long[k];
+		Ranking ranking = new Ranking(k);
+		BallotCursor cursor = cursor();
+
+		while(cursor.next()){
+			int n = Math.min(ranking.load(cursor), points.length);
+			long w = cursor.getWeight();
+
+			for(int i = 0; i < n; i++)
+				scores[ranking.ids[i]] += points[i] * w;
+		}
+
+		return scores;
+	}
+
+	/**
+	 * Returns the votes of each candidate against each other candidate. Each
+	 * ballot adds its weight to the votes of each of its candidates against
+	 * every candidate, and then takes it away from the votes against that
+	 * candidate and the candidates above them.
+	 */
+	@Override
+	public long[] getPairwise(){
+		int k = getCandidates().size();
+		long[] ranked = new long[k];
+		long[] pairwise = new long[k * k];
+		Ranking ranking = new Ranking(k);
+		BallotCursor cursor = cursor();
+
+		while(cursor.next()){
+			int n = ranking.load(cursor);
+			int[] ids = ranking.ids;
+			long w = cursor.getWeight();
+
+			for(int i = 0; i < n; i++){
+				int row = ids[i] * k;
+
+				ranked[ids[i]] += w;
+
+				for(int above = 0; above <= i; above++)
+					pairwise[row + ids[above]] -= w;
+			}
+		}
+
+		for(int a = 0; a < k; a++){
+			for(int b = 0; b < k; b++)
+				pairwise[a * k + b] += ranked[a];
+		}
+
+		return pairwise;
+	}
+
+	@Override
+	public RunoffEngine runoff(){
+		return new StreamedRunoff();
+	}
+
+	/**
+	 * Holds the current ballot of a cursor without the candidates ranked more
+	 * than once, so that each is counted at their highest rank.
+	 */
+	private static class Ranking {
+
+		final int[] ids;
+
+		/**
+		 * Holds the number of the last ballot on which each candidate was
+		 * seen, where the index is their ID.
+		 */
+		private final int[] seen;
+
+		private int stamp;
+
+		Ranking(int numCandidates){
+			ids = new int[numCandidates];
+			seen = new int[numCandidates];
+		}
+
+		/**
+		 * Copies the current ballot of the cursor into <code>ids</code> and
+		 * returns its length.
+		 */
+		int load(BallotCursor cursor){
+			int length = cursor.getLength();
+			int n = 0;
+
+			stamp++;
+
+			for(int i = 0; i < length; i++){
+				int id = cursor.getId(i);
+
+				if(seen[id] != stamp){
+					seen[id] = stamp;
+					ids[n++] = id;
+				}
+			}
+
+			return n;
+		}
+	}
+
+	/**
+	 * Counts an instant runoff of the ballots as read once from a cursor.
+	 */
+	private class StreamedRunoff extends RunoffEngine {
+
+		/**
+		 * Holds the IDs of every ballot, one after another.
+		 */
+		private int[] ids = new int[1024];
+
+		/**
+		 * Holds the index in <code>ids</code> where each ballot starts, where
+		 * the index is the number of the ballot, and where the last ballot 
+		 * ends.
+		 */
+		private int[] starts = new int[1024];
+
+		private long[] weights = new long[1024];
+
+		StreamedRunoff(){
+			super(getCandidates().size());
+
+			Ranking ranking = new Ranking(getCandidates().size());
+			BallotCursor cursor = cursor();
+			int numBallots = 0;
+			int end = 0;
+
+			while(cursor.next()){
+				int n = ranking.load(cursor);
+
+				if(numBallots + 1 == starts.length){
+					starts = Arrays.copyOf(starts, 2 * starts.length);
+					weights = Arrays.copyOf(weights, starts.length);
+				}
+
+				if(end + n > ids.length)
+					ids = Arrays.copyOf(ids, Math.max(2 * ids.length, end + n));
+
+				System.arraycopy(ranking.ids, 0, ids, end, n);
+				weights[numBallots] = cursor.getWeight();
+				starts[numBallots++] = end;
+				end += n;
+			}
+
+			starts[numBallots] = end;
+
+			placeBallots(numBallots);
+		}
+
+		@Override
+		protected int getBallotLength(int b){
+			return starts[b + 1] - starts[b];
+		}
+
+		@Override
+		protected int getCandidateId(int b, int index){
+			return ids[starts[b] + index];
+		}
+
+		@Override
+		protected long getBallotWeight(int b){
+			return weights[b];
+		}
+	}
+} //end StreamedBallots
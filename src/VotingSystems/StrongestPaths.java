@@ -0,0 +1,201 @@
+package VotingSystems;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Strongest Paths</b>
+ * <p>
+ * <b>Purpose:</b> To compute the strength of the strongest path from each 
+ * 			candidate to each other candidate for the Schulze method. The 
+ * 			strength of a path is its weakest link, and the strongest path is
+ * 			the one whose weakest link is strongest.
+ * <p>
+ * <b>Input:</b>	The strength of the direct link from each candidate to each
+ * 			other candidate as a flat <i>k</i> by <i>k</i> matrix, where 0 
+ * 			means there is no link, and the number of threads to be used.
+ * <p>
+ * <b>Output:</b>	The strengths of the strongest paths in a matrix of the 
+ * 			same layout. The diagonal has no meaning.
+ * <p>
+ * <b>Algorithm:</b>	The Floyd-Warshall algorithm with the minimum in place 
+ * 			of the sum and the maximum in place of the minimum, which takes 
+ * 			O(<i>k</i><sup>3</sup>) time. The matrix is split into square 
+ * 			blocks that fit in the cache, and for each diagonal block in turn:
+ * <li>Step 1: The diagonal block is updated through itself.
+ * <li>Step 2: The other blocks in its row and column are updated through it.
+ * 				These blocks do not depend on each other, so they are updated
+ * 				in parallel.
+ * <li>Step 3: Every remaining block is updated through the blocks of step 2 
+ * 				in its row and column, again in parallel.
+ */
+class StrongestPaths {
+	/**
+	 * The number of rows and columns of each block. Three blocks of longs
+	 * take 96 KiB.
+	 */
+	private static final int BLOCK = 64;
+
+	private final long[] paths;
+
+	/**
+	 * The number of candidates.
+	 */
+	private final int k;
+
+	/**
+	 * The number of blocks in each row of the matrix.
+	 */
+	private final int blocks;
+
+	/**
+	 * Computes the strongest paths.
+	 * 
+	 * @param links			The strength of each link, which is not changed.
+	 * @param k				The number of candidates.
+	 * @param parallelism	The number of threads, where 1 computes the paths 
+	 * 						in the calling thread.
+	 */
+	StrongestPaths(long[] links, int k, int parallelism){
+		this.paths = links.clone();
+		this.k = k;
+		this.blocks = (k + BLOCK - 1) / BLOCK;
+
+		if(parallelism <= 1 || blocks <= 1){
+			for(int pivot = 0; pivot < blocks; pivot++){
+				update(pivot, pivot, pivot);
+
+				for(int b = 0; b < blocks; b++)
+					updateCross(pivot, b);
+
+				for(int b = 0; b < blocks * blocks; b++)
+					updateRest(pivot, b);
+			}
+
+			return;
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+		try {
+			for(int pivot = 0; pivot < blocks; pivot++){
+				update(pivot, pivot, pivot);
+
+				pool.invoke(new BlockTask(pivot, false, 0, blocks));
+				pool.invoke(new BlockTask(pivot, true, 0, blocks * blocks));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Returns the strength of the strongest path from one candidate to 
+	 * another.
+	 * 
+	 * @param a	The ID of the candidate the path starts from.
+	 * @param b	The ID of the candidate the path ends at.
+	 * @return	The strength of the path, or 0 if there is none.
+	 */
+	long get(int a, int b){
+		return paths[a * k + b];
+	}
+
+	/**
+	 * Updates the blocks in the row and column of the pivot block that are
+	 * at block index <code>b</code>, which is step 2.
+	 */
+	private void updateCross(int pivot, int b){
+		if(b != pivot){
+			update(pivot, b, pivot);
+			update(b, pivot, pivot);
+		}
+	}
+
+	/**
+	 * Updates the block at block index <code>b</code> of the whole matrix if 
+	 * it is not in the row or column of the pivot, which is step 3.
+	 */
+	private void updateRest(int pivot, int b){
+		int row = b / blocks, column = b % blocks;
+
+		if(row != pivot && column != pivot)
+			update(row, column, pivot);
+	}
+
+	/**
+	 * Updates the paths in a block with paths through the candidates of the
+	 * pivot block.
+	 */
+	private void update(int rowBlock, int columnBlock, int pivot){
+		int rowEnd = Math.min(k, (rowBlock + 1) * BLOCK);
+		int columnStart = columnBlock * BLOCK;
+		int columnEnd = Math.min(k, columnStart + BLOCK);
+		int pivotEnd = Math.min(k, (pivot + 1) * BLOCK);
+
+		for(int via = pivot * BLOCK; via < pivotEnd; via++){
+			int viaRow = via * k;
+
+			for(int from = rowBlock * BLOCK; from < rowEnd; from++){
+				int fromRow = from * k;
+				long first = paths[fromRow + via];	//The link into via.
+
+				if(first == 0)
+					continue;
+
+				for(int to = columnStart; to < columnEnd; to++){
+					long strength = Math.min(first, paths[viaRow + to]);
+
+					if(strength > paths[fromRow + to])
+						paths[fromRow + to] = strength;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Updates a range of blocks of step 2 or step 3 in parallel.
+	 */
+	private class BlockTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int pivot;
+
+		/**
+		 * Whether the blocks are those of step 3 rather than step 2.
+		 */
+		private final boolean rest;
+
+		private final int from, to;
+
+		BlockTask(int pivot, boolean rest, int from, int to){
+			this.pivot = pivot;
+			this.rest = rest;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute(){
+			if(to - from <= 1){
+				for(int b = from; b < to; b++){
+					if(rest)
+						updateRest(pivot, b);
+					else
+						updateCross(pivot, b);
+				}
+
+				return;
+			}
+
+			int middle = (from + to) >>> 1;
+
+			invokeAll(new BlockTask(pivot, rest, from, middle), 
+					new BlockTask(pivot, rest, middle, to));
+		}
+	}
+} //end StrongestPaths
@@ -0,0 +1,426 @@
+package VotingSystems;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.zip.CRC32;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Tally Checkpoint</b>
+ * <p>
+ * <b>Purpose:</b> To save the count of a ballot file that is being read, so
+ * 			that if the program stops partway through it can resume where the
+ * 			last checkpoint was saved rather than reading the file again from
+ * 			the start.
+ * <p>
+ * <b>Input:</b>	The distinct rankings counted so far, as a
+ * 			<code>BallotBox</code>, and the offset in the ballot file of the
+ * 			first line that is not in them. A checkpoint is for one ballot
+ * 			file, which is read to identify it.
+ * <p>
+ * <b>Output:</b>	A snapshot file with the following layout, where each
+ * 			number is big-endian:
+ * <li>The magic number <code>VSCK</code> (4 bytes) and the format version
+ * 				(4 bytes).
+ * <li>The offset in the ballot file, the number of voters, and the size of
+ * 				the ballot file when the snapshot was saved (8 bytes each).
+ * <li>The CRC-32 of a sample of the bytes of the ballot file before the
+ * 				offset, the number of candidates, and the number of distinct
+ * 				rankings (4 bytes each).
+ * <li>The absolute path of the ballot file and the key that the file system
+ * 				gives it, such as its inode, each as the number of bytes (4
+ * 				bytes) followed by the UTF-8 bytes. The key is empty if the
+ * 				file system gives none.
+ * <li>The name of each candidate in order of ID, as the number of bytes (4
+ * 				bytes) followed by the UTF-8 bytes.
+ * <li>Each distinct ranking as its weight (8 bytes), the number of candidates
+ * 				ranked (4 bytes), and the ID of each (4 bytes each).
+ * <li>The CRC-32 of every byte before it (4 bytes).
+ * <p>
+ * A snapshot is written through a memory map to a temporary file in the same
+ * directory, forced to the disk, and then moved over the last snapshot in one
+ * atomic step. So the snapshot on disk is always the last complete one, and
+ * a torn or damaged file is caught by its checksum. Its size depends on the
+ * number of candidates and distinct rankings, not on the number of voters.
+ * <p>
+ * A snapshot is only restored for the same ballot file: at the same path,
+ * with the same file key, with at least as many bytes as when it was saved,
+ * and with the same CRC-32 of the sample. The sample is 64 blocks of 4 KB 
+ * spread evenly over the bytes before the offset, from the first block to 
+ * the block that ends at the offset, or all of those bytes if there are 
+ * fewer. So a ballot file that was replaced, cut short, or changed at its 
+ * start or just before the offset is never counted from the middle, while
+ * saving and restoring read at most 256 KB of the ballot file however far it
+ * was read. A change inside the counted bytes that misses every block of the
+ * sample and keeps the file key is not caught.
+ */
+public class TallyCheckpoint {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * The bytes <code>VSCK</code>.
+	 */
+	private static final int MAGIC = 0x5653434B;
+
+	private static final int VERSION = 3;
+
+	/**
+	 * The number of bytes before the path of the ballot file.
+	 */
+	private static final int HEADER_SIZE = 44;
+
+	/**
+	 * The number of blocks of the ballot file in the sample.
+	 */
+	private static final int SAMPLES = 64;
+
+	/**
+	 * The number of bytes in each block of the sample.
+	 */
+	private static final int BLOCK_SIZE = 1 << 12;
+
+	private final Path file;
+
+	/**
+	 * The absolute path of the ballot file that is counted.
+	 */
+	private final Path ballotFile;
+
+	/**
+	 * The number of ballot lines to be read between snapshots.
+	 */
+	private final long interval;
+
+	/**
+	 * The offset in the ballot file of the last snapshot saved or restored.
+	 */
+	private long offset;
+
+	/**
+	 * Setups a checkpoint of the ballot file that is saved to the file.
+	 *
+	 * @param file			The snapshot file, which need not exist.
+	 * @param ballotFile	The ballot file that is counted.
+	 * @param interval		The number of ballot lines to be read between
+	 * 						snapshots.
+	 * @throws IllegalArgumentException if <code>interval</code> is less than 1.
+	 */
+	public TallyCheckpoint(Path file, Path ballotFile, long interval){
+		if(interval < 1)
+			throw new IllegalArgumentException("Interval must be at least 1: "
+					+ interval);
+
+		this.file = file;
+		this.ballotFile = ballotFile.toAbsolutePath().normalize();
+		this.interval = interval;
+	}
+
+	/**
+	 * Returns the ballots of the last snapshot, or an empty ballot box if
+	 * there is no snapshot. Afterwards <code>getOffset()</code> is where the
+	 * ballot file is to be read from.
+	 *
+	 * @return The distinct rankings counted so far.
+	 * @throws IOException if the snapshot cannot be read or is damaged, or if
+	 * it was saved for another ballot file or one whose counted bytes have
+	 * since changed.
+	 */
+	public BallotBox restore() throws IOException {
+		offset = 0;
+
+		if(!Files.exists(file))
+			return new BallotBox();
+
+		try(FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.READ)){
+			if(channel.size() < HEADER_SIZE + 4 ||
+					channel.size() > Integer.MAX_VALUE)
+				throw damaged("wrong size");
+
+			MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY,
+					0, channel.size());
+			int end = bytes.capacity() - 4;
+
+			if(bytes.getInt(0) != MAGIC || bytes.getInt(4) != VERSION)
+				throw damaged("not a tally checkpoint");
+
+			if(bytes.getInt(end) != checksum(bytes, end))
+				throw damaged("checksum does not match");
+
+			long fileOffset = bytes.getLong(8);
+			long ballotSize = bytes.getLong(24);
+			int sampleHash = bytes.getInt(32);
+			int numCandidates = bytes.getInt(36);
+			int numRankings = bytes.getInt(40);
+
+			bytes.position(HEADER_SIZE);
+
+			String path = getString(bytes);
+			String key = getString(bytes);
+			String[] names = new String[numCandidates];
+
+			for(int id = 0; id < numCandidates; id++)
+				names[id] = getString(bytes);
+
+			BallotBox ballots = new BallotBox(new CandidateDictionary(names));
+			int[] ids = new int[numCandidates];
+
+			for(int r = 0; r < numRankings; r++){
+				long weight = bytes.getLong();
+				int length = bytes.getInt();
+
+				for(int i = 0; i < length; i++)
+					ids[i] = bytes.getInt();
+
+				ballots.add(ids, length, weight);
+			}
+
+			if(ballots.getTotalWeight() != bytes.getLong(16))
+				throw damaged("number of voters does not match");
+
+			checkBallotFile(path, key, ballotSize, fileOffset, sampleHash);
+
+			offset = fileOffset;
+
+			return ballots;
+		} catch(RuntimeException e){	//Such as a length past the end.
+			throw damaged(e.toString());
+		}
+	}
+
+	/**
+	 * Checks that the snapshot was saved for the ballot file of this 
+	 * checkpoint and that the sample of its bytes before the offset has not
+	 * changed.
+	 */
+	private void checkBallotFile(String path, String key, long ballotSize,
+			long offset, int sampleHash) throws IOException {
+		if(!path.equals(ballotFile.toString()))
+			throw new IOException("Checkpoint " + file + " is of the ballot " +
+					"file " + path + ", not " + ballotFile);
+
+		String fileKey = fileKey();
+
+		if(!key.isEmpty() && !fileKey.isEmpty() && !key.equals(fileKey))
+			throw new IOException("Ballot file " + ballotFile + " has been " +
+					"replaced since checkpoint " + file + " was saved");
+
+		long size = Files.size(ballotFile);
+
+		if(size < ballotSize)
+			throw new IOException("Ballot file " + ballotFile + " has " + size
+					+ " bytes, fewer than the " + ballotSize + " it had when " +
+					"checkpoint " + file + " was saved");
+
+		if(sample(offset) != sampleHash)
+			throw new IOException("The first " + offset + " bytes of ballot " +
+					"file " + ballotFile + " have changed since checkpoint " +
+					file + " was saved");
+	}
+
+	/**
+	 * Returns the key that the file system gives the ballot file, or an 
+	 * empty string if it gives none.
+	 */
+	private String fileKey() throws IOException {
+		Object key = Files.readAttributes(ballotFile, 
+				BasicFileAttributes.class).fileKey();
+
+		return key == null ? "" : key.toString();
+	}
+
+	/**
+	 * Returns the CRC-32 of the sample of the bytes of the ballot file before
+	 * the offset.
+	 */
+	private int sample(long offset) throws IOException {
+		CRC32 crc = new CRC32();
+
+		try(FileChannel channel = FileChannel.open(ballotFile,
+				StandardOpenOption.READ)){
+			ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+
+			if(offset <= (long) SAMPLES * BLOCK_SIZE){
+				for(long start = 0; start < offset; start += BLOCK_SIZE)
+					read(channel, block, start, offset, crc);
+			} else {
+				long last = offset - BLOCK_SIZE;	//The block ending there.
+
+				for(int i = 0; i < SAMPLES; i++)
+					read(channel, block, last * i / (SAMPLES - 1), offset, crc);
+			}
+		}
+
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Adds the block of the ballot file from <code>start</code>, but not past
+	 * <code>end</code>, to the CRC-32.
+	 */
+	private void read(FileChannel channel, ByteBuffer block, long start,
+			long end, CRC32 crc) throws IOException {
+		block.clear();
+		block.limit((int) Math.min(BLOCK_SIZE, end - start));
+
+		while(block.hasRemaining()){
+			if(channel.read(block, start + block.position()) < 0)
+				throw new IOException("Ballot file " + ballotFile + 
+						" ends before byte " + end);
+		}
+
+		crc.update(block.array(), 0, block.limit());
+	}
+
+	private static String getString(ByteBuffer bytes){
+		byte[] string = new byte[bytes.getInt()];
+		bytes.get(string);
+
+		return new String(string, UTF_8);
+	}
+
+	/**
+	 * Saves a snapshot of the ballots and the offset of the first line of the
+	 * ballot file that is not in them, replacing the last snapshot.
+	 *
+	 * @param ballots	The distinct rankings counted so far.
+	 * @param offset	The offset in the ballot file to resume from.
+	 * @throws IOException if the snapshot cannot be written, in which case
+	 * the last snapshot is kept.
+	 */
+	public void save(BallotBox ballots, long offset) throws IOException {
+		CandidateDictionary candidates = ballots.getCandidates();
+		byte[][] names = new byte[candidates.size()][];
+		byte[] path = ballotFile.toString().getBytes(UTF_8);
+		byte[] key = fileKey().getBytes(UTF_8);
+		long ballotSize = Files.size(ballotFile);
+		int sampleHash = sample(offset);
+		long size = HEADER_SIZE + 4 + path.length + 4 + key.length + 4;
+
+		for(int id = 0; id < names.length; id++){
+			names[id] = candidates.getName(id).getBytes(UTF_8);
+			size += 4 + names[id].length;
+		}
+
+		for(WeightedBallot weighted : ballots)
+			size += 12 + 4 * weighted.getBallot().getBallotLength();
+
+		if(size > Integer.MAX_VALUE)
+			throw new IOException("Checkpoint of " + size + " bytes is too " +
+					"large to map");
+
+		Path directory = file.toAbsolutePath().getParent();
+		Path temp = Files.createTempFile(directory,
+				file.getFileName().toString(), ".tmp");
+
+		try {
+			try(FileChannel channel = FileChannel.open(temp,
+					StandardOpenOption.READ, StandardOpenOption.WRITE)){
+				MappedByteBuffer bytes = channel.map(
+						FileChannel.MapMode.READ_WRITE, 0, size);
+
+				bytes.putInt(MAGIC).putInt(VERSION);
+				bytes.putLong(offset).putLong(ballots.getTotalWeight());
+				bytes.putLong(ballotSize).putInt(sampleHash);
+				bytes.putInt(names.length).putInt(ballots.size());
+				bytes.putInt(path.length).put(path);
+				bytes.putInt(key.length).put(key);
+
+				for(byte[] name : names)
+					bytes.putInt(name.length).put(name);
+
+				for(WeightedBallot weighted : ballots){
+					Ballot ballot = weighted.getBallot();
+
+					bytes.putLong(weighted.getWeight());
+					bytes.putInt(ballot.getBallotLength());
+
+					for(int i = 0; i < ballot.getBallotLength(); i++)
+						bytes.putInt(ballot.getCandidateId(i));
+				}
+
+				bytes.putInt(checksum(bytes, (int) size - 4));
+				bytes.force();
+			}
+
+			Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temp);	//Only left if the move failed.
+		}
+
+		this.offset = offset;
+	}
+
+	/**
+	 * Returns the CRC-32 of the bytes from 0 to <code>end</code>.
+	 */
+	private static int checksum(ByteBuffer bytes, int end){
+		CRC32 crc = new CRC32();
+		byte[] chunk = new byte[1 << 16];
+		ByteBuffer view = bytes.duplicate();	//Leaves the position as is.
+
+		view.position(0);
+
+		while(view.position() < end){
+			int length = Math.min(chunk.length, end - view.position());
+
+			view.get(chunk, 0, length);
+			crc.update(chunk, 0, length);
+		}
+
+		return (int) crc.getValue();
+	}
+
+	private IOException damaged(String reason){
+		return new IOException("Damaged checkpoint " + file + ": " + reason);
+	}
+
+	/**
+	 * Returns the offset in the ballot file of the last snapshot that was
+	 * saved or restored.
+	 *
+	 * @return The offset of the first line not yet counted.
+	 */
+	public long getOffset(){
+		return offset;
+	}
+
+	/**
+	 * Returns the number of ballot lines to be read between snapshots.
+	 *
+	 * @return The interval of the checkpoint.
+	 */
+	public long getInterval(){
+		return interval;
+	}
+
+	/**
+	 * Returns the snapshot file.
+	 *
+	 * @return The path of the snapshot.
+	 */
+	public Path getFile(){
+		return file;
+	}
+
+	/**
+	 * Returns the ballot file that is counted.
+	 *
+	 * @return The absolute path of the ballot file.
+	 */
+	public Path getBallotFile(){
+		return ballotFile;
+	}
+} //end TallyCheckpoint
@@ -0,0 +1,138 @@
+package VotingSystems;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Tally Task</b>
+ * <p>
+ * <b>Purpose:</b> To count a list of ballots in parallel. The list is split in 
+ * 			halves until each part is at most the grain size, each part is 
+ * 			counted into its own array, and the arrays are summed on the way 
+ * 			back up. Since every array is private to one part, the counting 
+ * 			needs no locks or atomic operations.
+ * <p>
+ * <b>Input:</b>	The ballots, the length of the tally array, and the number
+ * 			of threads to be used.
+ * <p>
+ * <b>Output:</b>	The tally array, as filled in by <code>accumulate</code>.
+ */
+abstract class TallyTask extends RecursiveTask<long[]> {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The number of parts per thread. More parts than threads lets a thread 
+	 * that finishes early take work from one that does not.
+	 */
+	private static final int PARTS_PER_THREAD = 4;
+
+	/**
+	 * The smallest grain size. Smaller parts cost more to schedule and to sum
+	 * than they save.
+	 */
+	private static final int MIN_GRAIN = 1024;
+
+	protected final List<WeightedBallot> ballots;
+
+	/**
+	 * The first index (inclusive) and last index (exclusive) of the ballots 
+	 * to be counted by this task.
+	 */
+	protected final int from, to;
+
+	/**
+	 * The length of the tally array.
+	 */
+	protected final int size;
+
+	/**
+	 * The largest number of ballots that will be counted without splitting.
+	 */
+	protected final int grain;
+
+	protected TallyTask(List<WeightedBallot> ballots, int from, int to, 
+			int size, int grain){
+		this.ballots = ballots;
+		this.from = from;
+		this.to = to;
+		this.size = size;
+		this.grain = grain;
+	}
+
+	/**
+	 * Adds the votes of the ballot to the tally.
+	 */
+	protected abstract void accumulate(WeightedBallot ballot, long[] tally);
+
+	/**
+	 * Returns a task of the same kind which counts the ballots from index 
+	 * <code>from</code> to <code>to</code>.
+	 */
+	protected abstract TallyTask subtask(int from, int to);
+
+	@Override
+	protected long[] compute(){
+		if(to - from <= grain)
+			return tally();
+
+		int middle = (from + to) >>> 1;
+
+		TallyTask left = subtask(from, middle);
+		left.fork();
+
+		long[] tally = subtask(middle, to).compute();
+		long[] other = left.join();
+
+		for(int i = 0; i < size; i++)	//Sums the two halves.
+			tally[i] += other[i];
+
+		return tally;
+	}
+
+	/**
+	 * Counts the ballots of this task in the current thread.
+	 */
+	private long[] tally(){
+		long[] tally = new long[size];
+
+		for(int i = from; i < to; i++)
+			accumulate(ballots.get(i), tally);
+
+		return tally;
+	}
+
+	/**
+	 * Returns the grain size that splits the ballots into a few parts per 
+	 * thread, but never into parts smaller than <code>MIN_GRAIN</code>.
+	 */
+	protected static int grainFor(int numBallots, int parallelism){
+		int parts = Math.max(1, parallelism) * PARTS_PER_THREAD;
+
+		return Math.max(MIN_GRAIN, (numBallots + parts - 1) / parts);
+	}
+
+	/**
+	 * Counts the ballots with the specified number of threads. With one thread
+	 * the ballots are counted in the current thread without a pool.
+	 * 
+	 * @param parallelism	The number of threads to be used.
+	 * @return The tally array.
+	 */
+	public long[] count(int parallelism){
+		if(parallelism <= 1 || to - from <= grain)
+			return tally();
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+		try {
+			return pool.invoke(this);
+		} finally {
+			pool.shutdown();
+		}
+	}
+} //end TallyTask
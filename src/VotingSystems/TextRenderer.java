@@ -0,0 +1,106 @@
+package VotingSystems;
+
+import java.io.IOException;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Text Renderer</b>
+ * <p>
+ * <b>Purpose:</b> To write a result as the plain text tables printed by 
+ * 			<code>VotingSystem.results()</code>.
+ * <p>
+ * <b>Output:</b>	One of the following, with each field padded to 18 
+ * 			characters:
+ * <li>For pairwise votes, a table with a row and a column for each candidate
+ * 				and a dash where a candidate meets themselves.
+ * <li>For rounds, a line for each candidate with their votes in each round
+ * 				after a tab.
+ * <li>Otherwise, a line for each candidate with their votes.
+ */
+public class TextRenderer extends ResultRenderer {
+
+	/**
+	 * The width of each field.
+	 */
+	private static final int WIDTH = 18;
+
+	@Override
+	public void render(ElectionResult result, Appendable out) 
+			throws IOException {
+		if(result.hasPairwise())
+			renderTable(result, out);
+		else if(result.hasRounds())
+			renderRounds(result, out);
+		else
+			renderVotes(result, out);
+	}
+
+	private void renderVotes(ElectionResult result, Appendable out) 
+			throws IOException {
+		for(int place = 0; place < result.getNumCandidates(); place++){
+			int id = result.getCandidate(place);
+			String name = result.getName(id);
+
+			out.append(name).append(':');
+			pad(out, name.length() + 1, WIDTH);
+			out.append(' ');
+			append(out, result.getVotes(id));
+			out.append('\n');
+		}
+	}
+
+	private void renderTable(ElectionResult result, Appendable out) 
+			throws IOException {
+		int k = result.getNumCandidates();
+
+		pad(out, 0, WIDTH);
+
+		//Top row
+		for(int place = 0; place < k; place++)
+			appendName(result, result.getCandidate(place), out);
+
+		for(int outerPlace = 0; outerPlace < k; outerPlace++){
+			int outer = result.getCandidate(outerPlace);
+
+			out.append('\n');
+			appendName(result, outer, out);
+
+			for(int innerPlace = 0; innerPlace < k; innerPlace++){
+				int inner = result.getCandidate(innerPlace);
+
+				if(outer == inner){
+					out.append('-');
+					pad(out, 1, WIDTH);
+				} else {
+					pad(out, append(out, result.getPairwise(outer, inner)), WIDTH);
+				}
+			}
+		}
+	}
+
+	private void renderRounds(ElectionResult result, Appendable out) 
+			throws IOException {
+		for(int place = 0; place < result.getNumCandidates(); place++){
+			int id = result.getCandidate(place);
+
+			appendName(result, id, out);
+
+			for(int round = 0; round < result.getNumRounds(); round++){
+				out.append("\t ");
+				append(out, result.getRoundVotes(round, id));
+			}
+
+			out.append('\n');
+		}
+	}
+
+	private static void appendName(ElectionResult result, int id, 
+			Appendable out) throws IOException {
+		String name = result.getName(id);
+
+		out.append(name);
+		pad(out, name.length(), WIDTH);
+	}
+} //end TextRenderer
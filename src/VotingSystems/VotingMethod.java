@@ -0,0 +1,15 @@
+package VotingSystems;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Voting Method</b>
+ * <p>
+ * <b>Purpose:</b> To name the voting systems of this package where a method 
+ * 			must be chosen at run time rather than by constructing one of the
+ * 			<code>VotingSystem</code> subclasses.
+ */
+public enum VotingMethod {
+	PLURALITY, BORDA, CONDORCET, INSTANT_RUNOFF;
+}
@@ -1,9 +1,9 @@
 package VotingSystems;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 
@@ -15,7 +15,8 @@ import java.util.Map;
  * <b>Purpose:</b> To provide generic methods for any voting system.
  * <p>
  * <b>Input:</b>	The ranked ballots as an array of the <code>Ballot</code> 
- * 			object using the non-default constructor. The ballots as well as the
+ * 			object or as a <code>BallotBox</code> using the non-default 
+ * 			constructor. The ballots as well as the
  * 			candidates' names must set in a different class. However the 
  * 			information about the candidates does not need to be explicitly 
  * 			inputted, the information will be taken from the array ballots.
@@ -29,14 +30,44 @@ import java.util.Map;
 public abstract class VotingSystem {
 
 	/**
-	 * Holds the ballots of each voter.
+	 * Holds the distinct ballots of the voters with the number of voters who
+	 * cast each one.
 	 */
-	protected List<Ballot> voterBallots;
+	protected List<WeightedBallot> voterBallots;
 
 	/**
-	 * Holds the candidates' votes with their name as the key.
+	 * Holds the ID of each candidate. The ballots in <code>voterBallots</code>
+	 * take their IDs from it.
 	 */
-	protected Map<String, Integer> candVotes;
+	protected CandidateDictionary candidates;
+
+	/**
+	 * Holds the candidates' votes with their ID as the index.
+	 */
+	protected long[] candVotes;
+
+	/**
+	 * The number of voters, which is the sum of the weights of the ballots.
+	 */
+	protected long numVoters;
+
+	/**
+	 * The number of threads used to count the ballots. With one thread the 
+	 * ballots are counted sequentially in the calling thread.
+	 */
+	protected int parallelism;
+
+	/**
+	 * Holds the ballots if the system was built from a prefix trie or another
+	 * <code>CountableBallots</code>, in which case <code>voterBallots</code>
+	 * is empty; otherwise null.
+	 */
+	protected CountableBallots countable;
+
+	/**
+	 * Receives the time of each phase of the count and the counters.
+	 */
+	protected ElectionMetrics metrics = ElectionMetrics.NONE;
 
 	/**
 	 * Default constructor which doesn't do anything.
@@ -46,39 +77,166 @@ public abstract class VotingSystem {
 	/**
 	 * Constructor which receives an array of ballots and initializes <code>ballots
 	 *</code>, <code>candidates</code>, and the size of <code>candidatesVotes</code>.
+	 * Identical ballots are merged before they are counted.
 	 */
 	public VotingSystem(Ballot[] ballots){
-		initBallots(ballots);
+		this(new BallotBox(ballots));
+	}
+
+	/**
+	 * Constructor which receives the ballots of the election already merged 
+	 * by ranking and counts them with one thread per available processor.
+	 */
+	public VotingSystem(BallotBox ballots){
+		this(ballots, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor which receives the ballots of the election already merged 
+	 * by ranking and counts them with the specified number of threads. 
+	 * Systems that count the ballots in rounds ignore the number of threads.
+	 * 
+	 * @param ballots		The ballots to be counted.
+	 * @param parallelism	The number of threads, where 1 counts the ballots
+	 * 						sequentially.
+	 * @throws IllegalArgumentException if <code>parallelism</code> is less 
+	 * than 1.
+	 */
+	public VotingSystem(BallotBox ballots, int parallelism){
+		this(ballots, parallelism, ElectionMetrics.NONE);
+	}
+
+	/**
+	 * Constructor which receives the ballots of the election already merged 
+	 * by ranking and counts them with the specified number of threads, 
+	 * reporting the time of each phase to the metrics.
+	 * 
+	 * @param ballots		The ballots to be counted.
+	 * @param parallelism	The number of threads, where 1 counts the ballots
+	 * 						sequentially.
+	 * @param metrics		The metrics of the count, or null for none.
+	 * @throws IllegalArgumentException if <code>parallelism</code> is less 
+	 * than 1.
+	 */
+	public VotingSystem(BallotBox ballots, int parallelism, 
+			ElectionMetrics metrics){
+		count(ballots, parallelism, metrics);
+	}
+
+	/**
+	 * Constructor which receives the ballots of the election as a prefix 
+	 * trie or a mapped ballot file and counts them in the calling thread.
+	 * 
+	 * @param ballots	The ballots to be counted.
+	 */
+	public VotingSystem(CountableBallots ballots){
+		this(ballots, ElectionMetrics.NONE);
+	}
+
+	/**
+	 * Constructor which receives the ballots of the election as a prefix 
+	 * trie or a mapped ballot file and counts them in the calling thread, 
+	 * reporting the time of the count to the metrics.
+	 * 
+	 * @param ballots	The ballots to be counted.
+	 * @param metrics	The metrics of the count, or null for none.
+	 */
+	public VotingSystem(CountableBallots ballots, ElectionMetrics metrics){
+		count(ballots, metrics);
+	}
+
+	/**
+	 * Sets up the candidates and ballots from the ballot box and counts them
+	 * with the specified number of threads. It is called by the constructors,
+	 * or by a subclass that must set up its own fields before counting.
+	 * 
+	 * @param ballots		The ballots to be counted.
+	 * @param parallelism	The number of threads, where 1 counts the ballots
+	 * 						sequentially.
+	 * @param metrics		The metrics of the count, or null for none.
+	 * @throws IllegalArgumentException if <code>parallelism</code> is less 
+	 * than 1.
+	 */
+	protected void count(BallotBox ballots, int parallelism, 
+			ElectionMetrics metrics){
+		if(parallelism < 1)
+			throw new IllegalArgumentException(
+					"Parallelism must be at least 1: " + parallelism);
+
+		this.parallelism = parallelism;
+		this.metrics = metrics == null ? ElectionMetrics.NONE : metrics;
+
+		long start = System.nanoTime();
+
 		initCandidates(ballots);
+		initBallots(ballots);
+
+		long counted = System.nanoTime();
+		this.metrics.time(ElectionMetrics.Phase.INIT_BALLOTS, counted - start);
+		this.metrics.count(ElectionMetrics.Counter.DISTINCT_RANKINGS, 
+				ballots.size());
+
 		setVotes();
+
+		this.metrics.time(ElectionMetrics.Phase.COUNT, 
+				System.nanoTime() - counted);
 	}
-	
-	protected void initBallots(Ballot[] ballots){
-		voterBallots = new ArrayList<Ballot>(); //Sets the ballots list.
-
-		for(int i = 0; i < ballots.length; i++){	//For each ballot,
-			if(ballots[i] != null){					//if it is not null,
-				//add it to the ballots array.
-				voterBallots.add(new Ballot(ballots[i].toArray()));
-			}
-		}
-	}
 
+	/**
+	 * Sets up the candidates from the ballots and counts them in the calling
+	 * thread.
+	 * 
+	 * @param ballots	The ballots to be counted.
+	 * @param metrics	The metrics of the count, or null for none.
+	 */
+	protected void count(CountableBallots ballots, ElectionMetrics metrics){
+		parallelism = 1;
+		this.metrics = metrics == null ? ElectionMetrics.NONE : metrics;
+		countable = ballots;
+		candidates = ballots.getCandidates();
+		candVotes = new long[candidates.size()];
+		voterBallots = Collections.emptyList();
+		numVoters = ballots.getTotalWeight();
+
+		long start = System.nanoTime();
 
+		setVotes();
+
+		this.metrics.time(ElectionMetrics.Phase.COUNT, System.nanoTime() - start);
+	}
+
+	/**
+	 * Returns the metrics that the count of this system reports to, which 
+	 * are <code>ElectionMetrics.NONE</code> unless they were given to the 
+	 * constructor.
+	 * 
+	 * @return The metrics.
+	 */
+	public ElectionMetrics getMetrics(){
+		return metrics;
+	}
+	
 	/**
-	 * Sets up the number of candidate and their names from the first ballot in
-	 * the array. The index of each candidate will be taken from that ballot.
+	 * Sets <code>voterBallots</code> to the ballots in the ballot box. The 
+	 * ballots are shared with the box, so they must not be changed.
 	 */
-	protected void initCandidates(Ballot[] ballots){
-		candVotes = new HashMap<String, Integer>();
+	protected void initBallots(BallotBox ballots){
+		voterBallots = new ArrayList<WeightedBallot>(ballots.size());
 
-		for(Ballot ballot : ballots){
-			for(String cand : ballot.toArray()){
-				if(!candVotes.containsKey(cand))
-					candVotes.put(cand, 0);
-			}
+		for(WeightedBallot ballot : ballots)
+			voterBallots.add(ballot);
 
-		}
+		numVoters = ballots.getTotalWeight();
+	}
+
+
+	/**
+	 * Sets up the dictionary of the candidates from the ballot box and a vote
+	 * count of zero for each candidate.
+	 */
+	protected void initCandidates(BallotBox ballots){
+		candidates = ballots.getCandidates();
+		candVotes = new long[candidates.size()];
 	}
 
 	/**
@@ -90,7 +248,7 @@ public abstract class VotingSystem {
 	public String computeWinner() {
 		String winner = getWinner();		//Get the winner,
 
-		if(isTied(winner) || winner.length() == 0){	//If the winner is tied
+		if(winner.length() == 0 || isTied(winner)){	//If the winner is tied
 			return "Tie";					//return "Tie"
 		} else {
 			return winner;//Otherwise return the winner.
@@ -102,18 +260,24 @@ public abstract class VotingSystem {
 	 */
 	protected abstract void setVotes();
 
+	/**
+	 * Returns the number of threads used to count the ballots.
+	 * 
+	 * @return The parallelism of the count.
+	 */
+	public int getParallelism(){
+		return parallelism;
+	}
+
 	protected String getWinner(){
-		String winner = "";
-		int maxVotes = 0;
-
-		for(Map.Entry<String, Integer> entry : candVotes.entrySet()){
-			if(entry.getValue() > maxVotes || maxVotes == 0){
-				maxVotes = entry.getValue();
-				winner = entry.getKey();
-			}
+		int winner = -1;
+
+		for(int id = 0; id < candVotes.length; id++){
+			if(winner == -1 || candVotes[id] > candVotes[winner])
+				winner = id;
 		}
 
-		return winner;
+		return winner == -1 ? "" : candidates.getName(winner);
 	}
 
 	/**
@@ -124,66 +288,93 @@ public abstract class VotingSystem {
 	 * otherwise <code>false</code>.
 	 */
 	protected boolean isTied(String candidate){
-		boolean isTie = false;
-		int candsVotes = candVotes.get(candidate);
+		int candidateId = candidates.getId(candidate);
 
-		for(Map.Entry<String, Integer> entry : candVotes.entrySet()){
-
-			if(entry.getValue() == candsVotes && 
-					!candidate.equals(entry.getKey())){
-				isTie = true; //Then that candidate is tied.
-			}
+		for(int id = 0; id < candVotes.length; id++){
+			if(id != candidateId && candVotes[id] == candVotes[candidateId])
+				return true; //Then that candidate is tied.
 		}
 
-		return isTie;
+		return false;
 	}
 
 	/**
-	 * Returns a summary of the election.
-	 * @return The summary. TODO be more specific
+	 * Returns a summary of the election as the text written by 
+	 * <code>TextRenderer</code>.
+	 * @return The summary.
 	 */
 	public String results(){
-		String results = "";
-
-		String[] candidates = getSortedCandidateList(); //Sorts the candidates.
+		StringBuilder results = new StringBuilder();
 
-		for(String candidate : candidates){
-			results += String.format("%-18s %d", //each candidate's results.
-					candidate + ":", candVotes.get(candidate)) + "\n";
+		try {
+			results(results, new TextRenderer());
+		} catch(IOException e){
+			throw new AssertionError(e); //A StringBuilder does not throw it.
 		}
 
-		return results;
+		return results.toString();
 	}
 
 	/**
-	 * Returns an array of the candidates sorted by number of votes received.
+	 * Writes a summary of the election to the destination in the format of 
+	 * the renderer.
+	 * 
+	 * @param out		The destination, such as a <code>Writer</code>.
+	 * @param renderer	The format of the summary.
+	 * @throws IOException if the destination throws it.
 	 */
-	protected String[] getSortedCandidateList(){
-		String[] candidates = new String[candVotes.size()];
+	public void results(Appendable out, ResultRenderer renderer) 
+			throws IOException {
+		long start = System.nanoTime();
 
-		int i = 0;
+		renderer.render(getResult(), out);
 
-		for(Map.Entry<String, Integer> entry : candVotes.entrySet())
-			candidates[i++] = entry.getKey();
-
-		insertionSort(candidates);
+		metrics.time(ElectionMetrics.Phase.RESULTS, System.nanoTime() - start);
+	}
 
-		return candidates;
+	/**
+	 * Returns the outcome of the election as a structured result, with the 
+	 * candidates sorted by number of votes received. Subclasses add the 
+	 * counts particular to them.
+	 * 
+	 * @return The result of the election.
+	 */
+	public ElectionResult getResult(){
+		return new ElectionResult(getClass().getSimpleName(), computeWinner(),
+				candidates, numVoters, candVotes, getSortedCandidateIds());
 	}
 
-	private void insertionSort(String[] a){
-		for(int i = 1; i < a.length; i++){
-			String val = a[i];
-			int index = i;
+	/**
+	 * Returns an array of the candidates sorted by number of votes received.
+	 */
+	protected String[] getSortedCandidateList(){
+		int[] ids = getSortedCandidateIds();
+		String[] names = new String[ids.length];
 
-			while(index > 0 && candVotes.get(val) > candVotes.get(a[index - 1])){
-				a[index] = a[index - 1];
-				index--;
-			}
+		for(int i = 0; i < ids.length; i++)
+			names[i] = candidates.getName(ids[i]);
 
-			a[index] = val;
-		}
+		return names;
+	}
+
+	/**
+	 * Returns an array of the candidates' IDs sorted by number of votes 
+	 * received, with tied candidates in order of ID.
+	 */
+	protected int[] getSortedCandidateIds(){
+		return getRanking(candVotes.length).toArray();
 	}
 
+	/**
+	 * Returns the candidates with the most votes, highest first, with tied 
+	 * candidates in order of ID. Only the top candidates are sorted, so this
+	 * is cheap for a small limit.
+	 * 
+	 * @param limit	The number of places wanted.
+	 * @return The ranking of the top candidates by votes.
+	 */
+	public Ranking getRanking(int limit){
+		return new Ranking(candVotes, limit);
+	}
 
 } //end VotingSystem
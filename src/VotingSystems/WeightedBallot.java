@@ -0,0 +1,65 @@
+package VotingSystems;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <b>W E I G H T E D   B A L L O T</b>
+ *
+ * <p>
+ * <b>Purpose:</b> To hold a ranking of candidates together with the number of
+ * 					voters who cast that exact ranking, so that identical
+ * 					ballots are stored and counted once.
+ * <p>
+ * <b>Input:</b>	The ballot and the number of voters who cast it.
+ * <p>
+ * <b>Output:</b>	None.
+ */
+public class WeightedBallot {
+	/**
+	 * The ranking cast by the voters.
+	 */
+	private Ballot ballot;
+
+	/**
+	 * The number of voters who cast the ranking.
+	 */
+	private long weight;
+
+	/**
+	 * Setups a weighted ballot.
+	 * 
+	 * @param ballot	The ranking cast by the voters.
+	 * @param weight	The number of voters who cast the ranking.
+	 */
+	public WeightedBallot(Ballot ballot, long weight){
+		this.ballot = ballot;
+		this.weight = weight;
+	}
+
+	/**
+	 * Returns the ranking cast by the voters.
+	 * 
+	 * @return The ballot.
+	 */
+	public Ballot getBallot(){
+		return ballot;
+	}
+
+	/**
+	 * Returns the number of voters who cast the ranking.
+	 * 
+	 * @return The weight of the ballot.
+	 */
+	public long getWeight(){
+		return weight;
+	}
+
+	/**
+	 * Adds voters to the ballot.
+	 * 
+	 * @param voters The number of voters to be added.
+	 */
+	void addWeight(long voters){
+		weight += voters;
+	}
+} //end WeightedBallot
@@ -0,0 +1,279 @@
+package VotingSystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Ballot Server Test</b>
+ * <p>
+ * <b>Purpose:</b> To check that a <code>BallotServer</code> on a free port
+ * 			counts the ballots of many clients at once as a
+ * 			<code>LiveElection</code> given the same ballots would, answers
+ * 			every bad line with <code>ERROR</code>, and counts every ballot
+ * 			already queued when it is closed.
+ * <p>
+ * <b>Input:</b>	Random ballots of 5 candidates sent by concurrent clients
+ * 			over the loopback address, with malformed and overlong lines.
+ * <p>
+ * <b>Output:</b>	The replies of the server, its <code>\status</code> and
+ * 			<code>\winner</code> answers, and its final snapshot.
+ */
+public class BallotServerTest {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final String[] NAMES = { "A", "B", "C", "D", "E" };
+
+	private static final int CLIENTS = 32, BALLOTS = 500;
+
+	private static final long TIMEOUT_MILLIS = 30000;
+
+	private BallotServer server;
+
+	@Before
+	public void setup() throws IOException {
+		server = new BallotServer(0);
+	}
+
+	@After
+	public void teardown() throws IOException {
+		server.close();
+	}
+
+	@Test
+	public void concurrentClientsMatchRecount() throws Exception {
+		final List<String> ballots =
+				Collections.synchronizedList(new ArrayList<String>());
+		final List<Throwable> failures =
+				Collections.synchronizedList(new ArrayList<Throwable>());
+		Thread[] clients = new Thread[CLIENTS];
+
+		for(int c = 0; c < CLIENTS; c++){
+			final Random random = new Random(c);
+
+			clients[c] = new Thread(new Runnable(){
+				@Override
+				public void run(){
+					try {
+						vote(random, ballots);
+					} catch(Throwable e){
+						failures.add(e);
+					}
+				}
+			});
+			clients[c].start();
+		}
+
+		for(Thread client : clients)
+			client.join();
+
+		assertEquals(Collections.emptyList(), failures);
+
+		LiveElection recount = new LiveElection();
+
+		for(String line : ballots){
+			int space = line.indexOf(' ');
+
+			recount.addBallot(new Ballot(line.substring(space + 1),
+					recount.getCandidates()),
+					Long.parseLong(line.substring(0, space)));
+		}
+
+		Client client = new Client();
+		String expected = "ballots " + (CLIENTS * (BALLOTS + 2)) +
+				" rejected " + (CLIENTS * 2) +
+				" voters " + recount.getNumVoters();
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		String status;
+
+		//A ballot is in the snapshot some time after its OK.
+		while(!(status = client.send("\\status")).equals(expected) &&
+				System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+
+		assertEquals(expected, status);
+
+		for(VotingMethod method : VotingMethod.values())
+			assertEquals(method.toString(), recount.computeWinner(method),
+					client.send("\\winner " + method.toString()));
+
+		client.close();
+	}
+
+	@Test
+	public void badLinesAreAnsweredWithError() throws IOException {
+		Client client = new Client();
+
+		assertEquals("OK", client.send("2 A,B"));
+		assertError(client.send("A,,B"));
+		assertError(client.send("A,B;C"));
+		assertError(client.send("\\winner"));
+		assertError(client.send("\\winner nobody"));
+		assertError(client.send("\\vote A"));
+		assertEquals("OK", client.send("C"));
+		client.close();
+
+		server.close();
+		assertEquals(4, server.getSnapshot().getBallots());
+		assertEquals(2, server.getSnapshot().getRejected());
+		assertEquals(3, server.getSnapshot().getNumVoters());
+	}
+
+	@Test
+	public void overlongLineIsRefused() throws IOException {
+		Client client = new Client();
+		char[] line = new char[70000];
+
+		Arrays.fill(line, 'A');
+
+		assertEquals("OK", client.send("A"));
+		assertTrue(client.send(new String(line)).startsWith(
+				"ERROR Line longer than "));
+		assertNull("The connection is still open", client.reader.readLine());
+		client.close();
+
+		assertEquals("OK", new Client().send("B"));
+	}
+
+	@Test
+	public void closeCountsQueuedLines() throws IOException {
+		Random random = new Random(18);
+		Client client = new Client();
+		StringBuilder lines = new StringBuilder();
+		int count = 20000;
+
+		for(int i = 0; i < count; i++)
+			lines.append(ballot(random)).append('\n');
+
+		client.out.write(lines.toString().getBytes(UTF_8));
+		client.out.flush();
+
+		for(int i = 0; i < count; i++)
+			assertEquals("OK", client.reader.readLine());
+
+		//Every line has been answered, so every ballot is queued, but some may
+		//not yet be counted.
+		server.close();
+		client.close();
+
+		assertEquals(count, server.getSnapshot().getBallots());
+		assertEquals(0, server.getSnapshot().getRejected());
+	}
+
+	/**
+	 * Sends the ballots of one client, then two malformed ballots and a
+	 * command, and adds the ballots to the list once each is answered with OK.
+	 */
+	private void vote(Random random, List<String> ballots) throws IOException {
+		Client client = new Client();
+		List<String> sent = new ArrayList<String>();
+		StringBuilder lines = new StringBuilder();
+
+		for(int i = 0; i < BALLOTS; i++){
+			String ballot = ballot(random);
+
+			sent.add(ballot);
+			lines.append(ballot).append('\n');
+		}
+
+		lines.append("A,,B\nA,B;C\n\\winner borda\n\\quit\n");
+		client.out.write(lines.toString().getBytes(UTF_8));
+		client.out.flush();
+
+		for(int i = 0; i < BALLOTS; i++)
+			assertEquals("OK", client.reader.readLine());
+
+		assertError(client.reader.readLine());
+		assertError(client.reader.readLine());
+		assertWinner(client.reader.readLine());
+		assertNull(client.reader.readLine());
+		client.close();
+
+		ballots.addAll(sent);
+	}
+
+	/**
+	 * Returns a random weighted ballot that ranks some of the candidates.
+	 */
+	private static String ballot(Random random){
+		List<String> names = new ArrayList<String>(Arrays.asList(NAMES));
+		StringBuilder ballot = new StringBuilder();
+
+		Collections.shuffle(names, random);
+		ballot.append(1 + random.nextInt(3)).append(' ');
+
+		for(int i = 1 + random.nextInt(NAMES.length); i > 0; i--){
+			ballot.append(names.get(i - 1));
+
+			if(i > 1)
+				ballot.append(',');
+		}
+
+		return ballot.toString();
+	}
+
+	private static void assertWinner(String reply){
+		assertTrue(reply, reply != null && (reply.equals("Tie") ||
+				Arrays.asList(NAMES).contains(reply)));
+	}
+
+	private static void assertError(String reply){
+		assertTrue(reply, reply != null && reply.startsWith("ERROR "));
+	}
+
+	/**
+	 * A connection to the server that sends a line at a time.
+	 */
+	private class Client {
+
+		private final Socket socket;
+
+		private final OutputStream out;
+
+		private final BufferedReader reader;
+
+		Client() throws IOException {
+			socket = new Socket(InetAddress.getLoopbackAddress(),
+					server.getPort());
+			socket.setSoTimeout((int) TIMEOUT_MILLIS);
+			out = socket.getOutputStream();
+			reader = new BufferedReader(new InputStreamReader(
+					socket.getInputStream(), UTF_8));
+		}
+
+		/**
+		 * Sends a line and returns the reply.
+		 */
+		String send(String line) throws IOException {
+			out.write((line + "\n").getBytes(UTF_8));
+			out.flush();
+
+			return reader.readLine();
+		}
+
+		void close() throws IOException {
+			socket.close();
+		}
+	}
+} //end BallotServerTest
@@ -0,0 +1,154 @@
+package VotingSystems;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Ballot Trie Test</b>
+ * <p>
+ * <b>Purpose:</b> To check that every voting system counts the same result
+ * 			from a <code>BallotTrie</code> as from a <code>BallotBox</code> of
+ * 			the same ballots.
+ * <p>
+ * <b>Input:</b>	Random elections of 1 to 8 candidates, whose ballots may be
+ * 			empty, have a weight of 0, rank a candidate more than once, or
+ * 			leave candidates out.
+ * <p>
+ * <b>Output:</b>	The winner, the votes, the pairwise votes, and the votes of
+ * 			each instant runoff round of each system must be equal.
+ */
+public class BallotTrieTest {
+
+	private static final int ELECTIONS = 200;
+
+	@Test
+	public void countsMatchBallotBox(){
+		Random random = new Random(21);
+
+		for(int e = 0; e < ELECTIONS; e++){
+			BallotBox box = randomElection(random);
+			BallotTrie trie = new BallotTrie(box);
+			String election = "Election " + e;
+
+			assertEquals(election, box.getTotalWeight(), trie.getTotalWeight());
+			assertSame(election, new Plurality(box).getResult(),
+					new Plurality(trie).getResult());
+			assertSame(election, new Borda(box).getResult(),
+					new Borda(trie).getResult());
+			assertSame(election, new Condorcet(box).getResult(),
+					new Condorcet(trie).getResult());
+			assertSame(election, new Schulze(box).getResult(),
+					new Schulze(trie).getResult());
+			assertSame(election, new RankedPairs(box).getResult(),
+					new RankedPairs(trie).getResult());
+			assertSame(election, new InstantRunoff(box).getResult(),
+					new InstantRunoff(trie).getResult());
+		}
+	}
+
+	@Test
+	public void ballotsAddedDirectlyMatchBallotBox(){
+		Random random = new Random(7);
+
+		for(int e = 0; e < ELECTIONS; e++){
+			CandidateDictionary candidates = new CandidateDictionary();
+			BallotBox box = new BallotBox(candidates);
+			BallotTrie trie = new BallotTrie(candidates);
+			int k = 1 + random.nextInt(8);
+
+			for(int c = 0; c < k; c++)
+				candidates.intern("C" + c);
+
+			for(int b = random.nextInt(200); b > 0; b--){
+				int[] ids = randomBallot(random, k);
+				long weight = random.nextInt(4);
+
+				box.add(ids, ids.length, weight);
+				trie.add(ids, ids.length, weight);
+			}
+
+			String election = "Election " + e;
+
+			assertSame(election, new Borda(box).getResult(),
+					new Borda(trie).getResult());
+			assertSame(election, new Condorcet(box).getResult(),
+					new Condorcet(trie).getResult());
+			assertSame(election, new InstantRunoff(box).getResult(),
+					new InstantRunoff(trie).getResult());
+		}
+	}
+
+	private static BallotBox randomElection(Random random){
+		BallotBox box = new BallotBox();
+		int k = 1 + random.nextInt(8);
+
+		for(int c = 0; c < k; c++)
+			box.getCandidates().intern("C" + c);
+
+		for(int b = random.nextInt(200); b > 0; b--){
+			int[] ids = randomBallot(random, k);
+			box.add(ids, ids.length, random.nextInt(4));
+		}
+
+		return box;
+	}
+
+	/**
+	 * Returns up to <i>k</i> + 1 random IDs, which may repeat.
+	 */
+	private static int[] randomBallot(Random random, int k){
+		int[] ids = new int[random.nextInt(k + 2)];
+
+		for(int i = 0; i < ids.length; i++)
+			ids[i] = random.nextInt(k);
+
+		return ids;
+	}
+
+	private static void assertSame(String election, ElectionResult expected,
+			ElectionResult actual){
+		String method = election + ", " + expected.getMethod();
+		int k = expected.getNumCandidates();
+
+		assertEquals(method, expected.getWinner(), actual.getWinner());
+		assertEquals(method, expected.getNumVoters(), actual.getNumVoters());
+		assertEquals(method, k, actual.getNumCandidates());
+
+		for(int id = 0; id < k; id++)
+			assertEquals(method + ", votes of " + id, expected.getVotes(id),
+					actual.getVotes(id));
+
+		assertEquals(method, expected.hasPairwise(), actual.hasPairwise());
+
+		if(expected.hasPairwise()){
+			for(int a = 0; a < k; a++){
+				for(int b = 0; b < k; b++){
+					if(a != b)
+						assertEquals(method + ", " + a + " against " + b,
+								expected.getPairwise(a, b),
+								actual.getPairwise(a, b));
+				}
+			}
+		}
+
+		assertEquals(method, expected.hasRounds(), actual.hasRounds());
+
+		if(expected.hasRounds()){
+			assertEquals(method, expected.getNumRounds(),
+					actual.getNumRounds());
+
+			for(int round = 0; round < expected.getNumRounds(); round++){
+				for(int id = 0; id < k; id++)
+					assertEquals(method + ", round " + round + " votes of " + id,
+							expected.getRoundVotes(round, id),
+							actual.getRoundVotes(round, id));
+			}
+		}
+	}
+} //end BallotTrieTest
@@ -0,0 +1,83 @@
+package VotingSystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Election Metrics Test</b>
+ * <p>
+ * <b>Purpose:</b> To check that every voting system can be given null
+ * 			metrics, which count as <code>ElectionMetrics.NONE</code>, and
+ * 			that metrics that are given receive the count.
+ * <p>
+ * <b>Input:</b>	A Mallows election counted from a <code>BallotBox</code>
+ * 			and from a <code>BallotTrie</code>.
+ * <p>
+ * <b>Output:</b>	Each system counted with null metrics must have the
+ * 			metrics <code>ElectionMetrics.NONE</code> and the same winner as
+ * 			when counted without metrics.
+ */
+public class ElectionMetricsTest {
+
+	private final BallotBox box = ElectionModel.mallows(5, 0.8).generate(
+			new Random(16), 1000, 0);
+
+	@Test
+	public void systemsFromBallotBoxAllowNullMetrics(){
+		long[] scores = { 2, 1 };
+
+		check(new Plurality(box), new Plurality(box, 1, null));
+		check(new Borda(box), new Borda(box, 1, null));
+		check(new Condorcet(box), new Condorcet(box, 1, null));
+		check(new Schulze(box), new Schulze(box, 1, null));
+		check(new RankedPairs(box), new RankedPairs(box, 1, null));
+		check(new InstantRunoff(box), new InstantRunoff(box, null));
+		check(PositionalScoring.dowdall(box),
+				PositionalScoring.dowdall(box, null));
+		check(new PositionalScoring(box, 1, scores, ElectionMetrics.NONE),
+				new PositionalScoring(box, 1, scores, null));
+	}
+
+	@Test
+	public void systemsFromBallotTrieAllowNullMetrics(){
+		BallotTrie trie = new BallotTrie(box);
+
+		check(new Plurality(box), new Plurality(trie, null));
+		check(new Borda(box), new Borda(trie, null));
+		check(new Condorcet(box), new Condorcet(trie, null));
+		check(new Schulze(box), new Schulze(trie, null));
+		check(new RankedPairs(box), new RankedPairs(trie, null));
+		check(new InstantRunoff(box), new InstantRunoff(trie, null));
+	}
+
+	@Test
+	public void evaluatorAllowsNullMetrics(){
+		assertEquals(new ElectionEvaluator(box).results(),
+				new ElectionEvaluator(box, null).results());
+	}
+
+	@Test
+	public void givenMetricsReceiveTheCount(){
+		MetricsRecorder recorder = new MetricsRecorder();
+		InstantRunoff runoff = new InstantRunoff(box, recorder);
+
+		assertSame(recorder, runoff.getMetrics());
+		assertEquals(1, recorder.getRuns(ElectionMetrics.Phase.COUNT));
+		assertEquals(box.size(),
+				recorder.getCount(ElectionMetrics.Counter.DISTINCT_RANKINGS));
+		assertTrue(recorder.getCount(ElectionMetrics.Counter.ROUNDS) > 0);
+	}
+
+	private static void check(VotingSystem expected, VotingSystem counted){
+		assertSame(ElectionMetrics.NONE, counted.getMetrics());
+		assertEquals(expected.computeWinner(), counted.computeWinner());
+	}
+} //end ElectionMetricsTest
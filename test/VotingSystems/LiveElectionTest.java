@@ -0,0 +1,186 @@
+package VotingSystems;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Live Election Test</b>
+ * <p>
+ * <b>Purpose:</b> To check that a <code>LiveElection</code> whose ballots are
+ * 			added and removed in any order gives the same winners and counts
+ * 			as the voting systems give for a fresh count of the ballots left,
+ * 			and that a failed removal leaves it unchanged.
+ * <p>
+ * <b>Input:</b>	Random additions and removals of weighted ballots of 2 to 7
+ * 			candidates, and removals of ballots that were never cast.
+ * <p>
+ * <b>Output:</b>	After every change, the winner by each method, the
+ * 			plurality votes, the Borda scores and the pairwise votes must
+ * 			equal those of <code>Plurality</code>, <code>Borda</code>,
+ * 			<code>Condorcet</code> and <code>InstantRunoff</code>.
+ */
+public class LiveElectionTest {
+
+	private static final int ELECTIONS = 100, CHANGES = 60;
+
+	@Test
+	public void addAndRemoveMatchRecount(){
+		Random random = new Random(9);
+
+		for(int e = 0; e < ELECTIONS; e++){
+			int k = 2 + random.nextInt(6);
+			LiveElection election = new LiveElection();
+			Map<String, Long> cast = new TreeMap<String, Long>();
+
+			for(int c = 0; c < CHANGES; c++){
+				String message = "Election " + e + ", change " + c;
+
+				if(!cast.isEmpty() && random.nextInt(3) == 0){
+					List<String> rankings = new ArrayList<String>(
+							cast.keySet());
+					String ranking = rankings.get(
+							random.nextInt(rankings.size()));
+					long weight = 1 + random.nextInt(
+							cast.get(ranking).intValue());
+
+					election.removeBallot(new Ballot(ranking), weight);
+					update(cast, ranking, -weight);
+				} else {
+					String ranking = ranking(random, k);
+					long weight = 1 + random.nextInt(3);
+
+					election.addBallot(new Ballot(ranking), weight);
+					update(cast, ranking, weight);
+				}
+
+				check(message, election, cast);
+			}
+		}
+	}
+
+	@Test
+	public void removingUnknownBallotChangesNothing(){
+		LiveElection election = new LiveElection();
+		Map<String, Long> cast = new TreeMap<String, Long>();
+
+		election.addBallot(new Ballot("A,B,C"), 3);
+		election.addBallot(new Ballot("B,C"), 2);
+		update(cast, "A,B,C", 3);
+		update(cast, "B,C", 2);
+
+		for(String ranking : new String[]{ "Z", "A,Z", "C,B,A", "B,C" }){
+			try {
+				election.removeBallot(new Ballot(ranking), 3);
+				fail("Removed " + ranking);
+			} catch(IllegalArgumentException expected){
+			}
+
+			//The unknown name Z must not grow the counts.
+			assertEquals(3, election.getCandidates().size());
+			assertEquals("B", election.computeWinner(VotingMethod.BORDA));
+			check("After removing " + ranking, election, cast);
+		}
+	}
+
+	/**
+	 * Checks the winners and counts of the election against a fresh count of
+	 * the rankings cast.
+	 */
+	private static void check(String message, LiveElection election,
+			Map<String, Long> cast){
+		CandidateDictionary candidates = election.getCandidates();
+		BallotBox box = new BallotBox(candidates);
+
+		for(Map.Entry<String, Long> entry : cast.entrySet())
+			box.add(new Ballot(entry.getKey(), candidates), entry.getValue());
+
+		Plurality plurality = new Plurality(box);
+		Borda borda = new Borda(box);
+		Condorcet condorcet = new Condorcet(box);
+		int k = candidates.size();
+
+		assertEquals(message, box.getTotalWeight(), election.getNumVoters());
+		assertEquals(message, plurality.computeWinner(),
+				election.computeWinner(VotingMethod.PLURALITY));
+		assertEquals(message, borda.computeWinner(),
+				election.computeWinner(VotingMethod.BORDA));
+		assertEquals(message, condorcet.computeWinner(),
+				election.computeWinner(VotingMethod.CONDORCET));
+		assertEquals(message, new InstantRunoff(box).computeWinner(),
+				election.computeWinner(VotingMethod.INSTANT_RUNOFF));
+
+		assertArrayEquals(message, votes(plurality.getResult(), k),
+				election.getPluralityVotes());
+		assertArrayEquals(message, votes(borda.getResult(), k),
+				election.getBordaScores());
+
+		for(int a = 0; a < k; a++){
+			for(int b = 0; b < k; b++){
+				if(a != b)
+					assertEquals(message + ", " + a + " against " + b,
+							condorcet.getVotes(a, b),
+							election.getPairwiseVotes(a, b));
+			}
+		}
+	}
+
+	private static long[] votes(ElectionResult result, int k){
+		long[] votes = new long[k];
+
+		for(int id = 0; id < k; id++)
+			votes[id] = result.getVotes(id);
+
+		return votes;
+	}
+
+	/**
+	 * Adds the weight, which is negative for a removal, to the ranking, and
+	 * forgets a ranking that no voter casts.
+	 */
+	private static void update(Map<String, Long> cast, String ranking,
+			long weight){
+		Long old = cast.get(ranking);
+		long sum = (old == null ? 0 : old) + weight;
+
+		if(sum == 0)
+			cast.remove(ranking);
+		else
+			cast.put(ranking, sum);
+	}
+
+	/**
+	 * Returns a random ranking of some of the <code>k</code> candidates.
+	 */
+	private static String ranking(Random random, int k){
+		List<String> names = new ArrayList<String>();
+
+		for(int c = 0; c < k; c++)
+			names.add(String.valueOf((char) ('A' + c)));
+
+		Collections.shuffle(names, random);
+
+		StringBuilder ranking = new StringBuilder();
+
+		for(int i = 1 + random.nextInt(k); i > 0; i--){
+			ranking.append(names.get(i - 1));
+
+			if(i > 1)
+				ranking.append(',');
+		}
+
+		return ranking.toString();
+	}
+} //end LiveElectionTest
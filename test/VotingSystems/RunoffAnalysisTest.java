@@ -0,0 +1,203 @@
+package VotingSystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Runoff Analysis Test</b>
+ * <p>
+ * <b>Purpose:</b> To check the bounds of <code>RunoffAnalysis</code> against
+ * 			the margin of victory found by trying every change of a few
+ * 			ballots.
+ * <p>
+ * <b>Input:</b>	Random elections of 2 to 4 candidates and 3 to 14 voters,
+ * 			whose ballots may leave candidates out.
+ * <p>
+ * <b>Output:</b>	The lower bound must not be above the margin, and the
+ * 			upper bound must not be below it. If the upper bound is small
+ * 			enough to be tried, some change of that many ballots must elect
+ * 			another candidate.
+ */
+public class RunoffAnalysisTest {
+
+	private static final int ELECTIONS = 300;
+
+	@Test
+	public void boundsHoldTheMargin(){
+		Random random = new Random(42);
+		int checked = 0;
+
+		for(int e = 0; e < ELECTIONS; e++){
+			int k = 2 + random.nextInt(e % 3 == 0 ? 3 : 2);
+			BallotBox box = ElectionModel.impartialCulture(k).generate(random,
+					3 + random.nextInt(12), random.nextInt(k + 1));
+			RunoffAnalysis analysis = new RunoffAnalysis(box,
+					1 + random.nextInt(3));
+			String election = "Election " + e;
+
+			if(analysis.getWinner().equals("Tie"))
+				continue;
+
+			long lower = analysis.getLowerBound();
+			long upper = analysis.getUpperBound();
+			int most = k == 4 ? 2 : 3;	//The most changes tried.
+
+			assertTrue(election + ": " + lower + " > " + upper, lower <= upper);
+
+			Margin margin = new Margin(box, analysis.getWinner(), k);
+			int exact = margin.find((int) Math.min(upper, most));
+
+			if(exact == -1){
+				assertTrue(election + ": no change of " + upper +
+						" elects another", upper > most);
+				continue;
+			}
+
+			assertTrue(election + ": margin " + exact + " below " + lower,
+					lower <= exact);
+			assertTrue(election + ": margin " + exact + " above " + upper,
+					exact <= upper);
+			checked++;
+		}
+
+		assertTrue("Too few margins found: " + checked, checked > ELECTIONS / 2);
+	}
+
+	@Test
+	public void boundsMeetOnMallowsElections(){
+		for(double phi : new double[]{ 0.8, 0.9 }){
+			BallotBox box = ElectionModel.mallows(8, phi).generate(
+					new Random(1), 20000, 8);
+			RunoffAnalysis analysis = new RunoffAnalysis(box, 2);
+
+			assertEquals("Phi " + phi, analysis.getLowerBound(),
+					analysis.getUpperBound());
+		}
+	}
+
+	/**
+	 * Finds the margin of victory by removing every choice of ballots and
+	 * adding every choice of rankings in their place.
+	 */
+	private static class Margin {
+
+		private final CandidateDictionary candidates;
+
+		private final String winner;
+
+		private final List<int[]> ballots = new ArrayList<int[]>();
+
+		private final List<Long> weights = new ArrayList<Long>();
+
+		/**
+		 * Holds every ranking of at least one of the candidates.
+		 */
+		private final List<int[]> rankings = new ArrayList<int[]>();
+
+		Margin(BallotBox box, String winner, int k){
+			this.candidates = box.getCandidates();
+			this.winner = winner;
+
+			for(WeightedBallot weighted : box){
+				Ballot ballot = weighted.getBallot();
+				int[] ids = new int[ballot.getBallotLength()];
+
+				for(int i = 0; i < ids.length; i++)
+					ids[i] = ballot.getCandidateId(i);
+
+				ballots.add(ids);
+				weights.add(weighted.getWeight());
+			}
+
+			rankings(new int[k], 0, new boolean[k]);
+		}
+
+		private void rankings(int[] ranking, int length, boolean[] ranked){
+			if(length > 0){
+				int[] copy = new int[length];
+				System.arraycopy(ranking, 0, copy, 0, length);
+				rankings.add(copy);
+			}
+
+			for(int c = 0; c < ranked.length; c++){
+				if(!ranked[c]){
+					ranked[c] = true;
+					ranking[length] = c;
+					rankings(ranking, length + 1, ranked);
+					ranked[c] = false;
+				}
+			}
+		}
+
+		/**
+		 * Returns the fewest voters up to <code>most</code> whose change
+		 * elects another candidate, or -1 if there are none.
+		 */
+		int find(int most){
+			for(int x = 1; x <= most; x++){
+				if(remove(new long[ballots.size()], x, x, 0))
+					return x;
+			}
+
+			return -1;
+		}
+
+		private boolean remove(long[] removed, int x, int left, int from){
+			if(left == 0)
+				return add(removed, x, 0, new ArrayList<int[]>());
+
+			for(int i = from; i < ballots.size(); i++){
+				if(removed[i] < weights.get(i)){
+					removed[i]++;
+
+					if(remove(removed, x, left - 1, i))
+						return true;
+
+					removed[i]--;
+				}
+			}
+
+			return false;
+		}
+
+		private boolean add(long[] removed, int x, int from,
+				List<int[]> added){
+			if(added.size() == x){
+				BallotBox box = new BallotBox(candidates);
+
+				for(int i = 0; i < ballots.size(); i++){
+					if(weights.get(i) > removed[i])
+						box.add(ballots.get(i), ballots.get(i).length,
+								weights.get(i) - removed[i]);
+				}
+
+				for(int[] ranking : added)
+					box.add(ranking, ranking.length, 1);
+
+				String other = new InstantRunoff(box).computeWinner();
+
+				return !other.equals(winner) && !other.equals("Tie");
+			}
+
+			for(int i = from; i < rankings.size(); i++){
+				added.add(rankings.get(i));
+
+				if(add(removed, x, i, added))
+					return true;
+
+				added.remove(added.size() - 1);
+			}
+
+			return false;
+		}
+	}
+} //end RunoffAnalysisTest
@@ -0,0 +1,207 @@
+package VotingSystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Warren Godone-Maresca
+ *
+ * <p>
+ * <b>Tally Checkpoint Test</b>
+ * <p>
+ * <b>Purpose:</b> To check that a count resumed from a
+ * 			<code>TallyCheckpoint</code> equals a count of the whole ballot
+ * 			file, and that a snapshot is refused for a ballot file that has
+ * 			changed.
+ * <p>
+ * <b>Input:</b>	A ballot file of random lines, larger than the sample of
+ * 			the checkpoint, which is then added to, changed, cut short, or
+ * 			replaced.
+ * <p>
+ * <b>Output:</b>	The same ballots as a read without a checkpoint, or an
+ * 			<code>IOException</code> from <code>restore()</code>.
+ */
+public class TallyCheckpointTest {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final int INTERVAL = 1000;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path ballots, snapshot;
+
+	private List<String> lines;
+
+	@Before
+	public void setup() throws IOException {
+		Random random = new Random(23);
+		String[] names = { "A", "B", "C", "D", "É" };
+
+		lines = new ArrayList<String>();
+
+		for(int i = 0; i < 60000; i++){
+			StringBuilder line = new StringBuilder();
+
+			if(random.nextBoolean())
+				line.append(1 + random.nextInt(9)).append(' ');
+
+			for(int n = 1 + random.nextInt(names.length); n > 0; n--){
+				line.append(names[random.nextInt(names.length)]);
+
+				if(n > 1)
+					line.append('>');
+			}
+
+			lines.add(line.toString());
+		}
+
+		ballots = folder.getRoot().toPath().resolve("ballots.txt");
+		snapshot = folder.getRoot().toPath().resolve("ballots.ck");
+	}
+
+	@Test
+	public void resumeAfterAppendMatchesFullRead() throws IOException {
+		Files.write(ballots, lines.subList(0, 40000), UTF_8);
+		count();
+
+		Files.write(ballots, lines.subList(40000, lines.size()), UTF_8,
+				StandardOpenOption.APPEND);
+
+		TallyCheckpoint checkpoint = checkpoint();
+		BallotBox resumed = checkpoint.restore();
+		long offset = checkpoint.getOffset();
+
+		new BallotFileReader(ballots).read(resumed, checkpoint);
+
+		BallotBox full = new BallotBox();
+		new BallotFileReader(ballots).read(full);
+
+		assertTrue(offset > 0 && offset < Files.size(ballots));
+		assertEquals(full.getTotalWeight(), resumed.getTotalWeight());
+		assertEquals(rankings(full), rankings(resumed));
+	}
+
+	@Test
+	public void restoreRefusesChangeAtStart() throws IOException {
+		Files.write(ballots, lines, UTF_8);
+		count();
+		flip(0);
+		assertRefused();
+	}
+
+	@Test
+	public void restoreRefusesChangeBeforeOffset() throws IOException {
+		Files.write(ballots, lines, UTF_8);
+		long offset = count();
+
+		flip(offset - 200);		//In the last block of the sample.
+		assertRefused();
+	}
+
+	@Test
+	public void restoreRefusesShorterFile() throws IOException {
+		Files.write(ballots, lines, UTF_8);
+		count();
+
+		byte[] bytes = Files.readAllBytes(ballots);
+		Files.write(ballots, Arrays.copyOf(bytes, bytes.length - 10));
+		assertRefused();
+	}
+
+	@Test
+	public void restoreRefusesReplacedFile() throws IOException {
+		Files.write(ballots, lines, UTF_8);
+		count();
+
+		Assume.assumeTrue(Files.readAttributes(ballots,
+				BasicFileAttributes.class).fileKey() != null);
+
+		Path copy = folder.newFile("copy.txt").toPath();
+
+		Files.copy(ballots, copy, StandardCopyOption.REPLACE_EXISTING);
+		Files.move(copy, ballots, StandardCopyOption.REPLACE_EXISTING);
+		assertRefused();
+	}
+
+	/**
+	 * Reads the whole ballot file with the checkpoint and returns the offset
+	 * of the last snapshot.
+	 */
+	private long count() throws IOException {
+		TallyCheckpoint checkpoint = checkpoint();
+
+		new BallotFileReader(ballots).read(checkpoint.restore(), checkpoint);
+
+		return checkpoint.getOffset();
+	}
+
+	/**
+	 * Returns the weight of each distinct ranking by the names it ranks, so
+	 * that boxes whose dictionaries differ can be compared.
+	 */
+	private static Map<String, Long> rankings(BallotBox box){
+		Map<String, Long> rankings = new TreeMap<String, Long>();
+
+		for(WeightedBallot weighted : box){
+			Ballot ballot = weighted.getBallot();
+			StringBuilder names = new StringBuilder();
+
+			for(int i = 0; i < ballot.getBallotLength(); i++)
+				names.append(ballot.getCandidate(i)).append('>');
+
+			rankings.put(names.toString(), weighted.getWeight());
+		}
+
+		return rankings;
+	}
+
+	private TallyCheckpoint checkpoint(){
+		return new TallyCheckpoint(snapshot, ballots, INTERVAL);
+	}
+
+	/**
+	 * Changes the first name from A to D at or after the offset of the ballot
+	 * file to another of the same length.
+	 */
+	private void flip(long offset) throws IOException {
+		byte[] bytes = Files.readAllBytes(ballots);
+		int at = (int) offset;
+
+		while(bytes[at] < 'A' || bytes[at] > 'D')
+			at++;
+
+		bytes[at] = (byte) (bytes[at] == 'A' ? 'B' : 'A');
+		Files.write(ballots, bytes);
+	}
+
+	private void assertRefused(){
+		try {
+			checkpoint().restore();
+			fail("Restored a snapshot of a changed ballot file");
+		} catch(IOException expected){
+		}
+	}
+} //end TallyCheckpointTest